@@ -0,0 +1,69 @@
+package com.hotelreservation.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark de GestorReservas.confirmarReserva.
+ * Una reserva solo se puede confirmar una vez, así que cada iteración prepara un lote
+ * de reservas pendientes y mide el tiempo de confirmar el lote completo.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, batchSize = ConfirmacionBenchmark.LOTE)
+@Measurement(iterations = 20, batchSize = ConfirmacionBenchmark.LOTE)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g",
+        "-Dlogback.configurationFile=logback-benchmark.xml"})
+public class ConfirmacionBenchmark {
+    static final int LOTE = 10_000;
+
+    @Param({"1000", "100000", "1000000"})
+    private int tamano;
+
+    private HotelSintetico hotel;
+    private String[] pendientes;
+    private int cursor;
+    private long semana;
+
+    @Setup(Level.Trial)
+    public void preparar() {
+        hotel = new HotelSintetico(tamano);
+        pendientes = new String[LOTE];
+        semana = 0;
+    }
+
+    @Setup(Level.Iteration)
+    public void prepararLote() {
+        for (int i = 0; i < LOTE; i++) {
+            int indice = i % tamano;
+            if (indice == 0) {
+                semana++;
+            }
+            LocalDate checkIn = HotelSintetico.FECHA_BASE
+                    .plusDays(HotelSintetico.DIAS_HORIZONTE + semana * 7);
+            pendientes[i] = hotel.getGestor().crearReserva(hotel.getCliente(indice),
+                    hotel.getHabitacionUnica(indice), checkIn, checkIn.plusDays(3),
+                    hotel.getMetodoPago()).getIdReserva();
+        }
+        cursor = 0;
+    }
+
+    @Benchmark
+    public void confirmarReserva() {
+        hotel.getGestor().confirmarReserva(pendientes[cursor++]);
+    }
+}
@@ -0,0 +1,77 @@
+package com.hotelreservation.benchmark;
+
+import com.hotelreservation.model.Habitacion;
+import com.hotelreservation.model.Reserva;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks de las consultas de solo lectura de GestorReservas.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g",
+        "-Dlogback.configurationFile=logback-benchmark.xml"})
+public class ConsultasBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    private int tamano;
+
+    private HotelSintetico hotel;
+
+    @Setup(Level.Trial)
+    public void preparar() {
+        hotel = new HotelSintetico(tamano);
+    }
+
+    /**
+     * Consultas aleatorias pero reproducibles, una secuencia por hilo.
+     */
+    @State(Scope.Thread)
+    public static class Consulta {
+        private final SplittableRandom aleatorio = new SplittableRandom(7L);
+
+        LocalDate checkIn() {
+            return HotelSintetico.FECHA_BASE.plusDays(aleatorio.nextInt(HotelSintetico.DIAS_HORIZONTE - 7));
+        }
+
+        int indice(int limite) {
+            return aleatorio.nextInt(limite);
+        }
+    }
+
+    @Benchmark
+    public List<Habitacion> obtenerHabitacionesDisponibles(Consulta consulta) {
+        LocalDate checkIn = consulta.checkIn();
+        return hotel.getGestor().obtenerHabitacionesDisponibles(checkIn, checkIn.plusDays(3));
+    }
+
+    @Benchmark
+    public List<Reserva> obtenerReservasCliente(Consulta consulta) {
+        return hotel.getGestor().obtenerReservasCliente(
+                hotel.getCliente(consulta.indice(hotel.getCantidadClientes())));
+    }
+
+    @Benchmark
+    public double obtenerIngresosTotales() {
+        return hotel.getGestor().obtenerIngresosTotales();
+    }
+}
@@ -0,0 +1,55 @@
+package com.hotelreservation.benchmark;
+
+import com.hotelreservation.model.Reserva;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark de GestorReservas.crearReserva.
+ * Cada invocación reserva la siguiente habitación en una semana posterior al horizonte
+ * del hotel sintético, de modo que ninguna creación falla por falta de disponibilidad.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g",
+        "-Dlogback.configurationFile=logback-benchmark.xml"})
+public class CreacionBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    private int tamano;
+
+    private HotelSintetico hotel;
+    private long contador;
+
+    @Setup(Level.Trial)
+    public void preparar() {
+        hotel = new HotelSintetico(tamano);
+        contador = 0;
+    }
+
+    @Benchmark
+    public Reserva crearReserva() {
+        long n = contador++;
+        int indice = (int) (n % tamano);
+        LocalDate checkIn = HotelSintetico.FECHA_BASE
+                .plusDays(HotelSintetico.DIAS_HORIZONTE + (n / tamano) * 7);
+        return hotel.getGestor().crearReserva(hotel.getCliente(indice), hotel.getHabitacionUnica(indice),
+                checkIn, checkIn.plusDays(3), hotel.getMetodoPago());
+    }
+}
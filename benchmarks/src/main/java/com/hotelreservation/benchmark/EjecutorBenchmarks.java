@@ -0,0 +1,29 @@
+package com.hotelreservation.benchmark;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Punto de entrada de los benchmarks.
+ * Ejecuta siempre con el perfilador de GC para reportar asignaciones por operación
+ * y guarda los resultados en JSON. Acepta además las opciones habituales de JMH,
+ * por ejemplo un filtro de benchmarks o {@code -p tamano=1000}.
+ */
+public class EjecutorBenchmarks {
+
+    public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+        Options opciones = new OptionsBuilder()
+                .parent(new CommandLineOptions(args))
+                .addProfiler(GCProfiler.class)
+                .resultFormat(ResultFormatType.JSON)
+                .result("resultados-jmh.json")
+                .build();
+        new Runner(opciones).run();
+    }
+}
@@ -0,0 +1,127 @@
+package com.hotelreservation.benchmark;
+
+import com.hotelreservation.payment.MetodoPago;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Prueba de carga de confirmaciones con pagos bloqueantes: hilos virtuales, como en
+ * ServicioReservas, contra un pool fijo de hilos de plataforma.
+ * Cada iteración confirma a la vez una ola de reservas pendientes cuyo pago tarda la
+ * latencia indicada, y mide cuánto tarda la ola completa. Con hilos de plataforma la
+ * ola avanza de a {@link #HILOS_PLATAFORMA} pagos; con hilos virtuales esperan todos juntos.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g",
+        "-Dlogback.configurationFile=logback-benchmark.xml"})
+public class HilosVirtualesBenchmark {
+    static final int HILOS_PLATAFORMA = 200;
+
+    @Param({"virtual", "plataforma"})
+    private String ejecutor;
+
+    @Param({"1000", "10000"})
+    private int concurrencia;
+
+    @Param({"20"})
+    private int latenciaPagoMs;
+
+    private HotelSintetico hotel;
+    private MetodoPago pagoLento;
+    private ExecutorService hilos;
+    private String[] pendientes;
+    private long semana;
+
+    @Setup(Level.Trial)
+    public void preparar() {
+        hotel = new HotelSintetico(concurrencia);
+        pagoLento = new PagoConLatencia(latenciaPagoMs);
+        hilos = "virtual".equals(ejecutor)
+                ? Executors.newVirtualThreadPerTaskExecutor()
+                : Executors.newFixedThreadPool(HILOS_PLATAFORMA);
+        pendientes = new String[concurrencia];
+        semana = 0;
+    }
+
+    @Setup(Level.Iteration)
+    public void prepararOla() {
+        semana++;
+        LocalDate checkIn = HotelSintetico.FECHA_BASE.plusDays(HotelSintetico.DIAS_HORIZONTE + semana * 7);
+        for (int i = 0; i < concurrencia; i++) {
+            pendientes[i] = hotel.getGestor().crearReserva(hotel.getCliente(i), hotel.getHabitacionUnica(i),
+                    checkIn, checkIn.plusDays(3), pagoLento).getIdReserva();
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void cerrar() {
+        hilos.close();
+    }
+
+    @Benchmark
+    public void confirmarOla() throws InterruptedException, ExecutionException {
+        List<Future<?>> confirmaciones = new ArrayList<>(concurrencia);
+        for (String idReserva : pendientes) {
+            confirmaciones.add(hilos.submit(() -> hotel.getGestor().confirmarReserva(idReserva)));
+        }
+        for (Future<?> confirmacion : confirmaciones) {
+            confirmacion.get();
+        }
+    }
+
+    /**
+     * Pago que bloquea el hilo la latencia indicada, como una pasarela remota.
+     */
+    private static final class PagoConLatencia implements MetodoPago {
+        private final long latenciaMs;
+
+        private PagoConLatencia(long latenciaMs) {
+            this.latenciaMs = latenciaMs;
+        }
+
+        @Override
+        public boolean procesarPago(double monto) {
+            try {
+                Thread.sleep(latenciaMs);
+                return true;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+
+        @Override
+        public String getNombreMetodo() {
+            return "Pago con latencia";
+        }
+
+        @Override
+        public String obtenerDetalles() {
+            return "Pago simulado de " + latenciaMs + " ms";
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.hotelreservation.benchmark;
+
+import com.hotelreservation.model.Cliente;
+import com.hotelreservation.model.Habitacion;
+import com.hotelreservation.model.HabitacionDoble;
+import com.hotelreservation.model.HabitacionEstandar;
+import com.hotelreservation.model.Reserva;
+import com.hotelreservation.model.Suite;
+import com.hotelreservation.model.SuitePresidencial;
+import com.hotelreservation.payment.MetodoPago;
+import com.hotelreservation.payment.PagoTarjetaCredito;
+import com.hotelreservation.service.GestorReservas;
+
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Hotel sintético y reproducible para los benchmarks.
+ * SRP: Responsabilidad única de poblar un GestorReservas con datos de prueba.
+ * Cada habitación recibe una reserva en el primer año a partir de {@link #FECHA_BASE};
+ * la mitad de las reservas queda confirmada y la otra mitad pendiente.
+ */
+public class HotelSintetico {
+    public static final LocalDate FECHA_BASE = LocalDate.of(2030, 1, 1);
+    public static final int DIAS_HORIZONTE = 365;
+    private static final long SEMILLA = 42L;
+
+    private final GestorReservas gestor;
+    private final Habitacion[] habitaciones;
+    private final Cliente[] clientes;
+    private final MetodoPago metodoPago;
+    private final Random aleatorio;
+
+    public HotelSintetico(int tamano) {
+        this.gestor = new GestorReservas();
+        this.habitaciones = new Habitacion[tamano];
+        this.clientes = new Cliente[Math.max(1, tamano / 10)];
+        this.metodoPago = new PagoTarjetaCredito("4111111111111111", "Cliente Benchmark", "12/35", "123");
+        this.aleatorio = new Random(SEMILLA);
+
+        for (int i = 0; i < tamano; i++) {
+            habitaciones[i] = crearHabitacion(i);
+            gestor.registrarHabitacion(habitaciones[i]);
+        }
+        for (int i = 0; i < clientes.length; i++) {
+            String documento = String.valueOf(10_000_000 + i);
+            clientes[i] = new Cliente("Cliente " + i, "cliente" + i + "@hotel.com", "3000000000", documento);
+        }
+        for (int i = 0; i < tamano; i++) {
+            LocalDate checkIn = FECHA_BASE.plusDays(aleatorio.nextInt(DIAS_HORIZONTE - 7));
+            LocalDate checkOut = checkIn.plusDays(1 + aleatorio.nextInt(7));
+            Reserva reserva = gestor.crearReserva(clientes[i % clientes.length],
+                    Collections.singletonList(habitaciones[i]), checkIn, checkOut, metodoPago);
+            if (i % 2 == 0) {
+                gestor.confirmarReserva(reserva.getIdReserva());
+            }
+        }
+    }
+
+    private static Habitacion crearHabitacion(int indice) {
+        String numero = String.valueOf(100_000 + indice);
+        switch (indice % 4) {
+            case 0:
+                return new HabitacionEstandar(numero);
+            case 1:
+                return new HabitacionDoble(numero);
+            case 2:
+                return new Suite(numero);
+            default:
+                return new SuitePresidencial(numero);
+        }
+    }
+
+    public GestorReservas getGestor() {
+        return gestor;
+    }
+
+    public int getTamano() {
+        return habitaciones.length;
+    }
+
+    public Habitacion getHabitacion(int indice) {
+        return habitaciones[indice];
+    }
+
+    public List<Habitacion> getHabitacionUnica(int indice) {
+        return Collections.singletonList(habitaciones[indice]);
+    }
+
+    public Cliente getCliente(int indice) {
+        return clientes[indice % clientes.length];
+    }
+
+    public int getCantidadClientes() {
+        return clientes.length;
+    }
+
+    public MetodoPago getMetodoPago() {
+        return metodoPago;
+    }
+}
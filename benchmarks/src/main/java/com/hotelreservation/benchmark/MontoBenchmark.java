@@ -0,0 +1,94 @@
+package com.hotelreservation.benchmark;
+
+import com.hotelreservation.model.Cliente;
+import com.hotelreservation.model.Habitacion;
+import com.hotelreservation.model.HabitacionDoble;
+import com.hotelreservation.model.HabitacionEstandar;
+import com.hotelreservation.model.Reserva;
+import com.hotelreservation.model.Suite;
+import com.hotelreservation.model.SuitePresidencial;
+import com.hotelreservation.payment.MetodoPago;
+import com.hotelreservation.payment.PagoTarjetaCredito;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark de Reserva.calcularMontoTotal para estancias de distinta cantidad de habitaciones.
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Dlogback.configurationFile=logback-benchmark.xml")
+public class MontoBenchmark {
+
+    @Param({"1", "4", "16"})
+    private int habitaciones;
+
+    @Param({"3", "90"})
+    private int noches;
+
+    private ReservaMedible reserva;
+
+    @Setup(Level.Trial)
+    public void preparar() {
+        List<Habitacion> lista = new ArrayList<>();
+        for (int i = 0; i < habitaciones; i++) {
+            String numero = String.valueOf(100 + i);
+            switch (i % 4) {
+                case 0:
+                    lista.add(new HabitacionEstandar(numero));
+                    break;
+                case 1:
+                    lista.add(new HabitacionDoble(numero));
+                    break;
+                case 2:
+                    lista.add(new Suite(numero));
+                    break;
+                default:
+                    lista.add(new SuitePresidencial(numero));
+                    break;
+            }
+        }
+        Cliente cliente = new Cliente("Cliente Benchmark", "bench@hotel.com", "3000000000", "99999999");
+        MetodoPago metodoPago = new PagoTarjetaCredito("4111111111111111", "Cliente Benchmark", "12/35", "123");
+        LocalDate checkIn = HotelSintetico.FECHA_BASE;
+        reserva = new ReservaMedible(cliente, lista, checkIn, checkIn.plusDays(noches), metodoPago);
+    }
+
+    @Benchmark
+    public double calcularMontoTotal() {
+        return reserva.recalcular();
+    }
+
+    /**
+     * Expone el cálculo protegido de Reserva para poder medirlo aislado.
+     */
+    static class ReservaMedible extends Reserva {
+        ReservaMedible(Cliente cliente, List<Habitacion> habitaciones,
+                       LocalDate fechaCheckIn, LocalDate fechaCheckOut, MetodoPago metodoPago) {
+            super(cliente, habitaciones, fechaCheckIn, fechaCheckOut, metodoPago);
+        }
+
+        double recalcular() {
+            calcularMontoTotal();
+            return getMontoTotal();
+        }
+    }
+}
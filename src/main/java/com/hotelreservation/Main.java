@@ -1,5 +1,6 @@
 package com.hotelreservation;
 
+import com.hotelreservation.event.RegistroEventosReserva;
 import com.hotelreservation.model.*;
 import com.hotelreservation.payment.*;
 import com.hotelreservation.service.GestorReservas;
@@ -22,6 +23,7 @@ public class Main {
 
         // Crear el gestor de reservas
         GestorReservas gestor = new GestorReservas();
+        gestor.agregarObservador(new RegistroEventosReserva());
 
         // === DEMOSTRACIÓN: Registrar habitaciones ===
         logger.info("\n1. REGISTRANDO HABITACIONES (SRP):");
@@ -0,0 +1,86 @@
+package com.hotelreservation.event;
+
+import com.hotelreservation.model.EstadoReserva;
+import com.hotelreservation.model.Reserva;
+
+import java.time.LocalDate;
+
+/**
+ * Evento inmutable que describe un cambio en una reserva.
+ * SRP: Responsabilidad única de capturar el estado de la reserva en el momento del cambio.
+ * Las fechas, el estado, el monto y el subtotal se copian al crear el evento porque
+ * pueden cambiar después; el resto de los datos de la reserva (cliente, habitaciones,
+ * método de pago, nivel y código de la cotización) no cambia y se consulta a través de
+ * {@link #getReserva()}.
+ */
+public final class EventoReserva {
+    private final TipoEventoReserva tipo;
+    private final Reserva reserva;
+    private final EstadoReserva estado;
+    private final LocalDate fechaCheckIn;
+    private final LocalDate fechaCheckOut;
+    private final double montoTotal;
+    private final long subtotalCentavos;
+
+    private EventoReserva(TipoEventoReserva tipo, Reserva reserva) {
+        this.tipo = tipo;
+        this.reserva = reserva;
+        this.estado = reserva.getEstado();
+        this.fechaCheckIn = reserva.getFechaCheckIn();
+        this.fechaCheckOut = reserva.getFechaCheckOut();
+        this.montoTotal = reserva.getMontoTotal();
+        this.subtotalCentavos = reserva.getSubtotalCentavos();
+    }
+
+    /**
+     * Crea un evento con el estado actual de la reserva.
+     */
+    public static EventoReserva de(TipoEventoReserva tipo, Reserva reserva) {
+        return new EventoReserva(tipo, reserva);
+    }
+
+    public TipoEventoReserva getTipo() {
+        return tipo;
+    }
+
+    public Reserva getReserva() {
+        return reserva;
+    }
+
+    public long getId() {
+        return reserva.getId();
+    }
+
+    public String getIdReserva() {
+        return reserva.getIdReserva();
+    }
+
+    public EstadoReserva getEstado() {
+        return estado;
+    }
+
+    public LocalDate getFechaCheckIn() {
+        return fechaCheckIn;
+    }
+
+    public LocalDate getFechaCheckOut() {
+        return fechaCheckOut;
+    }
+
+    public double getMontoTotal() {
+        return montoTotal;
+    }
+
+    /**
+     * Suma de las tarifas de cada noche en centavos, antes de descuentos y recargos.
+     */
+    public long getSubtotalCentavos() {
+        return subtotalCentavos;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s: %s (%s, %s a %s, $%.2f)",
+                tipo, getIdReserva(), estado, fechaCheckIn, fechaCheckOut, montoTotal);
+    }
+}
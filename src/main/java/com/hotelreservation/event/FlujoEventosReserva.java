@@ -0,0 +1,271 @@
+package com.hotelreservation.event;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Flujo de eventos de reserva para consumidores externos (limpieza, facturación,
+ * analítica), publicado con {@link Flow} y contrapresión.
+ * SRP: Responsabilidad única de repartir los eventos del gestor a cada suscriptor a su ritmo.
+ * OCP: Un consumidor nuevo se suscribe sin tocar el gestor ni los demás consumidores.
+ * Se registra como observador del gestor. Cada suscriptor tiene su propio búfer circular
+ * acotado y sin bloqueos: quien reserva solo hace un CAS por suscriptor y sigue, y un
+ * hilo virtual entrega los eventos según lo pedido con {@link Flow.Subscription#request(long)}.
+ * Los eventos de una misma reserva llegan en orden.
+ * Un suscriptor lento nunca frena las reservas: si su búfer se llena, se cancela su
+ * suscripción y recibe onError con {@link SuscriptorDesbordadoException}. Para seguir,
+ * debe volver a suscribirse y reconstruir su estado a partir del gestor.
+ */
+public class FlujoEventosReserva implements Flow.Publisher<EventoReserva>, ObservadorReservas, AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(FlujoEventosReserva.class);
+    public static final int CAPACIDAD_PREDETERMINADA = 8192;
+
+    private final int capacidad;
+    private final List<Suscripcion> suscripciones;
+    private final ThreadFactory hilosEntrega;
+    private volatile boolean cerrado;
+
+    public FlujoEventosReserva() {
+        this(CAPACIDAD_PREDETERMINADA);
+    }
+
+    /**
+     * @param capacidadPorSuscriptor Eventos que puede acumular un suscriptor sin pedirlos;
+     *                               se redondea hacia arriba a una potencia de 2.
+     */
+    public FlujoEventosReserva(int capacidadPorSuscriptor) {
+        if (capacidadPorSuscriptor <= 0 || capacidadPorSuscriptor > (1 << 30)) {
+            throw new IllegalArgumentException("Capacidad por suscriptor fuera de rango");
+        }
+        int potencia = 1;
+        while (potencia < capacidadPorSuscriptor) {
+            potencia <<= 1;
+        }
+        this.capacidad = potencia;
+        this.suscripciones = new CopyOnWriteArrayList<>();
+        this.hilosEntrega = Thread.ofVirtual().name("flujo-eventos-", 0).factory();
+    }
+
+    @Override
+    public void subscribe(Flow.Subscriber<? super EventoReserva> suscriptor) {
+        if (suscriptor == null) {
+            throw new NullPointerException("El suscriptor no puede ser nulo");
+        }
+        Suscripcion suscripcion = new Suscripcion(suscriptor, capacidad);
+        suscriptor.onSubscribe(suscripcion);
+        if (cerrado) {
+            suscripcion.completar();
+            return;
+        }
+        suscripciones.add(suscripcion);
+    }
+
+    /**
+     * Encola el evento para cada suscriptor. No bloquea ni espera a ningún suscriptor.
+     */
+    @Override
+    public void notificar(EventoReserva evento) {
+        if (cerrado) {
+            return;
+        }
+        for (Suscripcion suscripcion : suscripciones) {
+            suscripcion.ofrecer(evento);
+        }
+    }
+
+    public int cantidadSuscriptores() {
+        return suscripciones.size();
+    }
+
+    /**
+     * Deja de aceptar eventos; cada suscriptor recibe onComplete tras los que ya tenía encolados.
+     * Conviene quitar antes el flujo de los observadores del gestor.
+     */
+    @Override
+    public void close() {
+        cerrado = true;
+        for (Suscripcion suscripcion : suscripciones) {
+            suscripcion.completar();
+        }
+    }
+
+    /**
+     * Error que recibe un suscriptor cuando dejó de pedir eventos y su búfer se llenó.
+     */
+    public static class SuscriptorDesbordadoException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        public SuscriptorDesbordadoException(int capacidad) {
+            super("El suscriptor acumuló " + capacidad + " eventos sin procesar y fue desconectado");
+        }
+    }
+
+    /**
+     * Suscripción con un búfer circular de varios productores y un consumidor: cada
+     * posición lleva un número de secuencia que indica si está libre para la vuelta
+     * actual o ya tiene un evento publicado. Solo el hilo que entrega consume, y nunca
+     * hay dos entregando a la vez gracias al contador de trabajo pendiente.
+     */
+    private final class Suscripcion implements Flow.Subscription {
+        private final Flow.Subscriber<? super EventoReserva> suscriptor;
+        private final int mascara;
+        private final AtomicReferenceArray<EventoReserva> eventos;
+        private final AtomicLongArray secuencias;
+        private final AtomicLong cola = new AtomicLong();
+        private final AtomicLong demanda = new AtomicLong();
+        private final AtomicInteger trabajo = new AtomicInteger();
+        // Solo la toca el hilo que entrega
+        private long cabeza;
+        private volatile boolean cancelada;
+        private volatile boolean desbordada;
+        private volatile boolean completa;
+        private volatile Throwable errorSolicitud;
+
+        private Suscripcion(Flow.Subscriber<? super EventoReserva> suscriptor, int capacidad) {
+            this.suscriptor = suscriptor;
+            this.mascara = capacidad - 1;
+            this.eventos = new AtomicReferenceArray<>(capacidad);
+            this.secuencias = new AtomicLongArray(capacidad);
+            for (int i = 0; i < capacidad; i++) {
+                secuencias.set(i, i);
+            }
+        }
+
+        @Override
+        public void request(long n) {
+            if (n <= 0) {
+                errorSolicitud = new IllegalArgumentException("La cantidad pedida debe ser positiva: " + n);
+            } else {
+                demanda.getAndAccumulate(n, (actual, pedido) -> actual + pedido < 0 ? Long.MAX_VALUE : actual + pedido);
+            }
+            programarEntrega();
+        }
+
+        @Override
+        public void cancel() {
+            cancelada = true;
+            suscripciones.remove(this);
+            programarEntrega();
+        }
+
+        private void ofrecer(EventoReserva evento) {
+            if (cancelada || desbordada) {
+                return;
+            }
+            long posicion = cola.get();
+            while (true) {
+                int indice = (int) posicion & mascara;
+                long diferencia = secuencias.get(indice) - posicion;
+                if (diferencia == 0) {
+                    if (cola.compareAndSet(posicion, posicion + 1)) {
+                        eventos.lazySet(indice, evento);
+                        secuencias.set(indice, posicion + 1);
+                        break;
+                    }
+                    posicion = cola.get();
+                } else if (diferencia < 0) {
+                    desbordada = true;
+                    suscripciones.remove(this);
+                    break;
+                } else {
+                    posicion = cola.get();
+                }
+            }
+            programarEntrega();
+        }
+
+        private void completar() {
+            completa = true;
+            programarEntrega();
+        }
+
+        private void programarEntrega() {
+            if (trabajo.getAndIncrement() == 0) {
+                hilosEntrega.newThread(this::entregar).start();
+            }
+        }
+
+        /**
+         * Extrae el siguiente evento publicado, o null si el búfer está vacío.
+         */
+        private EventoReserva extraer() {
+            int indice = (int) cabeza & mascara;
+            if (secuencias.get(indice) != cabeza + 1) {
+                return null;
+            }
+            EventoReserva evento = eventos.get(indice);
+            eventos.lazySet(indice, null);
+            secuencias.set(indice, cabeza + mascara + 1);
+            cabeza++;
+            return evento;
+        }
+
+        private void entregar() {
+            int pendiente = 1;
+            while (true) {
+                if (terminar()) {
+                    return;
+                }
+                long pedidos = demanda.get();
+                long entregados = 0;
+                while (entregados < pedidos && !cancelada && !desbordada) {
+                    EventoReserva evento = extraer();
+                    if (evento == null) {
+                        break;
+                    }
+                    try {
+                        suscriptor.onNext(evento);
+                    } catch (RuntimeException e) {
+                        logger.error("El suscriptor de eventos falló y se desconecta: {}", e.getMessage());
+                        cancel();
+                        return;
+                    }
+                    entregados++;
+                }
+                if (entregados > 0 && pedidos != Long.MAX_VALUE) {
+                    demanda.addAndGet(-entregados);
+                }
+                if (completa && !cancelada && secuencias.get((int) cabeza & mascara) != cabeza + 1) {
+                    cancelada = true;
+                    suscriptor.onComplete();
+                    return;
+                }
+                pendiente = trabajo.addAndGet(-pendiente);
+                if (pendiente == 0) {
+                    return;
+                }
+            }
+        }
+
+        /**
+         * Atiende la cancelación, el desborde y las solicitudes inválidas.
+         * @return true si la suscripción terminó.
+         */
+        private boolean terminar() {
+            if (cancelada) {
+                return true;
+            }
+            Throwable error = errorSolicitud;
+            if (error == null && desbordada) {
+                error = new SuscriptorDesbordadoException(mascara + 1);
+                logger.warn("Suscriptor de eventos desconectado por no consumir a tiempo");
+            }
+            if (error == null) {
+                return false;
+            }
+            cancelada = true;
+            suscripciones.remove(this);
+            suscriptor.onError(error);
+            return true;
+        }
+    }
+}
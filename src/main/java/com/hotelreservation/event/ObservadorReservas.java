@@ -0,0 +1,26 @@
+package com.hotelreservation.event;
+
+/**
+ * Interfaz para quienes necesitan enterarse de los cambios en las reservas.
+ * DIP: GestorReservas publica eventos hacia esta abstracción sin conocer a los interesados.
+ * OCP: Nuevos consumidores (persistencia, métricas, notificaciones) se agregan sin
+ * modificar el gestor.
+ */
+public interface ObservadorReservas {
+    /**
+     * Recibe un evento de reserva.
+     * Se invoca en el hilo que hizo el cambio, mientras la reserva sigue bloqueada,
+     * por lo que los eventos de una misma reserva llegan en orden. Debe retornar rápido.
+     * @param evento Evento ocurrido.
+     */
+    void notificar(EventoReserva evento);
+
+    /**
+     * Indica si una falla de este observador debe hacer fallar la operación que publicó
+     * el evento, como la de un diario que ya no puede hacer duraderos los cambios.
+     * La falla de un observador no crítico solo se registra.
+     */
+    default boolean esCritico() {
+        return false;
+    }
+}
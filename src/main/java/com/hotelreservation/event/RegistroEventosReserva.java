@@ -0,0 +1,38 @@
+package com.hotelreservation.event;
+
+import com.hotelreservation.model.ReservaVIP;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Registro estructurado de los eventos de reserva, una línea JSON por evento.
+ * SRP: Responsabilidad única de dejar un rastro de auditoría legible por máquinas.
+ * Escribe en el logger {@value #NOMBRE_LOGGER}, que logback.xml envía por un appender
+ * asíncrono a su propio archivo: quien reserva solo arma la línea y la encola.
+ * La línea se arma en un StringBuilder por hilo y únicamente si el logger está habilitado.
+ */
+public class RegistroEventosReserva implements ObservadorReservas {
+    public static final String NOMBRE_LOGGER = "com.hotelreservation.eventos";
+    private static final Logger eventos = LoggerFactory.getLogger(NOMBRE_LOGGER);
+    private static final ThreadLocal<StringBuilder> LINEA =
+            ThreadLocal.withInitial(() -> new StringBuilder(256));
+
+    @Override
+    public void notificar(EventoReserva evento) {
+        if (!eventos.isInfoEnabled()) {
+            return;
+        }
+        StringBuilder linea = LINEA.get();
+        linea.setLength(0);
+        linea.append("{\"ts\":").append(System.currentTimeMillis())
+                .append(",\"tipo\":\"").append(evento.getTipo().name())
+                .append("\",\"id\":\"").append(evento.getIdReserva())
+                .append("\",\"estado\":\"").append(evento.getEstado().name())
+                .append("\",\"checkIn\":\"").append(evento.getFechaCheckIn())
+                .append("\",\"checkOut\":\"").append(evento.getFechaCheckOut())
+                .append("\",\"monto\":").append(evento.getMontoTotal())
+                .append(",\"vip\":").append(evento.getReserva() instanceof ReservaVIP)
+                .append('}');
+        eventos.info(linea.toString());
+    }
+}
@@ -0,0 +1,22 @@
+package com.hotelreservation.event;
+
+/**
+ * Enumeración de los cambios que puede sufrir una reserva.
+ * SRP: Responsabilidad única de definir los tipos de evento disponibles.
+ */
+public enum TipoEventoReserva {
+    CREADA("Reserva creada"),
+    CONFIRMADA("Reserva confirmada"),
+    CANCELADA("Reserva cancelada"),
+    FECHAS_CAMBIADAS("Fechas de la reserva cambiadas");
+
+    private final String descripcion;
+
+    TipoEventoReserva(String descripcion) {
+        this.descripcion = descripcion;
+    }
+
+    public String getDescripcion() {
+        return descripcion;
+    }
+}
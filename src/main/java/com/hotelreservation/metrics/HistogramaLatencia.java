@@ -0,0 +1,103 @@
+package com.hotelreservation.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Histograma de latencias con cubetas log-lineales, al estilo HdrHistogram.
+ * SRP: Responsabilidad única de acumular duraciones y responder percentiles.
+ * Cada potencia de dos se divide en {@value #SUBCUBETAS} cubetas iguales, así que el
+ * error relativo de un percentil es menor al 3,2% en todo el rango (de 1 ns a horas).
+ * Registrar un valor es un cálculo de bits y un incremento atómico: no hay bloqueos
+ * ni objetos nuevos.
+ */
+public class HistogramaLatencia {
+    private static final int BITS_SUBCUBETA = 5;
+    static final int SUBCUBETAS = 1 << BITS_SUBCUBETA;
+    private static final int EXPONENTE_MAXIMO = 62;
+    private static final int CUBETAS = (EXPONENTE_MAXIMO - BITS_SUBCUBETA + 2) * SUBCUBETAS;
+
+    private final AtomicLongArray cubetas;
+    private final LongAdder cantidad;
+    private final LongAdder suma;
+    private final AtomicLong maximo;
+
+    public HistogramaLatencia() {
+        this.cubetas = new AtomicLongArray(CUBETAS);
+        this.cantidad = new LongAdder();
+        this.suma = new LongAdder();
+        this.maximo = new AtomicLong();
+    }
+
+    /**
+     * Registra una duración en nanosegundos. Los valores negativos cuentan como cero.
+     */
+    public void registrar(long nanos) {
+        long valor = Math.max(0, nanos);
+        cubetas.incrementAndGet(indice(valor));
+        cantidad.increment();
+        suma.add(valor);
+        long actual = maximo.get();
+        while (valor > actual && !maximo.compareAndSet(actual, valor)) {
+            actual = maximo.get();
+        }
+    }
+
+    public long cantidad() {
+        return cantidad.sum();
+    }
+
+    public long maximo() {
+        return maximo.get();
+    }
+
+    public double media() {
+        long total = cantidad.sum();
+        return total == 0 ? 0 : (double) suma.sum() / total;
+    }
+
+    /**
+     * Valor por debajo del cual cae la fracción indicada de las mediciones.
+     * @param fraccion Entre 0 y 1, por ejemplo 0.99 para el percentil 99.
+     * @return Límite superior de la cubeta del percentil, en nanosegundos; 0 si no hay datos.
+     */
+    public long percentil(double fraccion) {
+        long[] copia = new long[CUBETAS];
+        long total = 0;
+        for (int i = 0; i < CUBETAS; i++) {
+            copia[i] = cubetas.get(i);
+            total += copia[i];
+        }
+        if (total == 0) {
+            return 0;
+        }
+        long objetivo = Math.max(1, (long) Math.ceil(fraccion * total));
+        long acumulado = 0;
+        for (int i = 0; i < CUBETAS; i++) {
+            acumulado += copia[i];
+            if (acumulado >= objetivo) {
+                return Math.min(limiteSuperior(i), maximo.get());
+            }
+        }
+        return maximo.get();
+    }
+
+    static int indice(long valor) {
+        if (valor < SUBCUBETAS) {
+            return (int) valor;
+        }
+        int exponente = 63 - Long.numberOfLeadingZeros(valor);
+        int mantisa = (int) (valor >>> (exponente - BITS_SUBCUBETA));
+        return (exponente - BITS_SUBCUBETA + 1) * SUBCUBETAS + (mantisa - SUBCUBETAS);
+    }
+
+    static long limiteSuperior(int indice) {
+        if (indice < SUBCUBETAS) {
+            return indice;
+        }
+        int exponente = indice / SUBCUBETAS + BITS_SUBCUBETA - 1;
+        long mantisa = indice % SUBCUBETAS + SUBCUBETAS;
+        return ((mantisa + 1) << (exponente - BITS_SUBCUBETA)) - 1;
+    }
+}
@@ -0,0 +1,30 @@
+package com.hotelreservation.metrics;
+
+/**
+ * Medición de una operación: cuántas terminaron, cuántas fallaron, cuántas siguen
+ * en curso y cuánto tardaron.
+ * ISP: Quien instrumenta solo ve iniciar y finalizar.
+ * Uso típico:
+ * <pre>
+ * long inicio = medidor.iniciar();
+ * boolean exito = false;
+ * try {
+ *     ...
+ *     exito = true;
+ * } finally {
+ *     medidor.finalizar(inicio, exito);
+ * }
+ * </pre>
+ */
+public interface Medidor {
+    /**
+     * Marca el comienzo de una operación.
+     * @return Marca de tiempo que debe entregarse a {@link #finalizar(long, boolean)}.
+     */
+    long iniciar();
+
+    /**
+     * Marca el fin de una operación iniciada con {@link #iniciar()}.
+     */
+    void finalizar(long inicio, boolean exito);
+}
@@ -0,0 +1,47 @@
+package com.hotelreservation.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Medidor que acumula contadores e histograma de latencias de una operación.
+ * SRP: Responsabilidad única de medir una operación concreta.
+ * Los contadores son LongAdder: los hilos que miden a la vez no compiten entre sí.
+ */
+class MedidorLatencia implements Medidor {
+    private final String nombre;
+    private final LongAdder exitos;
+    private final LongAdder fallos;
+    private final LongAdder enCurso;
+    private final HistogramaLatencia latencias;
+
+    MedidorLatencia(String nombre) {
+        this.nombre = nombre;
+        this.exitos = new LongAdder();
+        this.fallos = new LongAdder();
+        this.enCurso = new LongAdder();
+        this.latencias = new HistogramaLatencia();
+    }
+
+    @Override
+    public long iniciar() {
+        enCurso.increment();
+        return System.nanoTime();
+    }
+
+    @Override
+    public void finalizar(long inicio, boolean exito) {
+        latencias.registrar(System.nanoTime() - inicio);
+        enCurso.decrement();
+        if (exito) {
+            exitos.increment();
+        } else {
+            fallos.increment();
+        }
+    }
+
+    ResumenMedidor resumir() {
+        return new ResumenMedidor(nombre, exitos.sum(), fallos.sum(), enCurso.sum(),
+                latencias.media(), latencias.percentil(0.5), latencias.percentil(0.9),
+                latencias.percentil(0.99), latencias.percentil(0.999), latencias.maximo());
+    }
+}
@@ -0,0 +1,38 @@
+package com.hotelreservation.metrics;
+
+import com.hotelreservation.payment.MetodoPago;
+
+import java.util.List;
+
+/**
+ * Registro de medidores de las operaciones del sistema.
+ * DIP: El código instrumentado depende de esta abstracción; elegir la implementación
+ * decide si se mide o no.
+ * Los medidores se piden una vez (por ejemplo, al construir el gestor) y se guardan,
+ * de modo que medir no implica buscar por nombre.
+ */
+public interface Metricas {
+    /**
+     * Obtiene (o crea) el medidor de la operación indicada.
+     */
+    Medidor medidor(String nombre);
+
+    /**
+     * Medidor de los cobros del método de pago indicado: {@code pago.<nombre del método>}.
+     */
+    default Medidor medidorPago(MetodoPago metodoPago) {
+        return medidor("pago." + metodoPago.getNombreMetodo());
+    }
+
+    /**
+     * Lee todos los medidores (API de consulta).
+     */
+    List<ResumenMedidor> resumen();
+
+    /**
+     * Métricas que no miden nada. Sus medidores no leen el reloj ni tocan contadores.
+     */
+    static Metricas desactivadas() {
+        return MetricasDesactivadas.INSTANCIA;
+    }
+}
@@ -0,0 +1,38 @@
+package com.hotelreservation.metrics;
+
+import com.hotelreservation.payment.MetodoPago;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Implementación vacía de Metricas, usada cuando la instrumentación está apagada.
+ * Sus métodos no hacen nada, así que el compilador JIT los elimina del código medido.
+ */
+enum MetricasDesactivadas implements Metricas, Medidor {
+    INSTANCIA;
+
+    @Override
+    public Medidor medidor(String nombre) {
+        return this;
+    }
+
+    @Override
+    public Medidor medidorPago(MetodoPago metodoPago) {
+        return this;
+    }
+
+    @Override
+    public List<ResumenMedidor> resumen() {
+        return Collections.emptyList();
+    }
+
+    @Override
+    public long iniciar() {
+        return 0;
+    }
+
+    @Override
+    public void finalizar(long inicio, boolean exito) {
+    }
+}
@@ -0,0 +1,51 @@
+package com.hotelreservation.metrics;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Métricas en memoria del proceso, consultables por API y por JMX.
+ * SRP: Responsabilidad única de crear y reunir los medidores.
+ */
+public class MetricasEnMemoria implements Metricas, MetricasMXBean {
+    private final Map<String, MedidorLatencia> medidores;
+
+    public MetricasEnMemoria() {
+        this.medidores = new ConcurrentHashMap<>();
+    }
+
+    @Override
+    public Medidor medidor(String nombre) {
+        return medidores.computeIfAbsent(nombre, MedidorLatencia::new);
+    }
+
+    @Override
+    public List<ResumenMedidor> resumen() {
+        List<ResumenMedidor> resumen = new ArrayList<>(medidores.size());
+        for (MedidorLatencia medidor : medidores.values()) {
+            resumen.add(medidor.resumir());
+        }
+        resumen.sort((a, b) -> a.getNombre().compareTo(b.getNombre()));
+        return resumen;
+    }
+
+    @Override
+    public List<ResumenMedidor> getMedidores() {
+        return resumen();
+    }
+
+    /**
+     * Publica estas métricas en el servidor JMX de la plataforma.
+     * @param nombre Nombre del objeto, por ejemplo {@code com.hotelreservation:type=Metricas}.
+     */
+    public void registrarJmx(String nombre) throws JMException {
+        MBeanServer servidor = ManagementFactory.getPlatformMBeanServer();
+        servidor.registerMBean(this, new ObjectName(nombre));
+    }
+}
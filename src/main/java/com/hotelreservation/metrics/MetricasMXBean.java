@@ -0,0 +1,10 @@
+package com.hotelreservation.metrics;
+
+import java.util.List;
+
+/**
+ * Vista JMX de las métricas, publicada por {@link MetricasEnMemoria#registrarJmx(String)}.
+ */
+public interface MetricasMXBean {
+    List<ResumenMedidor> getMedidores();
+}
@@ -0,0 +1,79 @@
+package com.hotelreservation.metrics;
+
+/**
+ * Lectura puntual de un medidor. Las latencias están en nanosegundos.
+ * SRP: Responsabilidad única de transportar las cifras de un medidor hacia quien las consulta.
+ * Sus getters permiten exponerlo tal cual por JMX.
+ */
+public class ResumenMedidor {
+    private final String nombre;
+    private final long exitos;
+    private final long fallos;
+    private final long enCurso;
+    private final double media;
+    private final long p50;
+    private final long p90;
+    private final long p99;
+    private final long p999;
+    private final long maximo;
+
+    public ResumenMedidor(String nombre, long exitos, long fallos, long enCurso, double media,
+                          long p50, long p90, long p99, long p999, long maximo) {
+        this.nombre = nombre;
+        this.exitos = exitos;
+        this.fallos = fallos;
+        this.enCurso = enCurso;
+        this.media = media;
+        this.p50 = p50;
+        this.p90 = p90;
+        this.p99 = p99;
+        this.p999 = p999;
+        this.maximo = maximo;
+    }
+
+    public String getNombre() {
+        return nombre;
+    }
+
+    public long getExitos() {
+        return exitos;
+    }
+
+    public long getFallos() {
+        return fallos;
+    }
+
+    public long getEnCurso() {
+        return enCurso;
+    }
+
+    public double getMedia() {
+        return media;
+    }
+
+    public long getP50() {
+        return p50;
+    }
+
+    public long getP90() {
+        return p90;
+    }
+
+    public long getP99() {
+        return p99;
+    }
+
+    public long getP999() {
+        return p999;
+    }
+
+    public long getMaximo() {
+        return maximo;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s: %d ok, %d fallos, %d en curso | p50 %.3f ms, p99 %.3f ms, máx %.3f ms",
+                nombre, exitos, fallos, enCurso, p50 / 1e6, p99 / 1e6, maximo / 1e6);
+    }
+}
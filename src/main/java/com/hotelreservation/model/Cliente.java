@@ -9,12 +9,14 @@ public class Cliente {
     private String email;
     private String telefono;
     private String numeroDocumento;
+    private volatile NivelFidelidad nivelFidelidad;
 
     public Cliente(String nombre, String email, String telefono, String numeroDocumento) {
         this.nombre = nombre;
         this.email = email;
         this.telefono = telefono;
         this.numeroDocumento = numeroDocumento;
+        this.nivelFidelidad = NivelFidelidad.NINGUNO;
     }
 
     public String getNombre() {
@@ -33,6 +35,14 @@ public class Cliente {
         return numeroDocumento;
     }
 
+    public NivelFidelidad getNivelFidelidad() {
+        return nivelFidelidad;
+    }
+
+    public void setNivelFidelidad(NivelFidelidad nivelFidelidad) {
+        this.nivelFidelidad = nivelFidelidad;
+    }
+
     @Override
     public String toString() {
         return String.format("Cliente: %s (Email: %s, Teléfono: %s, Documento: %s)",
@@ -0,0 +1,11 @@
+package com.hotelreservation.model;
+
+/**
+ * Fuente de identificadores de reserva.
+ * DIP: El gestor depende de esta abstracción y no de un esquema de IDs concreto.
+ * Los IDs son {@code long} positivos y únicos; su forma de texto se obtiene con
+ * {@link IdReserva#formatear(long)}.
+ */
+public interface GeneradorIds {
+    long siguienteId();
+}
@@ -0,0 +1,79 @@
+package com.hotelreservation.model;
+
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Generador de IDs de 64 bits ordenados por tiempo, al estilo Snowflake.
+ * SRP: Responsabilidad única de emitir IDs únicos y crecientes sin coordinación.
+ * Cada ID se compone de 41 bits de milisegundos desde 2024-01-01, 10 bits de nodo
+ * y 12 bits de secuencia dentro del milisegundo. El último ID emitido vive en un
+ * AtomicLong y se avanza con CAS: no hay bloqueos ni SecureRandom, y no se crea ningún objeto.
+ * Si se agotan las secuencias de un milisegundo, o el reloj retrocede, el generador
+ * sigue desde el último ID emitido en lugar de esperar, así que los IDs nunca se repiten
+ * ni decrecen dentro de un mismo nodo.
+ */
+public class GeneradorIdsTemporal implements GeneradorIds {
+    public static final long EPOCA = Instant.parse("2024-01-01T00:00:00Z").toEpochMilli();
+    public static final int MAXIMO_NODO = 1023;
+    static final int BITS_NODO = 10;
+    static final int BITS_SECUENCIA = 12;
+    private static final int DESPLAZAMIENTO_TIEMPO = BITS_NODO + BITS_SECUENCIA;
+    private static final long MASCARA_SECUENCIA = (1L << BITS_SECUENCIA) - 1;
+    private static final GeneradorIdsTemporal PREDETERMINADO = new GeneradorIdsTemporal(0);
+
+    private final long nodo;
+    // Último par (milisegundo, secuencia) emitido, sin los bits de nodo
+    private final AtomicLong ultimo;
+
+    public GeneradorIdsTemporal(int nodo) {
+        if (nodo < 0 || nodo > MAXIMO_NODO) {
+            throw new IllegalArgumentException("El nodo debe estar entre 0 y " + MAXIMO_NODO);
+        }
+        this.nodo = (long) nodo << BITS_SECUENCIA;
+        this.ultimo = new AtomicLong();
+    }
+
+    /**
+     * Generador compartido del nodo 0, usado por las reservas creadas sin gestor.
+     */
+    public static GeneradorIdsTemporal predeterminado() {
+        return PREDETERMINADO;
+    }
+
+    @Override
+    public long siguienteId() {
+        long ahora = (System.currentTimeMillis() - EPOCA) << BITS_SECUENCIA;
+        while (true) {
+            long anterior = ultimo.get();
+            // Si el milisegundo no avanzó, la secuencia sube; al desbordar, pasa al milisegundo siguiente
+            long siguiente = ahora > anterior ? ahora : anterior + 1;
+            if (ultimo.compareAndSet(anterior, siguiente)) {
+                return ((siguiente >>> BITS_SECUENCIA) << DESPLAZAMIENTO_TIEMPO)
+                        | nodo
+                        | (siguiente & MASCARA_SECUENCIA);
+            }
+        }
+    }
+
+    /**
+     * Instante en que se emitió un ID de este esquema.
+     */
+    public static Instant instante(long id) {
+        return Instant.ofEpochMilli((id >>> DESPLAZAMIENTO_TIEMPO) + EPOCA);
+    }
+
+    /**
+     * Nodo que emitió un ID de este esquema.
+     */
+    public static int nodo(long id) {
+        return (int) ((id >>> BITS_SECUENCIA) & MAXIMO_NODO);
+    }
+
+    /**
+     * Menor ID posible emitido en el instante indicado, útil como límite de un rango.
+     */
+    public static long primerIdDesde(Instant instante) {
+        return Math.max(0, instante.toEpochMilli() - EPOCA) << DESPLAZAMIENTO_TIEMPO;
+    }
+}
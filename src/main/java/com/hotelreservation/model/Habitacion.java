@@ -12,6 +12,10 @@ public interface Habitacion {
 
     double getPrecioNoche();
 
+    /**
+     * Indica si la habitación está habilitada para la venta. Las noches ocupadas por
+     * reservas se controlan aparte, en el calendario de ocupación del gestor.
+     */
     boolean estaDisponible();
 
     void marcarOcupada();
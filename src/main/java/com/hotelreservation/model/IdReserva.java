@@ -0,0 +1,56 @@
+package com.hotelreservation.model;
+
+/**
+ * Forma de texto de los IDs de reserva.
+ * SRP: Responsabilidad única de convertir un ID numérico en texto y de vuelta.
+ * Usa base 32 de Crockford con 13 caracteres de ancho fijo: el orden alfabético de
+ * los textos coincide con el orden numérico de los IDs.
+ */
+public final class IdReserva {
+    public static final int LONGITUD = 13;
+    private static final char[] DIGITOS = "0123456789ABCDEFGHJKMNPQRSTVWXYZ".toCharArray();
+    private static final byte[] VALORES = new byte[128];
+
+    static {
+        java.util.Arrays.fill(VALORES, (byte) -1);
+        for (int i = 0; i < DIGITOS.length; i++) {
+            VALORES[DIGITOS[i]] = (byte) i;
+            VALORES[Character.toLowerCase(DIGITOS[i])] = (byte) i;
+        }
+        // Confusiones admitidas por Crockford
+        VALORES['O'] = VALORES['o'] = 0;
+        VALORES['I'] = VALORES['i'] = VALORES['L'] = VALORES['l'] = 1;
+    }
+
+    private IdReserva() {
+    }
+
+    public static String formatear(long id) {
+        char[] texto = new char[LONGITUD];
+        for (int i = LONGITUD - 1; i >= 0; i--) {
+            texto[i] = DIGITOS[(int) (id & 31)];
+            id >>>= 5;
+        }
+        return new String(texto);
+    }
+
+    /**
+     * Convierte el texto de un ID en su valor numérico.
+     * @throws IllegalArgumentException si el texto no es un ID válido.
+     */
+    public static long interpretar(String texto) {
+        if (texto == null || texto.length() != LONGITUD) {
+            throw new IllegalArgumentException("ID de reserva inválido: " + texto);
+        }
+        long id = 0;
+        for (int i = 0; i < LONGITUD; i++) {
+            char c = texto.charAt(i);
+            int valor = c < VALORES.length ? VALORES[c] : -1;
+            if (valor < 0 || (i == 0 && valor > 15)) {
+                throw new IllegalArgumentException("ID de reserva inválido: " + texto);
+            }
+            id = (id << 5) | valor;
+        }
+        return id;
+    }
+}
@@ -0,0 +1,22 @@
+package com.hotelreservation.model;
+
+/**
+ * Enumeración de niveles del programa de fidelidad.
+ * SRP: Responsabilidad única de definir los niveles disponibles.
+ */
+public enum NivelFidelidad {
+    NINGUNO("Sin programa"),
+    PLATA("Plata"),
+    ORO("Oro"),
+    PLATINO("Platino");
+
+    private final String descripcion;
+
+    NivelFidelidad(String descripcion) {
+        this.descripcion = descripcion;
+    }
+
+    public String getDescripcion() {
+        return descripcion;
+    }
+}
@@ -0,0 +1,255 @@
+package com.hotelreservation.model;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Reglas de descuento y recargo sobre las tarifas, compiladas a partir de un archivo
+ * de propiedades.
+ * SRP: Responsabilidad única de convertir la configuración de precios en factores.
+ * OCP: Se agregan niveles, códigos y temporadas editando la configuración, sin tocar código.
+ *
+ * Claves reconocidas (los descuentos son fracciones entre 0 y 1):
+ * <pre>
+ * vip=0.15                       descuento de las reservas VIP
+ * fidelidad.ORO=0.07             descuento por nivel de fidelidad del cliente
+ * estadia.7=0.05                 descuento desde 7 noches (gana el umbral mayor alcanzado)
+ * promo.VERANO=0.10              descuento por código promocional
+ * temporada.navidad=SUITE,2026-12-20,2027-01-05,1.40
+ *                                multiplicador por tipo (o * para todos) en [desde, hasta)
+ * </pre>
+ * Al compilar, cada regla queda en un arreglo plano: un factor por nivel y un factor por
+ * cantidad de noches hasta el umbral mayor. Evaluar una cotización son dos lecturas de
+ * arreglo, un mínimo y, solo si hay código, una búsqueda en un HashMap. Las temporadas no
+ * se evalúan al cotizar: se aplican una vez sobre la TablaTarifas.
+ * Las reglas predeterminadas se leen de {@value #RECURSO_PREDETERMINADO} en el classpath.
+ */
+public class ReglasPrecio {
+    public static final double DESCUENTO_VIP_PREDETERMINADO = 0.15;
+    public static final String RECURSO_PREDETERMINADO = "/reglas-precio.properties";
+    private static final NivelFidelidad[] NIVELES = NivelFidelidad.values();
+    private static final ReglasPrecio PREDETERMINADAS = new ReglasPrecio(propiedadesPredeterminadas());
+
+    private final double factorVip;
+    private final double[] factorPorNivel;
+    // factorPorEstadia[n] para n noches; de la última posición en adelante el factor no cambia
+    private final double[] factorPorEstadia;
+    private final Map<String, Double> factorPorPromocion;
+    private final List<Temporada> temporadas;
+
+    private ReglasPrecio(Properties propiedades) {
+        this.factorVip = 1 - descuento("vip",
+                propiedades.getProperty("vip", String.valueOf(DESCUENTO_VIP_PREDETERMINADO)));
+        this.factorPorNivel = new double[NIVELES.length];
+        Arrays.fill(factorPorNivel, 1.0);
+        this.factorPorPromocion = new HashMap<>();
+        this.temporadas = new ArrayList<>();
+        TreeMap<Integer, Double> descuentosEstadia = new TreeMap<>();
+
+        // En orden de clave, para que las temporadas superpuestas se apliquen siempre igual
+        for (String clave : new TreeSet<>(propiedades.stringPropertyNames())) {
+            String valor = propiedades.getProperty(clave).trim();
+            if (clave.startsWith("fidelidad.")) {
+                NivelFidelidad nivel = nivel(clave, clave.substring("fidelidad.".length()));
+                factorPorNivel[nivel.ordinal()] = 1 - descuento(clave, valor);
+            } else if (clave.startsWith("estadia.")) {
+                descuentosEstadia.put(noches(clave, clave.substring("estadia.".length())),
+                        descuento(clave, valor));
+            } else if (clave.startsWith("promo.")) {
+                factorPorPromocion.put(normalizarCodigo(clave.substring("promo.".length())),
+                        1 - descuento(clave, valor));
+            } else if (clave.startsWith("temporada.")) {
+                temporadas.add(Temporada.interpretar(clave, valor));
+            } else if (!clave.equals("vip")) {
+                throw new IllegalArgumentException("Regla de precio desconocida: " + clave);
+            }
+        }
+
+        int umbralMayor = descuentosEstadia.isEmpty() ? 0 : descuentosEstadia.lastKey();
+        this.factorPorEstadia = new double[umbralMayor + 1];
+        for (int noches = 0; noches <= umbralMayor; noches++) {
+            Map.Entry<Integer, Double> alcanzado = descuentosEstadia.floorEntry(noches);
+            factorPorEstadia[noches] = alcanzado == null ? 1.0 : 1 - alcanzado.getValue();
+        }
+    }
+
+    /**
+     * Reglas de {@value #RECURSO_PREDETERMINADO} en el classpath, leídas una sola vez. Si el
+     * recurso no existe, reglas sin descuentos ni temporadas, con el descuento VIP predeterminado.
+     */
+    public static ReglasPrecio predeterminadas() {
+        return PREDETERMINADAS;
+    }
+
+    /**
+     * Compila las reglas de un conjunto de propiedades.
+     * @throws IllegalArgumentException si alguna regla está mal escrita.
+     */
+    public static ReglasPrecio compilar(Properties propiedades) {
+        return new ReglasPrecio(propiedades);
+    }
+
+    /**
+     * Lee y compila las reglas de un archivo de propiedades en UTF-8.
+     */
+    public static ReglasPrecio cargar(Path archivo) throws IOException {
+        Properties propiedades = new Properties();
+        try (Reader lector = Files.newBufferedReader(archivo, StandardCharsets.UTF_8)) {
+            propiedades.load(lector);
+        }
+        return compilar(propiedades);
+    }
+
+    /**
+     * Factor que se aplica a la suma de las tarifas de una estadía.
+     * @param codigoPromocional Código ya normalizado, o null.
+     */
+    public double factor(NivelFidelidad nivel, long noches, String codigoPromocional) {
+        double factor = factorPorNivel[nivel.ordinal()]
+                * factorPorEstadia[(int) Math.min(noches, factorPorEstadia.length - 1)];
+        if (codigoPromocional != null) {
+            Double promocion = factorPorPromocion.get(codigoPromocional);
+            if (promocion != null) {
+                factor *= promocion;
+            }
+        }
+        return factor;
+    }
+
+    public double factorVip() {
+        return factorVip;
+    }
+
+    public boolean esCodigoValido(String codigoPromocional) {
+        return factorPorPromocion.containsKey(normalizarCodigo(codigoPromocional));
+    }
+
+    /**
+     * Forma en que se guardan y buscan los códigos: sin espacios y en mayúsculas.
+     */
+    public static String normalizarCodigo(String codigoPromocional) {
+        return codigoPromocional == null ? null : codigoPromocional.trim().toUpperCase(Locale.ROOT);
+    }
+
+    /**
+     * Fija en la tabla los multiplicadores de cada temporada, recortados al calendario
+     * de la tabla. Se aplican en orden de nombre: si dos se superponen, gana la última.
+     */
+    public void aplicarTemporadas(TablaTarifas tarifas) {
+        for (Temporada temporada : temporadas) {
+            LocalDate desde = temporada.desde.isBefore(tarifas.getInicio()) ? tarifas.getInicio() : temporada.desde;
+            LocalDate hasta = temporada.hasta.isAfter(tarifas.getFin()) ? tarifas.getFin() : temporada.hasta;
+            if (!desde.isBefore(hasta)) {
+                continue;
+            }
+            for (TipoHabitacion tipo : temporada.tipos) {
+                tarifas.fijarMultiplicador(tipo, desde, hasta, temporada.multiplicador);
+            }
+        }
+    }
+
+    private static Properties propiedadesPredeterminadas() {
+        Properties propiedades = new Properties();
+        try (InputStream recurso = ReglasPrecio.class.getResourceAsStream(RECURSO_PREDETERMINADO)) {
+            if (recurso != null) {
+                propiedades.load(new InputStreamReader(recurso, StandardCharsets.UTF_8));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudieron leer las reglas de precio predeterminadas", e);
+        }
+        return propiedades;
+    }
+
+    private static double descuento(String clave, String valor) {
+        double descuento;
+        try {
+            descuento = Double.parseDouble(valor.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Descuento no numérico en " + clave + ": " + valor);
+        }
+        if (descuento < 0 || descuento >= 1) {
+            throw new IllegalArgumentException("El descuento de " + clave + " debe estar entre 0 y 1");
+        }
+        return descuento;
+    }
+
+    private static NivelFidelidad nivel(String clave, String nombre) {
+        try {
+            return NivelFidelidad.valueOf(nombre.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Nivel de fidelidad desconocido en " + clave);
+        }
+    }
+
+    private static int noches(String clave, String texto) {
+        try {
+            int noches = Integer.parseInt(texto.trim());
+            if (noches <= 0 || noches > 366) {
+                throw new IllegalArgumentException("Las noches de " + clave + " deben estar entre 1 y 366");
+            }
+            return noches;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Cantidad de noches no numérica en " + clave);
+        }
+    }
+
+    /**
+     * Multiplicador de tarifas para uno o todos los tipos en un rango de noches.
+     */
+    private static final class Temporada {
+        private final TipoHabitacion[] tipos;
+        private final LocalDate desde;
+        private final LocalDate hasta;
+        private final double multiplicador;
+
+        private Temporada(TipoHabitacion[] tipos, LocalDate desde, LocalDate hasta, double multiplicador) {
+            this.tipos = tipos;
+            this.desde = desde;
+            this.hasta = hasta;
+            this.multiplicador = multiplicador;
+        }
+
+        /**
+         * Interpreta "TIPO,desde,hasta,multiplicador", con * en lugar del tipo para todos.
+         */
+        private static Temporada interpretar(String clave, String valor) {
+            String[] partes = valor.split(",");
+            if (partes.length != 4) {
+                throw new IllegalArgumentException("La temporada " + clave +
+                        " debe tener la forma TIPO,desde,hasta,multiplicador");
+            }
+            try {
+                String tipo = partes[0].trim();
+                TipoHabitacion[] tipos = tipo.equals("*")
+                        ? TipoHabitacion.values()
+                        : new TipoHabitacion[]{TipoHabitacion.valueOf(tipo.toUpperCase(Locale.ROOT))};
+                LocalDate desde = LocalDate.parse(partes[1].trim());
+                LocalDate hasta = LocalDate.parse(partes[2].trim());
+                double multiplicador = Double.parseDouble(partes[3].trim());
+                if (desde.isAfter(hasta) || multiplicador <= 0) {
+                    throw new IllegalArgumentException("Temporada inválida en " + clave);
+                }
+                return new Temporada(tipos, desde, hasta, multiplicador);
+            } catch (DateTimeParseException | IllegalArgumentException e) {
+                throw new IllegalArgumentException("Temporada mal escrita en " + clave + ": " + valor);
+            }
+        }
+    }
+}
@@ -1,65 +1,165 @@
 package com.hotelreservation.model;
 
+import com.hotelreservation.metrics.Medidor;
+import com.hotelreservation.metrics.Metricas;
 import com.hotelreservation.payment.MetodoPago;
+import com.hotelreservation.payment.ProcesadorPagosAsincrono;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.time.LocalDate;
-import java.util.ArrayList;
 import java.util.List;
-import java.util.Objects;
-import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Clase base para reservas de hotel.
  * SRP: Responsabilidad única de representar una reserva.
  * LSP: Puede ser reemplazada por subclases sin que el sistema falle.
  * DIP: Depende de la abstracción MetodoPago, no de implementaciones concretas.
+ * Las transiciones de estado están sincronizadas sobre la propia reserva, de modo que
+ * dos confirmaciones simultáneas nunca procesan el pago dos veces.
  */
 public class Reserva {
     private static final Logger logger = LoggerFactory.getLogger(Reserva.class);
-    protected String idReserva;
+    private static final Medidor SIN_MEDICION = Metricas.desactivadas().medidor("pago");
+    protected final long id;
+    private String idReserva;
     protected Cliente cliente;
     protected List<Habitacion> habitaciones;
     protected LocalDate fechaCheckIn;
     protected LocalDate fechaCheckOut;
     protected MetodoPago metodoPago;
-    protected EstadoReserva estado;
+    protected volatile EstadoReserva estado;
     protected double montoTotal;
+    // Suma de las tarifas de cada noche, antes de aplicar factorPrecio()
+    protected long subtotalCentavos;
+    protected final TablaTarifas tarifas;
+    protected final ReglasPrecio reglas;
+    // Nivel y código con que se cotizó la reserva; no cambian si luego cambia el cliente
+    protected final NivelFidelidad nivelFidelidad;
+    protected final String codigoPromocional;
+    private boolean pagoEnCurso;
 
     public Reserva(Cliente cliente, List<Habitacion> habitaciones,
                    LocalDate fechaCheckIn, LocalDate fechaCheckOut,
                    MetodoPago metodoPago) {
-        this.idReserva = UUID.randomUUID().toString();
+        this(GeneradorIdsTemporal.predeterminado().siguienteId(), cliente, habitaciones,
+                fechaCheckIn, fechaCheckOut, metodoPago, TablaTarifas.preciosBase());
+    }
+
+    /**
+     * Crea una reserva con un ID ya asignado en su forma de texto.
+     */
+    public Reserva(String idReserva, Cliente cliente, List<Habitacion> habitaciones,
+                   LocalDate fechaCheckIn, LocalDate fechaCheckOut,
+                   MetodoPago metodoPago) {
+        this(IdReserva.interpretar(idReserva), cliente, habitaciones, fechaCheckIn, fechaCheckOut,
+                metodoPago, TablaTarifas.preciosBase());
+    }
+
+    /**
+     * Crea una reserva con un ID ya asignado, por ejemplo al recuperarla de disco,
+     * cotizada con la tabla de tarifas indicada.
+     */
+    public Reserva(long id, Cliente cliente, List<Habitacion> habitaciones,
+                   LocalDate fechaCheckIn, LocalDate fechaCheckOut,
+                   MetodoPago metodoPago, TablaTarifas tarifas) {
+        this(id, cliente, habitaciones, fechaCheckIn, fechaCheckOut, metodoPago, tarifas,
+                ReglasPrecio.predeterminadas(), null);
+    }
+
+    /**
+     * Crea una reserva cotizada con la tabla de tarifas y las reglas de precio indicadas.
+     * @param codigoPromocional Código promocional, o null si no se usó ninguno.
+     */
+    public Reserva(long id, Cliente cliente, List<Habitacion> habitaciones,
+                   LocalDate fechaCheckIn, LocalDate fechaCheckOut,
+                   MetodoPago metodoPago, TablaTarifas tarifas,
+                   ReglasPrecio reglas, String codigoPromocional) {
+        this.id = id;
         this.cliente = cliente;
-        this.habitaciones = new ArrayList<>(habitaciones);
+        this.habitaciones = List.copyOf(habitaciones);
         this.fechaCheckIn = fechaCheckIn;
         this.fechaCheckOut = fechaCheckOut;
         this.metodoPago = metodoPago;
         this.estado = EstadoReserva.PENDIENTE;
+        this.tarifas = tarifas;
+        this.reglas = reglas;
+        this.nivelFidelidad = cliente.getNivelFidelidad();
+        this.codigoPromocional = ReglasPrecio.normalizarCodigo(codigoPromocional);
         calcularMontoTotal();
     }
 
     /**
-     * Calcula el monto total de la reserva.
+     * Calcula el monto total de la reserva con la tarifa de cada noche.
      */
     protected void calcularMontoTotal() {
-        long noches = java.time.temporal.ChronoUnit.DAYS.between(fechaCheckIn, fechaCheckOut);
-        this.montoTotal = habitaciones.stream()
-                .mapToDouble(Habitacion::getPrecioNoche)
-                .sum() * noches;
+        this.subtotalCentavos = tarifas.cotizarCentavos(habitaciones, fechaCheckIn, fechaCheckOut);
+        this.montoTotal = subtotalCentavos / 100.0 * factorPrecio();
+    }
+
+    /**
+     * Factor que se aplica a la suma de las tarifas: descuentos por fidelidad, por
+     * duración y por código promocional. Las subclases lo redefinen para sumar los suyos.
+     */
+    protected double factorPrecio() {
+        return reglas.factor(nivelFidelidad, fechaCheckOut.toEpochDay() - fechaCheckIn.toEpochDay(),
+                codigoPromocional);
+    }
+
+    /**
+     * Ajusta el subtotal solo por las noches que se agregan o se quitan al pasar de
+     * [checkInAnterior, checkOutAnterior) a [checkIn, checkOut). Las noches que la reserva
+     * conserva mantienen la tarifa con la que se cotizaron.
+     */
+    private void ajustarSubtotal(long checkInAnterior, long checkOutAnterior, long checkIn, long checkOut) {
+        long delta = 0;
+        for (int i = 0; i < habitaciones.size(); i++) {
+            TipoHabitacion tipo = habitaciones.get(i).getTipo();
+            if (checkOut <= checkInAnterior || checkIn >= checkOutAnterior) {
+                // Sin noches en común: se reemplaza la estadía completa
+                delta += tarifas.cotizarCentavos(tipo, checkIn, checkOut)
+                        - tarifas.cotizarCentavos(tipo, checkInAnterior, checkOutAnterior);
+            } else {
+                // Cada extremo se movió hacia afuera (suma noches) o hacia adentro (las quita)
+                delta += checkIn < checkInAnterior
+                        ? tarifas.cotizarCentavos(tipo, checkIn, checkInAnterior)
+                        : -tarifas.cotizarCentavos(tipo, checkInAnterior, checkIn);
+                delta += checkOut > checkOutAnterior
+                        ? tarifas.cotizarCentavos(tipo, checkOutAnterior, checkOut)
+                        : -tarifas.cotizarCentavos(tipo, checkOut, checkOutAnterior);
+            }
+        }
+        this.subtotalCentavos += delta;
+        this.montoTotal = subtotalCentavos / 100.0 * factorPrecio();
+    }
+
+    public long getId() {
+        return id;
     }
 
+    /**
+     * ID en forma de texto. Se arma la primera vez que se pide, solo para mostrarlo.
+     */
     public String getIdReserva() {
-        return idReserva;
+        String texto = idReserva;
+        if (texto == null) {
+            // Carrera benigna: dos hilos arman el mismo texto inmutable
+            texto = IdReserva.formatear(id);
+            idReserva = texto;
+        }
+        return texto;
     }
 
     public Cliente getCliente() {
         return cliente;
     }
 
+    /**
+     * Habitaciones de la reserva. La lista es inmutable, así que se entrega sin copiar.
+     */
     public List<Habitacion> getHabitaciones() {
-        return new ArrayList<>(habitaciones);
+        return habitaciones;
     }
 
     public LocalDate getFechaCheckIn() {
@@ -82,73 +182,184 @@ public class Reserva {
         return montoTotal;
     }
 
+    public String getCodigoPromocional() {
+        return codigoPromocional;
+    }
+
+    /**
+     * Nivel de fidelidad con que se cotizó la reserva.
+     */
+    public NivelFidelidad getNivelFidelidad() {
+        return nivelFidelidad;
+    }
+
+    /**
+     * Suma de las tarifas de cada noche en centavos, antes de descuentos y recargos.
+     */
+    public long getSubtotalCentavos() {
+        return subtotalCentavos;
+    }
+
     /**
      * Cambia la fecha de la reserva.
      */
-    public void cambiarFechas(LocalDate nuevaFechaCheckIn, LocalDate nuevaFechaCheckOut) {
+    public synchronized void cambiarFechas(LocalDate nuevaFechaCheckIn, LocalDate nuevaFechaCheckOut) {
         if (estado == EstadoReserva.CANCELADA) {
             throw new IllegalStateException("No se puede cambiar una reserva cancelada");
         }
+        if (pagoEnCurso) {
+            throw new IllegalStateException("La reserva tiene un pago en curso");
+        }
         if (nuevaFechaCheckIn.isAfter(nuevaFechaCheckOut)) {
             throw new IllegalArgumentException("La fecha de check-in debe ser anterior a check-out");
         }
+        long checkInAnterior = fechaCheckIn.toEpochDay();
+        long checkOutAnterior = fechaCheckOut.toEpochDay();
         this.fechaCheckIn = nuevaFechaCheckIn;
         this.fechaCheckOut = nuevaFechaCheckOut;
-        calcularMontoTotal();
-        logger.info("Fechas de la reserva " + idReserva + " actualizadas exitosamente");
+        ajustarSubtotal(checkInAnterior, checkOutAnterior,
+                nuevaFechaCheckIn.toEpochDay(), nuevaFechaCheckOut.toEpochDay());
+        logger.info("Fechas de la reserva {} actualizadas exitosamente", getIdReserva());
     }
 
     /**
      * Confirma la reserva y procesa el pago.
+     * El pago se procesa sin retener el monitor de la reserva, para que una pasarela
+     * lenta no bloquee a quien consulta la reserva ni fije un hilo virtual a su portador.
      */
     public void confirmar() {
+        confirmar(() -> { });
+    }
+
+    /**
+     * Confirma la reserva y procesa el pago, como {@link #confirmar()}.
+     * @param alConfirmar Se ejecuta con el monitor de la reserva tomado, justo después de
+     *                    pasarla a CONFIRMADA, para registrar la transición antes de que
+     *                    otra operación pueda cambiarla.
+     */
+    public void confirmar(Runnable alConfirmar) {
+        confirmar(SIN_MEDICION, alConfirmar);
+    }
+
+    /**
+     * Confirma la reserva como {@link #confirmar(Runnable)}, midiendo el cobro.
+     * @param medidorPago Mide la llamada al método de pago; un cobro rechazado o que lanza
+     *                    una excepción cuenta como fallo.
+     */
+    public void confirmar(Medidor medidorPago, Runnable alConfirmar) {
+        iniciarPago();
+
+        // Las noches de las habitaciones ya quedaron apartadas al crear la reserva;
+        // aquí solo se procesa el pago
+        boolean exitoso = false;
+        long inicio = medidorPago.iniciar();
+        try {
+            exitoso = metodoPago.procesarPago(montoTotal);
+        } finally {
+            medidorPago.finalizar(inicio, exitoso);
+            finalizarPago(exitoso, alConfirmar);
+        }
+        if (!exitoso) {
+            throw new RuntimeException("Falló el procesamiento del pago");
+        }
+    }
+
+    /**
+     * Confirma la reserva procesando el pago de forma asíncrona.
+     * Mientras el pago está en curso la reserva no puede confirmarse de nuevo,
+     * cancelarse ni cambiar de fechas.
+     */
+    public CompletableFuture<Void> confirmarAsync(ProcesadorPagosAsincrono procesador) {
+        return confirmarAsync(procesador, () -> { });
+    }
+
+    /**
+     * Confirma la reserva procesando el pago de forma asíncrona, como
+     * {@link #confirmarAsync(ProcesadorPagosAsincrono)}.
+     * @param alConfirmar Se ejecuta con el monitor de la reserva tomado, justo después de
+     *                    pasarla a CONFIRMADA.
+     */
+    public CompletableFuture<Void> confirmarAsync(ProcesadorPagosAsincrono procesador, Runnable alConfirmar) {
+        return confirmarAsync(procesador, SIN_MEDICION, alConfirmar);
+    }
+
+    /**
+     * Confirma la reserva como {@link #confirmarAsync(ProcesadorPagosAsincrono, Runnable)},
+     * midiendo el cobro desde que se entrega al procesador hasta que la pasarela responde.
+     */
+    public CompletableFuture<Void> confirmarAsync(ProcesadorPagosAsincrono procesador, Medidor medidorPago,
+                                                  Runnable alConfirmar) {
+        iniciarPago();
+
+        long inicio = medidorPago.iniciar();
+        return procesador.procesarPagoAsync(metodoPago, montoTotal)
+                .handle((exitoso, error) -> {
+                    boolean confirmada = error == null && exitoso;
+                    medidorPago.finalizar(inicio, confirmada);
+                    finalizarPago(confirmada, alConfirmar);
+                    if (!confirmada) {
+                        throw new RuntimeException("Falló el procesamiento del pago", error);
+                    }
+                    return null;
+                });
+    }
+
+    /**
+     * Valida que la reserva pueda confirmarse y la marca con un pago en curso.
+     */
+    private synchronized void iniciarPago() {
         if (estado != EstadoReserva.PENDIENTE) {
             throw new IllegalStateException("La reserva ya ha sido confirmada o cancelada");
         }
-
-        // Marcar habitaciones como ocupadas
-        for (Habitacion habitacion : habitaciones) {
-            if (!habitacion.estaDisponible()) {
-                throw new IllegalStateException("Una o más habitaciones no están disponibles");
-            }
-            habitacion.marcarOcupada();
+        if (pagoEnCurso) {
+            throw new IllegalStateException("La reserva tiene un pago en curso");
         }
+        pagoEnCurso = true;
+    }
 
-        // Procesar pago
-        if (metodoPago.procesarPago(montoTotal)) {
+    /**
+     * Cierra el pago en curso y confirma la reserva si fue exitoso.
+     */
+    private synchronized void finalizarPago(boolean exitoso, Runnable alConfirmar) {
+        pagoEnCurso = false;
+        if (exitoso) {
             this.estado = EstadoReserva.CONFIRMADA;
-            logger.info("Reserva " + idReserva + " confirmada exitosamente");
-        } else {
-            // Liberar habitaciones si el pago falla
-            for (Habitacion habitacion : habitaciones) {
-                habitacion.marcarDisponible();
-            }
-            throw new RuntimeException("Falló el procesamiento del pago");
+            logger.info("Reserva {} confirmada exitosamente", getIdReserva());
+            alConfirmar.run();
         }
     }
 
+    /**
+     * Restablece el estado, el monto y el subtotal guardados de una reserva recuperada de
+     * disco. No procesa pagos ni registra transiciones.
+     */
+    public synchronized void restaurar(EstadoReserva estado, double montoTotal, long subtotalCentavos) {
+        this.estado = estado;
+        this.montoTotal = montoTotal;
+        this.subtotalCentavos = subtotalCentavos;
+    }
+
+
     /**
      * Cancela la reserva.
      */
-    public void cancelar() {
+    public synchronized void cancelar() {
         if (estado == EstadoReserva.CANCELADA) {
             throw new IllegalStateException("La reserva ya está cancelada");
         }
-
-        // Liberar habitaciones
-        for (Habitacion habitacion : habitaciones) {
-            habitacion.marcarDisponible();
+        if (pagoEnCurso) {
+            throw new IllegalStateException("La reserva tiene un pago en curso");
         }
 
         this.estado = EstadoReserva.CANCELADA;
-        logger.info("Reserva " + idReserva + " cancelada exitosamente");
+        logger.info("Reserva {} cancelada exitosamente", getIdReserva());
     }
 
     @Override
     public String toString() {
         return String.format("Reserva ID: %s | Cliente: %s | Habitaciones: %d | " +
                 "Check-in: %s | Check-out: %s | Estado: %s | Total: $%.2f",
-                idReserva, cliente.getNombre(), habitaciones.size(),
+                getIdReserva(), cliente.getNombre(), habitaciones.size(),
                 fechaCheckIn, fechaCheckOut, estado, montoTotal);
     }
 
@@ -157,11 +368,11 @@ public class Reserva {
         if (this == o) return true;
         if (o == null || getClass() != o.getClass()) return false;
         Reserva reserva = (Reserva) o;
-        return idReserva.equals(reserva.idReserva);
+        return id == reserva.id;
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(idReserva);
+        return Long.hashCode(id);
     }
 }
@@ -1,11 +1,14 @@
 package com.hotelreservation.model;
 
+import com.hotelreservation.metrics.Medidor;
 import com.hotelreservation.payment.MetodoPago;
+import com.hotelreservation.payment.ProcesadorPagosAsincrono;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.time.LocalDate;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Subclase de Reserva para clientes VIP.
@@ -15,7 +18,6 @@ import java.util.List;
  */
 public class ReservaVIP extends Reserva {
     private static final Logger logger = LoggerFactory.getLogger(ReservaVIP.class);
-    private static final double DESCUENTO_VIP = 0.15; // 15% de descuento
     private boolean desayunoIncluido;
     private boolean servicioHabitacion24h;
     private boolean accesoBienvenida;
@@ -27,24 +29,66 @@ public class ReservaVIP extends Reserva {
         this.desayunoIncluido = true;
         this.servicioHabitacion24h = true;
         this.accesoBienvenida = true;
-        calcularMontoTotal(); // Recalcular con descuento VIP
     }
 
+    /**
+     * Crea una reserva VIP con un ID ya asignado en su forma de texto.
+     */
+    public ReservaVIP(String idReserva, Cliente cliente, List<Habitacion> habitaciones,
+                     LocalDate fechaCheckIn, LocalDate fechaCheckOut,
+                     MetodoPago metodoPago) {
+        super(idReserva, cliente, habitaciones, fechaCheckIn, fechaCheckOut, metodoPago);
+        this.desayunoIncluido = true;
+        this.servicioHabitacion24h = true;
+        this.accesoBienvenida = true;
+    }
+
+    /**
+     * Crea una reserva VIP con un ID ya asignado, por ejemplo al recuperarla de disco,
+     * cotizada con la tabla de tarifas indicada.
+     */
+    public ReservaVIP(long id, Cliente cliente, List<Habitacion> habitaciones,
+                     LocalDate fechaCheckIn, LocalDate fechaCheckOut,
+                     MetodoPago metodoPago, TablaTarifas tarifas) {
+        this(id, cliente, habitaciones, fechaCheckIn, fechaCheckOut, metodoPago, tarifas,
+                ReglasPrecio.predeterminadas(), null);
+    }
+
+    /**
+     * Crea una reserva VIP cotizada con la tabla de tarifas y las reglas de precio indicadas.
+     */
+    public ReservaVIP(long id, Cliente cliente, List<Habitacion> habitaciones,
+                     LocalDate fechaCheckIn, LocalDate fechaCheckOut,
+                     MetodoPago metodoPago, TablaTarifas tarifas,
+                     ReglasPrecio reglas, String codigoPromocional) {
+        super(id, cliente, habitaciones, fechaCheckIn, fechaCheckOut, metodoPago, tarifas,
+                reglas, codigoPromocional);
+        this.desayunoIncluido = true;
+        this.servicioHabitacion24h = true;
+        this.accesoBienvenida = true;
+    }
+
+    /**
+     * Suma el descuento VIP de las reglas de precio a los demás descuentos.
+     */
     @Override
-    protected void calcularMontoTotal() {
-        long noches = java.time.temporal.ChronoUnit.DAYS.between(fechaCheckIn, fechaCheckOut);
-        double subtotal = habitaciones.stream()
-                .mapToDouble(Habitacion::getPrecioNoche)
-                .sum() * noches;
-        this.montoTotal = subtotal * (1 - DESCUENTO_VIP);
+    protected double factorPrecio() {
+        return super.factorPrecio() * reglas.factorVip();
     }
 
     @Override
-    public void confirmar() {
-        super.confirmar();
+    public void confirmar(Medidor medidorPago, Runnable alConfirmar) {
+        super.confirmar(medidorPago, alConfirmar);
         logger.info("Beneficios VIP activados: Desayuno incluido, Servicio 24h, Acceso a áreas VIP");
     }
 
+    @Override
+    public CompletableFuture<Void> confirmarAsync(ProcesadorPagosAsincrono procesador, Medidor medidorPago,
+                                                  Runnable alConfirmar) {
+        return super.confirmarAsync(procesador, medidorPago, alConfirmar).thenRun(() ->
+                logger.info("Beneficios VIP activados: Desayuno incluido, Servicio 24h, Acceso a áreas VIP"));
+    }
+
     public boolean tieneDesayunoIncluido() {
         return desayunoIncluido;
     }
@@ -60,6 +104,6 @@ public class ReservaVIP extends Reserva {
     @Override
     public String toString() {
         return String.format("%s [VIP - Descuento: %.0f%%]",
-                super.toString(), DESCUENTO_VIP * 100);
+                super.toString(), (1 - reglas.factorVip()) * 100);
     }
 }
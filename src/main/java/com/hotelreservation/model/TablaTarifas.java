@@ -0,0 +1,193 @@
+package com.hotelreservation.model;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Tarifas por noche según tipo de habitación y fecha.
+ * SRP: Responsabilidad única de cotizar estadías.
+ * Las tarifas se guardan en centavos en un único arreglo {@code long[]} indexado por
+ * tipo y día, así que cada noche se cotiza con un acceso directo. Los días fuera del
+ * calendario usan el precio base del tipo. Cotizar no crea objetos: la tabla se lee
+ * una vez y se recorre con un ciclo sobre días enteros.
+ * Los cambios de tarifa copian la tabla y la publican entera, de modo que una cotización
+ * nunca mezcla tarifas de antes y después de un cambio.
+ * Los multiplicadores de temporada se guardan aparte de las tarifas fijadas y se aplican
+ * al publicar: la tabla que se lee ya tiene cada noche multiplicada, así que cotizar
+ * cuesta lo mismo con o sin temporadas, y fijar una tarifa no borra su temporada.
+ */
+public class TablaTarifas {
+    private static final int DIAS_POR_DEFECTO = 3 * 366;
+    private static final TipoHabitacion[] TIPOS = TipoHabitacion.values();
+    private static final long[] CENTAVOS_BASE = new long[TIPOS.length];
+    private static final TablaTarifas PRECIOS_BASE = new TablaTarifas(LocalDate.of(2000, 1, 1), 0);
+
+    static {
+        for (TipoHabitacion tipo : TIPOS) {
+            CENTAVOS_BASE[tipo.ordinal()] = Math.round(tipo.getPrecioBase() * 100);
+        }
+    }
+
+    private final long diaInicio;
+    private final int dias;
+    private volatile long[] centavos;
+    // Tarifas fijadas y multiplicadores de temporada; solo se tocan con el monitor tomado
+    private final long[] fijadas;
+    private final double[] multiplicadores;
+
+    /**
+     * Crea una tabla desde el 1 de enero del año en curso, con tres años de calendario.
+     */
+    public TablaTarifas() {
+        this(LocalDate.now().withDayOfYear(1), DIAS_POR_DEFECTO);
+    }
+
+    /**
+     * Crea una tabla con todas las noches entre {@code inicio} y {@code inicio + dias}
+     * al precio base de cada tipo.
+     */
+    public TablaTarifas(LocalDate inicio, int dias) {
+        if (dias < 0) {
+            throw new IllegalArgumentException("La cantidad de días no puede ser negativa");
+        }
+        this.diaInicio = inicio.toEpochDay();
+        this.dias = dias;
+        long[] tabla = new long[TIPOS.length * dias];
+        for (int tipo = 0; tipo < TIPOS.length; tipo++) {
+            Arrays.fill(tabla, tipo * dias, (tipo + 1) * dias, CENTAVOS_BASE[tipo]);
+        }
+        this.centavos = tabla;
+        this.fijadas = tabla.clone();
+        this.multiplicadores = new double[tabla.length];
+        Arrays.fill(multiplicadores, 1.0);
+    }
+
+    /**
+     * Tabla compartida sin calendario: siempre cotiza al precio base.
+     */
+    public static TablaTarifas preciosBase() {
+        return PRECIOS_BASE;
+    }
+
+    /**
+     * Fija la tarifa de un tipo para las noches entre {@code desde} (inclusive) y
+     * {@code hasta} (exclusive).
+     */
+    public synchronized void fijarTarifa(TipoHabitacion tipo, LocalDate desde, LocalDate hasta,
+                                         double precioNoche) {
+        long primera = desde.toEpochDay() - diaInicio;
+        long ultima = hasta.toEpochDay() - diaInicio;
+        if (primera < 0 || ultima > dias || primera > ultima) {
+            throw new IllegalArgumentException("Rango fuera del calendario de tarifas: " +
+                    desde + " - " + hasta);
+        }
+        if (precioNoche < 0) {
+            throw new IllegalArgumentException("La tarifa no puede ser negativa");
+        }
+        int fila = tipo.ordinal() * dias;
+        Arrays.fill(fijadas, fila + (int) primera, fila + (int) ultima, Math.round(precioNoche * 100));
+        publicar(fila + (int) primera, fila + (int) ultima);
+    }
+
+    /**
+     * Fija el multiplicador de temporada de un tipo para las noches entre {@code desde}
+     * (inclusive) y {@code hasta} (exclusive); 1.0 quita la temporada.
+     */
+    public synchronized void fijarMultiplicador(TipoHabitacion tipo, LocalDate desde, LocalDate hasta,
+                                                double multiplicador) {
+        long primera = desde.toEpochDay() - diaInicio;
+        long ultima = hasta.toEpochDay() - diaInicio;
+        if (primera < 0 || ultima > dias || primera > ultima) {
+            throw new IllegalArgumentException("Rango fuera del calendario de tarifas: " +
+                    desde + " - " + hasta);
+        }
+        if (multiplicador < 0) {
+            throw new IllegalArgumentException("El multiplicador no puede ser negativo");
+        }
+        int fila = tipo.ordinal() * dias;
+        Arrays.fill(multiplicadores, fila + (int) primera, fila + (int) ultima, multiplicador);
+        publicar(fila + (int) primera, fila + (int) ultima);
+    }
+
+    /**
+     * Copia la tabla, recalcula el tramo [desde, hasta) y la publica.
+     */
+    private void publicar(int desde, int hasta) {
+        long[] nueva = centavos.clone();
+        for (int i = desde; i < hasta; i++) {
+            nueva[i] = Math.round(fijadas[i] * multiplicadores[i]);
+        }
+        centavos = nueva;
+    }
+
+    /**
+     * Primera noche del calendario de la tabla.
+     */
+    public LocalDate getInicio() {
+        return LocalDate.ofEpochDay(diaInicio);
+    }
+
+    /**
+     * Día siguiente a la última noche del calendario de la tabla.
+     */
+    public LocalDate getFin() {
+        return LocalDate.ofEpochDay(diaInicio + dias);
+    }
+
+    /**
+     * Tarifa de una noche del tipo indicado.
+     */
+    public double getTarifa(TipoHabitacion tipo, LocalDate noche) {
+        return tarifaCentavos(centavos, tipo.ordinal(), noche.toEpochDay()) / 100.0;
+    }
+
+    /**
+     * Cotiza una habitación del tipo indicado entre dos días (desde la época).
+     * @return Total en centavos de las noches entre check-in (inclusive) y check-out (exclusive).
+     */
+    public long cotizarCentavos(TipoHabitacion tipo, long diaCheckIn, long diaCheckOut) {
+        long[] tabla = centavos;
+        int ordinal = tipo.ordinal();
+        long total = 0;
+        long dia = diaCheckIn;
+        // Tramo dentro del calendario: acceso directo sin comparar límites en cada noche
+        long desde = Math.max(diaCheckIn, diaInicio);
+        long hasta = Math.min(diaCheckOut, diaInicio + dias);
+        if (desde < hasta) {
+            total += (desde - diaCheckIn) * CENTAVOS_BASE[ordinal];
+            int fila = ordinal * dias;
+            int fin = fila + (int) (hasta - diaInicio);
+            for (int i = fila + (int) (desde - diaInicio); i < fin; i++) {
+                total += tabla[i];
+            }
+            dia = hasta;
+        }
+        if (dia < diaCheckOut) {
+            total += (diaCheckOut - dia) * CENTAVOS_BASE[ordinal];
+        }
+        return total;
+    }
+
+    /**
+     * Cotiza todas las habitaciones para la misma estadía.
+     * @return Total en centavos.
+     */
+    public long cotizarCentavos(List<Habitacion> habitaciones, LocalDate checkIn, LocalDate checkOut) {
+        long diaCheckIn = checkIn.toEpochDay();
+        long diaCheckOut = checkOut.toEpochDay();
+        long total = 0;
+        for (int i = 0; i < habitaciones.size(); i++) {
+            total += cotizarCentavos(habitaciones.get(i).getTipo(), diaCheckIn, diaCheckOut);
+        }
+        return total;
+    }
+
+    private long tarifaCentavos(long[] tabla, int ordinal, long dia) {
+        long indice = dia - diaInicio;
+        if (indice < 0 || indice >= dias) {
+            return CENTAVOS_BASE[ordinal];
+        }
+        return tabla[ordinal * dias + (int) indice];
+    }
+}
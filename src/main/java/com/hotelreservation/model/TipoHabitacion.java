@@ -3,20 +3,27 @@ package com.hotelreservation.model;
 /**
  * Enumeración de tipos de habitación.
  * SRP: Responsabilidad única de definir los tipos disponibles.
+ * Cada tipo lleva su precio base por noche, que TablaTarifas usa fuera de su calendario.
  */
 public enum TipoHabitacion {
-    ESTANDAR("Habitación Estándar"),
-    DOBLE("Habitación Doble"),
-    SUITE("Suite"),
-    SUITE_PRESIDENCIAL("Suite Presidencial");
+    ESTANDAR("Habitación Estándar", 80.0),
+    DOBLE("Habitación Doble", 120.0),
+    SUITE("Suite", 200.0),
+    SUITE_PRESIDENCIAL("Suite Presidencial", 500.0);
 
     private final String descripcion;
+    private final double precioBase;
 
-    TipoHabitacion(String descripcion) {
+    TipoHabitacion(String descripcion, double precioBase) {
         this.descripcion = descripcion;
+        this.precioBase = precioBase;
     }
 
     public String getDescripcion() {
         return descripcion;
     }
+
+    public double getPrecioBase() {
+        return precioBase;
+    }
 }
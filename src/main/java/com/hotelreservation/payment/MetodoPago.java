@@ -14,6 +14,17 @@ public interface MetodoPago {
      */
     boolean procesarPago(double monto);
 
+    /**
+     * Devuelve un pago ya procesado, por ejemplo para compensar una reserva distribuida
+     * que no pudo confirmarse entera.
+     * Por defecto el método de pago no admite reembolsos y devuelve false.
+     * @param monto Monto cobrado a devolver.
+     * @return true si el reembolso fue aceptado, false en caso contrario.
+     */
+    default boolean reembolsarPago(double monto) {
+        return false;
+    }
+
     /**
      * Obtiene el nombre del método de pago.
      * @return Nombre del método.
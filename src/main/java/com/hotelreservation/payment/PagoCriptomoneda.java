@@ -26,8 +26,16 @@ public class PagoCriptomoneda implements MetodoPago {
             return false;
         }
         // En una aplicación real, se conectaría a la blockchain
-        logger.info("Procesando pago de $" + monto + " en " + tipoMoneda +
-                          " desde billetera " + billetera.substring(0, 10) + "...");
+        logger.info("Procesando pago de ${} en {} desde billetera {}...",
+                    monto, tipoMoneda, billetera.substring(0, 10));
+        return true;
+    }
+
+    @Override
+    public boolean reembolsarPago(double monto) {
+        // En una aplicación real, se enviaría una transacción de vuelta a la billetera
+        logger.info("Reembolsando ${} en {} a la billetera {}...",
+                    monto, tipoMoneda, billetera.substring(0, 10));
         return true;
     }
 
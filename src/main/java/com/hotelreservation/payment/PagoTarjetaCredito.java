@@ -33,8 +33,16 @@ public class PagoTarjetaCredito implements MetodoPago {
             return false;
         }
         // En una aplicación real, se conectaría a un gateway de pagos
-        logger.info("Procesando pago de $" + monto + " con tarjeta " +
-                          numeroTarjeta.substring(numeroTarjeta.length() - 4));
+        logger.info("Procesando pago de ${} con tarjeta {}",
+                    monto, numeroTarjeta.substring(numeroTarjeta.length() - 4));
+        return true;
+    }
+
+    @Override
+    public boolean reembolsarPago(double monto) {
+        // En una aplicación real, se pediría la devolución al gateway de pagos
+        logger.info("Reembolsando ${} a la tarjeta {}",
+                    monto, numeroTarjeta.substring(numeroTarjeta.length() - 4));
         return true;
     }
 
@@ -30,8 +30,16 @@ public class PagoTarjetaDebito implements MetodoPago {
             return false;
         }
         // En una aplicación real, se conectaría a un banco
-        logger.info("Procesando pago de $" + monto + " con tarjeta de débito " +
-                          numeroTarjeta.substring(numeroTarjeta.length() - 4));
+        logger.info("Procesando pago de ${} con tarjeta de débito {}",
+                    monto, numeroTarjeta.substring(numeroTarjeta.length() - 4));
+        return true;
+    }
+
+    @Override
+    public boolean reembolsarPago(double monto) {
+        // En una aplicación real, se pediría la devolución al banco
+        logger.info("Reembolsando ${} a la tarjeta de débito {}",
+                    monto, numeroTarjeta.substring(numeroTarjeta.length() - 4));
         return true;
     }
 
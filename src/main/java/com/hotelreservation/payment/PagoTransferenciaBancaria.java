@@ -30,7 +30,14 @@ public class PagoTransferenciaBancaria implements MetodoPago {
             return false;
         }
         // En una aplicación real, se conectaría al sistema bancario
-        logger.info("Procesando transferencia de $" + monto + " al banco " + nombreBanco);
+        logger.info("Procesando transferencia de ${} al banco {}", monto, nombreBanco);
+        return true;
+    }
+
+    @Override
+    public boolean reembolsarPago(double monto) {
+        // En una aplicación real, se ordenaría una transferencia de vuelta a la cuenta
+        logger.info("Reembolsando ${} por transferencia desde el banco {}", monto, nombreBanco);
         return true;
     }
 
@@ -0,0 +1,17 @@
+package com.hotelreservation.payment;
+
+import java.util.List;
+
+/**
+ * Interfaz de la pasarela que cobra lotes de pagos de un mismo proveedor.
+ * DIP: El procesador asíncrono depende de esta abstracción, no de una pasarela concreta.
+ */
+public interface PasarelaPagos {
+    /**
+     * Procesa un lote de cobros en un solo viaje a la pasarela.
+     * @param proveedor Nombre del proveedor común a todos los cobros del lote.
+     * @param lote Cobros a procesar.
+     * @return Resultado de cada cobro, en el mismo orden del lote.
+     */
+    boolean[] procesarLote(String proveedor, List<SolicitudPago> lote);
+}
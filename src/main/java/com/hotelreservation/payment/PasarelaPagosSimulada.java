@@ -0,0 +1,39 @@
+package com.hotelreservation.payment;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Pasarela local que simula la latencia de un viaje de red por cada lote.
+ * SRP: Responsabilidad única de imitar una pasarela remota en pruebas y demostraciones.
+ * Cada cobro se valida con el propio MetodoPago, igual que en el camino síncrono.
+ */
+public class PasarelaPagosSimulada implements PasarelaPagos {
+    private static final Logger logger = LoggerFactory.getLogger(PasarelaPagosSimulada.class);
+    private final Duration latencia;
+
+    public PasarelaPagosSimulada(Duration latencia) {
+        this.latencia = latencia;
+    }
+
+    @Override
+    public boolean[] procesarLote(String proveedor, List<SolicitudPago> lote) {
+        try {
+            Thread.sleep(latencia.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrumpido mientras se contactaba la pasarela", e);
+        }
+
+        boolean[] resultados = new boolean[lote.size()];
+        for (int i = 0; i < resultados.length; i++) {
+            SolicitudPago solicitud = lote.get(i);
+            resultados[i] = solicitud.getMetodoPago().procesarPago(solicitud.getMonto());
+        }
+        logger.info("Lote de {} pagos procesado con {}", lote.size(), proveedor);
+        return resultados;
+    }
+}
@@ -0,0 +1,176 @@
+package com.hotelreservation.payment;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Procesador asíncrono de pagos con lotes por proveedor.
+ * SRP: Responsabilidad única de agrupar cobros y enviarlos a la pasarela sin bloquear al llamador.
+ * DIP: Trabaja con cualquier MetodoPago y cualquier PasarelaPagos.
+ * Los cobros se agrupan por {@link MetodoPago#getNombreMetodo()}: un lote se envía en cuanto
+ * se llena o cuando vence la espera máxima desde el primer cobro encolado. El número de
+ * cobros en vuelo está acotado; al alcanzar el límite, el cobro no se encola y su futuro
+ * falla de inmediato con {@link RejectedExecutionException}, sin bloquear al llamador.
+ * Todo futuro devuelto se completa, aunque la pasarela lance un Error o el procesador
+ * se cierre con cobros encolados. Los hilos son daemon y no impiden que termine la JVM.
+ */
+public class ProcesadorPagosAsincrono implements AutoCloseable {
+    private final PasarelaPagos pasarela;
+    private final int tamanoLote;
+    private final long esperaMaximaNanos;
+    private final int maximoEnVuelo;
+    private final Semaphore enVuelo;
+    private final Map<String, ColaProveedor> colas;
+    private final ExecutorService trabajadores;
+    private final ScheduledExecutorService temporizador;
+
+    public ProcesadorPagosAsincrono(PasarelaPagos pasarela, int maximoEnVuelo,
+                                    int tamanoLote, Duration esperaMaxima) {
+        if (maximoEnVuelo <= 0 || tamanoLote <= 0) {
+            throw new IllegalArgumentException("El límite en vuelo y el tamaño de lote deben ser positivos");
+        }
+        this.pasarela = pasarela;
+        this.tamanoLote = tamanoLote;
+        this.esperaMaximaNanos = esperaMaxima.toNanos();
+        this.maximoEnVuelo = maximoEnVuelo;
+        this.enVuelo = new Semaphore(maximoEnVuelo);
+        this.colas = new ConcurrentHashMap<>();
+        // Los envíos esperan a la pasarela: un hilo virtual por lote
+        this.trabajadores = Executors.newThreadPerTaskExecutor(
+                Thread.ofVirtual().name("pagos-lote-", 0).factory());
+        this.temporizador = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread hilo = new Thread(r, "pagos-temporizador");
+            hilo.setDaemon(true);
+            return hilo;
+        });
+    }
+
+    /**
+     * Encola un cobro y devuelve su resultado futuro. Nunca bloquea.
+     * @return true si el pago fue exitoso, false en caso contrario. Falla con
+     *         {@link RejectedExecutionException} si ya hay demasiados cobros en vuelo o el
+     *         procesador está cerrado.
+     */
+    public CompletableFuture<Boolean> procesarPagoAsync(MetodoPago metodoPago, double monto) {
+        if (!enVuelo.tryAcquire()) {
+            return CompletableFuture.failedFuture(new RejectedExecutionException(
+                    "Se alcanzó el límite de " + maximoEnVuelo + " cobros en vuelo"));
+        }
+
+        SolicitudPago solicitud = new SolicitudPago(metodoPago, monto);
+        String proveedor = metodoPago.getNombreMetodo();
+        ColaProveedor cola = colas.computeIfAbsent(proveedor, ColaProveedor::new);
+        cola.pendientes.add(solicitud);
+        int encolados = cola.cantidad.incrementAndGet();
+        try {
+            if (encolados == 1) {
+                temporizador.schedule(() -> vaciar(cola), esperaMaximaNanos, TimeUnit.NANOSECONDS);
+            }
+            if (encolados % tamanoLote == 0) {
+                trabajadores.execute(() -> vaciar(cola));
+            }
+        } catch (RejectedExecutionException e) {
+            // Cerrado: nadie más vaciará la cola, así que se rechaza lo que quedó en ella
+            vaciar(cola);
+        }
+        return solicitud.getResultado();
+    }
+
+    /**
+     * Envía a la pasarela todos los cobros encolados del proveedor, en lotes.
+     */
+    private void vaciar(ColaProveedor cola) {
+        List<SolicitudPago> lote = new ArrayList<>(tamanoLote);
+        SolicitudPago solicitud;
+        while ((solicitud = cola.pendientes.poll()) != null) {
+            cola.cantidad.decrementAndGet();
+            lote.add(solicitud);
+            if (lote.size() == tamanoLote) {
+                enviar(cola.proveedor, lote);
+                lote = new ArrayList<>(tamanoLote);
+            }
+        }
+        if (!lote.isEmpty()) {
+            enviar(cola.proveedor, lote);
+        }
+        // Un cobro encolado tras el último poll debe tener su propio temporizador
+        if (cola.cantidad.get() > 0) {
+            try {
+                temporizador.schedule(() -> vaciar(cola), esperaMaximaNanos, TimeUnit.NANOSECONDS);
+            } catch (RejectedExecutionException e) {
+                vaciar(cola);
+            }
+        }
+    }
+
+    private void enviar(String proveedor, List<SolicitudPago> lote) {
+        try {
+            trabajadores.execute(() -> procesar(proveedor, lote));
+        } catch (RejectedExecutionException e) {
+            completar(lote, new RejectedExecutionException("El procesador de pagos está cerrado", e));
+            enVuelo.release(lote.size());
+        }
+    }
+
+    /**
+     * Envía un lote a la pasarela. Los cobros sin resultado, incluso si la pasarela lanza
+     * un Error, terminan con la excepción, y los permisos se devuelven siempre.
+     */
+    private void procesar(String proveedor, List<SolicitudPago> lote) {
+        try {
+            boolean[] resultados = pasarela.procesarLote(proveedor, lote);
+            for (int i = 0; i < lote.size(); i++) {
+                lote.get(i).getResultado().complete(resultados[i]);
+            }
+        } catch (Throwable e) {
+            completar(lote, e);
+            if (e instanceof Error) {
+                throw (Error) e;
+            }
+        } finally {
+            enVuelo.release(lote.size());
+        }
+    }
+
+    private static void completar(List<SolicitudPago> lote, Throwable error) {
+        for (SolicitudPago pendiente : lote) {
+            pendiente.getResultado().completeExceptionally(error);
+        }
+    }
+
+    /**
+     * Detiene los hilos del procesador. Los lotes ya enviados terminan normalmente; los
+     * cobros que seguían encolados fallan con {@link RejectedExecutionException}.
+     */
+    @Override
+    public void close() {
+        temporizador.shutdown();
+        trabajadores.shutdown();
+    }
+
+    /**
+     * Cobros encolados de un mismo proveedor.
+     */
+    private static final class ColaProveedor {
+        private final String proveedor;
+        private final Queue<SolicitudPago> pendientes = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger cantidad = new AtomicInteger();
+
+        private ColaProveedor(String proveedor) {
+            this.proveedor = proveedor;
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.hotelreservation.payment;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Cobro pendiente de enviar a la pasarela de pagos.
+ * SRP: Responsabilidad única de asociar un cobro con el resultado que espera quien lo pidió.
+ */
+public class SolicitudPago {
+    private final MetodoPago metodoPago;
+    private final double monto;
+    private final CompletableFuture<Boolean> resultado;
+
+    public SolicitudPago(MetodoPago metodoPago, double monto) {
+        this.metodoPago = metodoPago;
+        this.monto = monto;
+        this.resultado = new CompletableFuture<>();
+    }
+
+    public MetodoPago getMetodoPago() {
+        return metodoPago;
+    }
+
+    public double getMonto() {
+        return monto;
+    }
+
+    public CompletableFuture<Boolean> getResultado() {
+        return resultado;
+    }
+}
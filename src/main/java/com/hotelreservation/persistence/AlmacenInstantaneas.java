@@ -0,0 +1,137 @@
+package com.hotelreservation.persistence;
+
+import com.hotelreservation.model.Reserva;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Instantáneas compactas del estado de todas las reservas.
+ * SRP: Responsabilidad única de escribir y leer instantáneas en disco.
+ * Cada instantánea {@code instantanea-<secuencia>.dat} refleja al menos todos los eventos
+ * del diario hasta esa secuencia. Se escribe en un archivo temporal que luego se renombra
+ * de forma atómica, y termina con un CRC del contenido para descartar archivos dañados.
+ */
+public class AlmacenInstantaneas {
+    private static final Logger logger = LoggerFactory.getLogger(AlmacenInstantaneas.class);
+    private static final String PREFIJO = "instantanea-";
+    private static final String EXTENSION = ".dat";
+    private static final int MAGICO = 0x48535250; // "HSRP"
+    private static final int VERSION = 3;
+
+    private final Path directorio;
+
+    public AlmacenInstantaneas(Path directorio) throws IOException {
+        Files.createDirectories(directorio);
+        this.directorio = directorio;
+    }
+
+    /**
+     * Escribe una instantánea de las reservas y borra las instantáneas anteriores.
+     * @param secuencia Última secuencia del diario cuyos efectos ya están en las reservas.
+     */
+    public void guardar(long secuencia, Collection<Reserva> reservas) throws IOException {
+        Path destino = directorio.resolve(String.format("%s%020d%s", PREFIJO, secuencia, EXTENSION));
+        Path temporal = directorio.resolve(destino.getFileName() + ".tmp");
+
+        CRC32C crc = new CRC32C();
+        try (OutputStream archivo = Files.newOutputStream(temporal)) {
+            CheckedOutputStream verificado = new CheckedOutputStream(archivo, crc);
+            DataOutputStream salida = new DataOutputStream(new BufferedOutputStream(verificado, 1 << 16));
+            salida.writeInt(MAGICO);
+            salida.writeInt(VERSION);
+            salida.writeLong(secuencia);
+            salida.writeInt(reservas.size());
+            for (Reserva reserva : reservas) {
+                CodificadorReservas.escribirReserva(salida, reserva);
+            }
+            salida.flush();
+            new DataOutputStream(archivo).writeInt((int) crc.getValue());
+        }
+        try (FileChannel canal = FileChannel.open(temporal, StandardOpenOption.WRITE)) {
+            canal.force(true);
+        }
+        Files.move(temporal, destino, StandardCopyOption.ATOMIC_MOVE);
+
+        for (Path anterior : listar()) {
+            if (!anterior.equals(destino)) {
+                Files.deleteIfExists(anterior);
+            }
+        }
+        logger.info("Instantánea guardada: {} reservas hasta la secuencia {}", reservas.size(), secuencia);
+    }
+
+    /**
+     * Carga la instantánea válida más reciente en los registros indicados.
+     * @return Secuencia de la instantánea cargada, o 0 si no hay ninguna.
+     */
+    long cargar(Map<Long, RegistroReserva> registros) throws IOException {
+        List<Path> instantaneas = listar();
+        for (int i = instantaneas.size() - 1; i >= 0; i--) {
+            Path archivo = instantaneas.get(i);
+            byte[] contenido = Files.readAllBytes(archivo);
+            if (contenido.length < 4) {
+                continue;
+            }
+            CRC32C crc = new CRC32C();
+            crc.update(contenido, 0, contenido.length - 4);
+            int esperado = ((contenido[contenido.length - 4] & 0xFF) << 24)
+                    | ((contenido[contenido.length - 3] & 0xFF) << 16)
+                    | ((contenido[contenido.length - 2] & 0xFF) << 8)
+                    | (contenido[contenido.length - 1] & 0xFF);
+            if ((int) crc.getValue() != esperado) {
+                logger.warn("Instantánea dañada descartada: {}", archivo.getFileName());
+                continue;
+            }
+
+            DataInputStream entrada = new DataInputStream(
+                    new ByteArrayInputStream(contenido, 0, contenido.length - 4));
+            if (entrada.readInt() != MAGICO || entrada.readInt() != VERSION) {
+                logger.warn("Formato de instantánea desconocido: {}", archivo.getFileName());
+                continue;
+            }
+            long secuencia = entrada.readLong();
+            int cantidad = entrada.readInt();
+            for (int j = 0; j < cantidad; j++) {
+                RegistroReserva registro = CodificadorReservas.leerReserva(entrada);
+                registros.put(registro.idReserva, registro);
+            }
+            return secuencia;
+        }
+        return 0;
+    }
+
+    private List<Path> listar() throws IOException {
+        try (Stream<Path> archivos = Files.list(directorio)) {
+            return archivos
+                    .filter(p -> {
+                        String nombre = p.getFileName().toString();
+                        return nombre.startsWith(PREFIJO) && nombre.endsWith(EXTENSION);
+                    })
+                    .sorted(Comparator.comparing(Path::getFileName))
+                    .collect(Collectors.toList());
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+}
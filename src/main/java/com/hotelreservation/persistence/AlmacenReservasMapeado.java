@@ -0,0 +1,238 @@
+package com.hotelreservation.persistence;
+
+import com.hotelreservation.model.EstadoReserva;
+import com.hotelreservation.model.Habitacion;
+import com.hotelreservation.model.Reserva;
+import com.hotelreservation.model.ReservaVIP;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Almacén fuera del heap de reservas históricas en registros de ancho fijo.
+ * SRP: Responsabilidad única de guardar y leer reservas compactas en un archivo mapeado.
+ * Cada reserva ocupa {@value #TAMANO_REGISTRO} bytes: el ID como long, las fechas
+ * como días desde la época, el monto en centavos, el estado en un byte y hasta
+ * {@value #MAXIMO_HABITACIONES} habitaciones como IDs enteros. Los números de habitación
+ * se guardan una sola vez en una tabla aparte ({@code habitaciones.txt}).
+ * El archivo se mapea por bloques de tamaño fijo que se agregan a medida que crece,
+ * y las lecturas se hacen con {@link VistaReservaMapeada} sin crear objetos por reserva.
+ */
+public class AlmacenReservasMapeado implements AutoCloseable {
+    public static final int TAMANO_REGISTRO = 64;
+    public static final int MAXIMO_HABITACIONES = 9;
+
+    // Desplazamientos dentro de un registro
+    static final int ID = 0;
+    static final int MONTO = 8;
+    static final int CHECK_IN = 16;
+    static final int CHECK_OUT = 20;
+    static final int ESTADO = 24;
+    static final int VIP = 25;
+    static final int CANTIDAD_HABITACIONES = 26;
+    static final int HABITACIONES = 28;
+
+    static final EstadoReserva[] ESTADOS = EstadoReserva.values();
+
+    private static final int MAGICO = 0x48535244; // "HSRD"
+    private static final int VERSION = 2;
+    private static final int TAMANO_CABECERA = 64;
+    private static final int CABECERA_CANTIDAD = 16;
+    private static final int REGISTROS_POR_BLOQUE = 1 << 20;
+    private static final String ARCHIVO_REGISTROS = "reservas.dat";
+    private static final String ARCHIVO_HABITACIONES = "habitaciones.txt";
+
+    private final FileChannel canal;
+    private final MappedByteBuffer cabecera;
+    private final Path tablaHabitaciones;
+    private final List<String> numerosHabitacion;
+    private final Map<String, Integer> idsHabitacion;
+    private volatile ByteBuffer[] bloques;
+    private volatile long cantidad;
+
+    private AlmacenReservasMapeado(Path directorio) throws IOException {
+        Files.createDirectories(directorio);
+        this.canal = FileChannel.open(directorio.resolve(ARCHIVO_REGISTROS), StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        this.cabecera = canal.map(FileChannel.MapMode.READ_WRITE, 0, TAMANO_CABECERA);
+        if (cabecera.getInt(0) == 0) {
+            cabecera.putInt(0, MAGICO);
+            cabecera.putInt(4, VERSION);
+            cabecera.putInt(8, TAMANO_REGISTRO);
+            cabecera.putLong(CABECERA_CANTIDAD, 0);
+        } else if (cabecera.getInt(0) != MAGICO || cabecera.getInt(4) != VERSION
+                || cabecera.getInt(8) != TAMANO_REGISTRO) {
+            throw new IOException("Formato de almacén de reservas desconocido");
+        }
+        this.cantidad = cabecera.getLong(CABECERA_CANTIDAD);
+
+        this.tablaHabitaciones = directorio.resolve(ARCHIVO_HABITACIONES);
+        this.numerosHabitacion = new ArrayList<>();
+        this.idsHabitacion = new HashMap<>();
+        if (Files.exists(tablaHabitaciones)) {
+            for (String numero : Files.readAllLines(tablaHabitaciones, StandardCharsets.UTF_8)) {
+                idsHabitacion.put(numero, numerosHabitacion.size());
+                numerosHabitacion.add(numero);
+            }
+        }
+
+        int bloquesNecesarios = (int) ((cantidad + REGISTROS_POR_BLOQUE - 1) / REGISTROS_POR_BLOQUE);
+        ByteBuffer[] mapeados = new ByteBuffer[bloquesNecesarios];
+        for (int i = 0; i < bloquesNecesarios; i++) {
+            mapeados[i] = mapearBloque(i);
+        }
+        this.bloques = mapeados;
+    }
+
+    /**
+     * Abre (o crea) el almacén en el directorio indicado.
+     */
+    public static AlmacenReservasMapeado abrir(Path directorio) throws IOException {
+        return new AlmacenReservasMapeado(directorio);
+    }
+
+    /**
+     * Agrega una reserva al final del almacén.
+     * @return Posición del registro, para actualizarlo o leerlo después.
+     */
+    public synchronized long agregar(Reserva reserva) throws IOException {
+        List<Habitacion> habitaciones = reserva.getHabitaciones();
+        if (habitaciones.size() > MAXIMO_HABITACIONES) {
+            throw new IllegalArgumentException("Una reserva archivada admite hasta " +
+                    MAXIMO_HABITACIONES + " habitaciones");
+        }
+
+        long posicion = cantidad;
+        int indiceBloque = (int) (posicion / REGISTROS_POR_BLOQUE);
+        if (indiceBloque == bloques.length) {
+            ByteBuffer[] ampliados = Arrays.copyOf(bloques, indiceBloque + 1);
+            ampliados[indiceBloque] = mapearBloque(indiceBloque);
+            bloques = ampliados;
+        }
+        ByteBuffer bloque = bloques[indiceBloque];
+        int base = (int) (posicion % REGISTROS_POR_BLOQUE) * TAMANO_REGISTRO;
+
+        bloque.putLong(base + ID, reserva.getId());
+        escribirVariables(bloque, base, reserva);
+        bloque.put(base + VIP, (byte) (reserva instanceof ReservaVIP ? 1 : 0));
+        bloque.put(base + CANTIDAD_HABITACIONES, (byte) habitaciones.size());
+        for (int i = 0; i < habitaciones.size(); i++) {
+            bloque.putInt(base + HABITACIONES + i * Integer.BYTES, internar(habitaciones.get(i).getNumero()));
+        }
+
+        // La cantidad se publica después del registro: un corte deja a lo sumo un registro invisible
+        cantidad = posicion + 1;
+        cabecera.putLong(CABECERA_CANTIDAD, cantidad);
+        return posicion;
+    }
+
+    /**
+     * Reescribe el estado, las fechas y el monto de un registro existente.
+     */
+    public synchronized void actualizar(long posicion, Reserva reserva) {
+        verificarPosicion(posicion);
+        ByteBuffer bloque = bloques[(int) (posicion / REGISTROS_POR_BLOQUE)];
+        int base = (int) (posicion % REGISTROS_POR_BLOQUE) * TAMANO_REGISTRO;
+        escribirVariables(bloque, base, reserva);
+    }
+
+    public long cantidad() {
+        return cantidad;
+    }
+
+    /**
+     * Crea una vista reutilizable sobre este almacén.
+     */
+    public VistaReservaMapeada crearVista() {
+        return new VistaReservaMapeada(this);
+    }
+
+    /**
+     * Posiciona la vista sobre el registro indicado.
+     */
+    public VistaReservaMapeada leer(long posicion, VistaReservaMapeada vista) {
+        verificarPosicion(posicion);
+        vista.posicionar(posicion, bloques[(int) (posicion / REGISTROS_POR_BLOQUE)],
+                (int) (posicion % REGISTROS_POR_BLOQUE) * TAMANO_REGISTRO);
+        return vista;
+    }
+
+    /**
+     * Recorre todos los registros con una única vista reposicionada en cada paso.
+     */
+    public void recorrer(Consumer<VistaReservaMapeada> accion) {
+        VistaReservaMapeada vista = crearVista();
+        long total = cantidad;
+        for (long posicion = 0; posicion < total; posicion++) {
+            accion.accept(leer(posicion, vista));
+        }
+    }
+
+    /**
+     * Fuerza a disco los registros escritos.
+     */
+    public synchronized void sincronizar() {
+        for (ByteBuffer bloque : bloques) {
+            ((MappedByteBuffer) bloque).force();
+        }
+        cabecera.force();
+    }
+
+    String numeroHabitacion(int id) {
+        synchronized (this) {
+            return numerosHabitacion.get(id);
+        }
+    }
+
+    private void escribirVariables(ByteBuffer bloque, int base, Reserva reserva) {
+        bloque.putLong(base + MONTO, Math.round(reserva.getMontoTotal() * 100));
+        bloque.putInt(base + CHECK_IN, (int) reserva.getFechaCheckIn().toEpochDay());
+        bloque.putInt(base + CHECK_OUT, (int) reserva.getFechaCheckOut().toEpochDay());
+        bloque.put(base + ESTADO, (byte) reserva.getEstado().ordinal());
+    }
+
+    private int internar(String numero) throws IOException {
+        Integer id = idsHabitacion.get(numero);
+        if (id != null) {
+            return id;
+        }
+        Files.write(tablaHabitaciones, (numero + "\n").getBytes(StandardCharsets.UTF_8),
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND, StandardOpenOption.SYNC);
+        int nuevo = numerosHabitacion.size();
+        numerosHabitacion.add(numero);
+        idsHabitacion.put(numero, nuevo);
+        return nuevo;
+    }
+
+    private ByteBuffer mapearBloque(int indice) throws IOException {
+        long inicio = TAMANO_CABECERA + (long) indice * REGISTROS_POR_BLOQUE * TAMANO_REGISTRO;
+        return canal.map(FileChannel.MapMode.READ_WRITE, inicio, (long) REGISTROS_POR_BLOQUE * TAMANO_REGISTRO);
+    }
+
+    private void verificarPosicion(long posicion) {
+        if (posicion < 0 || posicion >= cantidad) {
+            throw new IndexOutOfBoundsException("Posición fuera del almacén: " + posicion);
+        }
+    }
+
+    /**
+     * Fuerza los datos a disco y cierra el archivo. Los mapeos se liberan con el recolector.
+     */
+    @Override
+    public void close() throws IOException {
+        sincronizar();
+        canal.close();
+    }
+}
@@ -0,0 +1,180 @@
+package com.hotelreservation.persistence;
+
+import com.hotelreservation.event.EventoReserva;
+import com.hotelreservation.event.TipoEventoReserva;
+import com.hotelreservation.model.Cliente;
+import com.hotelreservation.model.EstadoReserva;
+import com.hotelreservation.model.Habitacion;
+import com.hotelreservation.model.NivelFidelidad;
+import com.hotelreservation.model.Reserva;
+import com.hotelreservation.model.ReservaVIP;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Formato binario de eventos del diario y de reservas de las instantáneas.
+ * SRP: Responsabilidad única de traducir reservas y eventos a bytes y de vuelta.
+ * Los datos del método de pago no se guardan: solo su nombre, para que quien recupera
+ * el estado decida con qué MetodoPago reconstruir cada reserva.
+ * Cada reserva lleva su cotización (nivel de fidelidad, código promocional y subtotal)
+ * al final del registro, para recuperar el mismo precio aunque el cliente cambie de
+ * nivel.
+ */
+final class CodificadorReservas {
+
+    private CodificadorReservas() {
+    }
+
+    /**
+     * Codifica un evento como registro del diario (sin número de secuencia).
+     */
+    static byte[] codificarEvento(EventoReserva evento) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(128);
+        try (DataOutputStream salida = new DataOutputStream(bytes)) {
+            salida.writeByte(evento.getTipo().ordinal());
+            salida.writeLong(evento.getId());
+            switch (evento.getTipo()) {
+                case CREADA:
+                    escribirReserva(salida, evento.getReserva(), evento.getFechaCheckIn(),
+                            evento.getFechaCheckOut(), evento.getEstado(), evento.getMontoTotal(),
+                            evento.getSubtotalCentavos());
+                    break;
+                case FECHAS_CAMBIADAS:
+                    salida.writeLong(evento.getFechaCheckIn().toEpochDay());
+                    salida.writeLong(evento.getFechaCheckOut().toEpochDay());
+                    salida.writeDouble(evento.getMontoTotal());
+                    salida.writeLong(evento.getSubtotalCentavos());
+                    break;
+                case CONFIRMADA:
+                case CANCELADA:
+                    salida.writeByte(evento.getEstado().ordinal());
+                    break;
+                default:
+                    break;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Aplica un registro del diario sobre el estado acumulado.
+     * Cada evento fija valores absolutos, así que reaplicar un evento ya reflejado
+     * en la instantánea no altera el resultado. Las transiciones aplican el estado que
+     * capturó el evento.
+     */
+    static void aplicarEvento(DataInput entrada, Map<Long, RegistroReserva> registros) throws IOException {
+        TipoEventoReserva tipo = TipoEventoReserva.values()[entrada.readByte()];
+        long idReserva = entrada.readLong();
+        RegistroReserva registro = registros.get(idReserva);
+        switch (tipo) {
+            case CREADA:
+                RegistroReserva creado = leerReserva(entrada, idReserva);
+                leerCotizacion(entrada, creado);
+                registros.putIfAbsent(idReserva, creado);
+                break;
+            case CONFIRMADA:
+            case CANCELADA:
+                EstadoReserva estado = EstadoReserva.values()[entrada.readByte()];
+                if (registro != null) {
+                    registro.estado = estado;
+                }
+                break;
+            case FECHAS_CAMBIADAS:
+                LocalDate checkIn = LocalDate.ofEpochDay(entrada.readLong());
+                LocalDate checkOut = LocalDate.ofEpochDay(entrada.readLong());
+                double monto = entrada.readDouble();
+                long subtotal = entrada.readLong();
+                if (registro != null) {
+                    registro.fechaCheckIn = checkIn;
+                    registro.fechaCheckOut = checkOut;
+                    registro.montoTotal = monto;
+                    registro.subtotalCentavos = subtotal;
+                }
+                break;
+            default:
+                break;
+        }
+    }
+
+    /**
+     * Escribe una reserva completa, tal como se guarda en las instantáneas.
+     */
+    static void escribirReserva(DataOutput salida, Reserva reserva) throws IOException {
+        salida.writeLong(reserva.getId());
+        escribirReserva(salida, reserva, reserva.getFechaCheckIn(), reserva.getFechaCheckOut(),
+                reserva.getEstado(), reserva.getMontoTotal(), reserva.getSubtotalCentavos());
+    }
+
+    /**
+     * Lee una reserva completa escrita por {@link #escribirReserva(DataOutput, Reserva)}.
+     */
+    static RegistroReserva leerReserva(DataInput entrada) throws IOException {
+        RegistroReserva registro = leerReserva(entrada, entrada.readLong());
+        leerCotizacion(entrada, registro);
+        return registro;
+    }
+
+    private static void escribirReserva(DataOutput salida, Reserva reserva, LocalDate checkIn,
+                                        LocalDate checkOut, EstadoReserva estado, double monto,
+                                        long subtotalCentavos) throws IOException {
+        Cliente cliente = reserva.getCliente();
+        salida.writeBoolean(reserva instanceof ReservaVIP);
+        salida.writeUTF(cliente.getNombre());
+        salida.writeUTF(cliente.getEmail());
+        salida.writeUTF(cliente.getTelefono());
+        salida.writeUTF(cliente.getNumeroDocumento());
+        List<Habitacion> habitaciones = reserva.getHabitaciones();
+        salida.writeInt(habitaciones.size());
+        for (Habitacion habitacion : habitaciones) {
+            salida.writeUTF(habitacion.getNumero());
+        }
+        salida.writeUTF(reserva.getMetodoPago().getNombreMetodo());
+        salida.writeLong(checkIn.toEpochDay());
+        salida.writeLong(checkOut.toEpochDay());
+        salida.writeByte(estado.ordinal());
+        salida.writeDouble(monto);
+        salida.writeByte(reserva.getNivelFidelidad().ordinal());
+        salida.writeBoolean(reserva.getCodigoPromocional() != null);
+        if (reserva.getCodigoPromocional() != null) {
+            salida.writeUTF(reserva.getCodigoPromocional());
+        }
+        salida.writeLong(subtotalCentavos);
+    }
+
+    private static void leerCotizacion(DataInput entrada, RegistroReserva registro) throws IOException {
+        registro.nivelFidelidad = NivelFidelidad.values()[entrada.readByte()];
+        registro.codigoPromocional = entrada.readBoolean() ? entrada.readUTF() : null;
+        registro.subtotalCentavos = entrada.readLong();
+    }
+
+    private static RegistroReserva leerReserva(DataInput entrada, long idReserva) throws IOException {
+        boolean vip = entrada.readBoolean();
+        String nombre = entrada.readUTF();
+        String email = entrada.readUTF();
+        String telefono = entrada.readUTF();
+        String documento = entrada.readUTF();
+        int cantidad = entrada.readInt();
+        List<String> numeros = new ArrayList<>(cantidad);
+        for (int i = 0; i < cantidad; i++) {
+            numeros.add(entrada.readUTF());
+        }
+        String metodoPago = entrada.readUTF();
+        LocalDate checkIn = LocalDate.ofEpochDay(entrada.readLong());
+        LocalDate checkOut = LocalDate.ofEpochDay(entrada.readLong());
+        EstadoReserva estado = EstadoReserva.values()[entrada.readByte()];
+        double monto = entrada.readDouble();
+        return new RegistroReserva(idReserva, vip, nombre, email, telefono, documento, numeros,
+                metodoPago, checkIn, checkOut, estado, monto);
+    }
+}
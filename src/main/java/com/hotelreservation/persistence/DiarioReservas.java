@@ -0,0 +1,321 @@
+package com.hotelreservation.persistence;
+
+import com.hotelreservation.event.EventoReserva;
+import com.hotelreservation.event.ObservadorReservas;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Diario de solo anexado con los eventos de las reservas.
+ * SRP: Responsabilidad única de hacer duraderos los eventos en el orden en que ocurrieron.
+ * Quien publica un evento solo lo codifica y lo encola; un único hilo escritor toma todo
+ * lo acumulado, lo escribe y hace un solo fsync por lote (group commit). Así la
+ * durabilidad no serializa a los escritores detrás de un fsync por evento.
+ * El diario se divide en segmentos {@code diario-<primera secuencia>.log}; cada registro
+ * lleva su longitud, su número de secuencia y un CRC para detectar una cola truncada.
+ * Si el escritor no puede escribir, el diario queda fallado para siempre: cada
+ * {@link #notificar(EventoReserva)} y {@link #esperarPersistencia()} posterior lo informa,
+ * en lugar de aceptar eventos que ya no serían duraderos.
+ */
+public class DiarioReservas implements ObservadorReservas, AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(DiarioReservas.class);
+    private static final String PREFIJO = "diario-";
+    private static final String EXTENSION = ".log";
+    private static final int MAXIMO_LOTE = 4096;
+
+    private final Path directorio;
+    private final BlockingQueue<Pendiente> cola;
+    private final Thread escritor;
+    private final Object monitorPersistencia;
+    private long ultimaSecuencia;
+    private volatile long secuenciaPersistida;
+    private volatile boolean abierto;
+    private volatile boolean rotacionSolicitada;
+    private volatile IOException falla;
+    private FileChannel segmento;
+
+    /**
+     * Abre el diario para anexar eventos a partir de la secuencia indicada.
+     * Siempre empieza un segmento nuevo, de modo que nunca se escribe detrás de una cola truncada.
+     */
+    public DiarioReservas(Path directorio, long siguienteSecuencia) throws IOException {
+        Files.createDirectories(directorio);
+        this.directorio = directorio;
+        this.cola = new LinkedBlockingQueue<>();
+        this.monitorPersistencia = new Object();
+        this.ultimaSecuencia = siguienteSecuencia - 1;
+        this.secuenciaPersistida = siguienteSecuencia - 1;
+        this.segmento = abrirSegmento(siguienteSecuencia);
+        this.abierto = true;
+        this.escritor = new Thread(this::escribirLotes, "diario-reservas");
+        this.escritor.setDaemon(true);
+        this.escritor.start();
+    }
+
+    /**
+     * Encola el evento para escribirlo en el próximo lote. No espera al disco.
+     * @throws IllegalStateException Si el diario está cerrado o el escritor falló.
+     */
+    @Override
+    public void notificar(EventoReserva evento) {
+        byte[] datos = CodificadorReservas.codificarEvento(evento);
+        // La secuencia se asigna en el mismo orden en que se encola
+        synchronized (cola) {
+            verificarFalla();
+            if (!abierto) {
+                throw new IllegalStateException("El diario de reservas está cerrado");
+            }
+            cola.add(new Pendiente(++ultimaSecuencia, datos));
+        }
+    }
+
+    /**
+     * Es crítico: si el diario no acepta un evento, quien hizo el cambio debe enterarse de
+     * que no será duradero.
+     */
+    @Override
+    public boolean esCritico() {
+        return true;
+    }
+
+    /**
+     * Última secuencia asignada a un evento encolado.
+     */
+    public long getUltimaSecuencia() {
+        synchronized (cola) {
+            return ultimaSecuencia;
+        }
+    }
+
+    /**
+     * Bloquea hasta que todos los eventos encolados antes de la llamada estén en disco.
+     * @throws IOException Si el escritor falló antes de escribirlos.
+     */
+    public void esperarPersistencia() throws IOException, InterruptedException {
+        long objetivo = getUltimaSecuencia();
+        synchronized (monitorPersistencia) {
+            while (secuenciaPersistida < objetivo) {
+                IOException error = falla;
+                if (error != null) {
+                    throw new IOException("El diario de reservas falló; los eventos no son duraderos", error);
+                }
+                if (!escritor.isAlive()) {
+                    throw new IllegalStateException("El escritor del diario se detuvo");
+                }
+                monitorPersistencia.wait(100);
+            }
+        }
+    }
+
+    /**
+     * Pide que el siguiente lote empiece un segmento nuevo, para que los segmentos
+     * anteriores puedan borrarse una vez cubiertos por una instantánea.
+     */
+    public void solicitarRotacion() {
+        rotacionSolicitada = true;
+    }
+
+    /**
+     * Borra los segmentos cuyos eventos son todos anteriores o iguales a la secuencia indicada.
+     * Nunca borra el último segmento.
+     */
+    public void descartarHasta(long secuencia) throws IOException {
+        List<Path> segmentos = listarSegmentos(directorio);
+        for (int i = 0; i < segmentos.size() - 1; i++) {
+            if (primeraSecuencia(segmentos.get(i + 1)) - 1 <= secuencia) {
+                Files.deleteIfExists(segmentos.get(i));
+            }
+        }
+    }
+
+    private void escribirLotes() {
+        List<Pendiente> lote = new ArrayList<>();
+        try {
+            while (abierto || !cola.isEmpty()) {
+                Pendiente primero = cola.poll(50, TimeUnit.MILLISECONDS);
+                if (primero == null) {
+                    continue;
+                }
+                lote.add(primero);
+                cola.drainTo(lote, MAXIMO_LOTE - 1);
+                if (rotacionSolicitada) {
+                    rotacionSolicitada = false;
+                    segmento.close();
+                    segmento = abrirSegmento(primero.secuencia);
+                }
+                escribir(lote);
+                lote.clear();
+            }
+            segmento.close();
+        } catch (IOException e) {
+            logger.error("Error al escribir el diario de reservas: {}", e.getMessage());
+            falla = e;
+            synchronized (monitorPersistencia) {
+                monitorPersistencia.notifyAll();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void escribir(List<Pendiente> lote) throws IOException {
+        int tamano = 0;
+        for (Pendiente pendiente : lote) {
+            tamano += 16 + pendiente.datos.length;
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(tamano);
+        CRC32C crc = new CRC32C();
+        for (Pendiente pendiente : lote) {
+            int inicio = buffer.position();
+            buffer.putInt(pendiente.datos.length);
+            buffer.putLong(pendiente.secuencia);
+            buffer.put(pendiente.datos);
+            crc.reset();
+            crc.update(buffer.array(), inicio + 4, 8 + pendiente.datos.length);
+            buffer.putInt((int) crc.getValue());
+        }
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            segmento.write(buffer);
+        }
+        segmento.force(false);
+
+        synchronized (monitorPersistencia) {
+            secuenciaPersistida = lote.get(lote.size() - 1).secuencia;
+            monitorPersistencia.notifyAll();
+        }
+    }
+
+    private FileChannel abrirSegmento(long primeraSecuencia) throws IOException {
+        Path archivo = directorio.resolve(String.format("%s%020d%s", PREFIJO, primeraSecuencia, EXTENSION));
+        return FileChannel.open(archivo, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND);
+    }
+
+    /**
+     * Espera a que se escriba todo lo encolado y cierra el diario.
+     * Si el hilo que cierra es interrumpido, igual espera al escritor y conserva la interrupción.
+     * @throws IOException Si el escritor falló y hubo eventos que no llegaron a disco.
+     */
+    @Override
+    public void close() throws IOException {
+        synchronized (cola) {
+            abierto = false;
+        }
+        boolean interrumpido = false;
+        while (escritor.isAlive()) {
+            try {
+                escritor.join();
+            } catch (InterruptedException e) {
+                interrumpido = true;
+            }
+        }
+        if (interrumpido) {
+            Thread.currentThread().interrupt();
+        }
+        IOException error = falla;
+        if (error != null) {
+            throw new IOException("El diario de reservas falló; los eventos no son duraderos", error);
+        }
+    }
+
+    private void verificarFalla() {
+        IOException error = falla;
+        if (error != null) {
+            throw new IllegalStateException("El diario de reservas falló; los eventos no son duraderos", error);
+        }
+    }
+
+    /**
+     * Aplica sobre los registros los eventos del diario con secuencia mayor a la indicada.
+     * Un registro incompleto o corrupto al final del último segmento se interpreta como
+     * una escritura interrumpida y termina la lectura.
+     * @return Última secuencia leída, o {@code desdeSecuencia} si no hay eventos posteriores.
+     */
+    static long reproducir(Path directorio, long desdeSecuencia,
+                           Map<Long, RegistroReserva> registros) throws IOException {
+        long ultima = desdeSecuencia;
+        if (!Files.isDirectory(directorio)) {
+            return ultima;
+        }
+        CRC32C crc = new CRC32C();
+        for (Path archivo : listarSegmentos(directorio)) {
+            ByteBuffer contenido = ByteBuffer.wrap(Files.readAllBytes(archivo));
+            while (contenido.remaining() >= 16) {
+                int inicio = contenido.position();
+                int longitud = contenido.getInt();
+                if (longitud < 0 || contenido.remaining() < 12 + longitud) {
+                    logger.warn("Registro incompleto al final de {}", archivo.getFileName());
+                    break;
+                }
+                long secuencia = contenido.getLong();
+                byte[] datos = new byte[longitud];
+                contenido.get(datos);
+                int esperado = contenido.getInt();
+                crc.reset();
+                crc.update(contenido.array(), inicio + 4, 8 + longitud);
+                if ((int) crc.getValue() != esperado) {
+                    logger.warn("Registro corrupto en {}, secuencia {}", archivo.getFileName(), secuencia);
+                    break;
+                }
+                if (secuencia > desdeSecuencia) {
+                    CodificadorReservas.aplicarEvento(
+                            new DataInputStream(new ByteArrayInputStream(datos)), registros);
+                    ultima = Math.max(ultima, secuencia);
+                }
+            }
+        }
+        return ultima;
+    }
+
+    private static List<Path> listarSegmentos(Path directorio) throws IOException {
+        try (Stream<Path> archivos = Files.list(directorio)) {
+            return archivos
+                    .filter(p -> {
+                        String nombre = p.getFileName().toString();
+                        return nombre.startsWith(PREFIJO) && nombre.endsWith(EXTENSION);
+                    })
+                    .sorted()
+                    .collect(Collectors.toList());
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private static long primeraSecuencia(Path segmento) {
+        String nombre = segmento.getFileName().toString();
+        return Long.parseLong(nombre.substring(PREFIJO.length(), nombre.length() - EXTENSION.length()));
+    }
+
+    /**
+     * Evento codificado a la espera del escritor.
+     */
+    private static final class Pendiente {
+        private final long secuencia;
+        private final byte[] datos;
+
+        private Pendiente(long secuencia, byte[] datos) {
+            this.secuencia = secuencia;
+            this.datos = datos;
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package com.hotelreservation.persistence;
+
+import com.hotelreservation.model.Cliente;
+import com.hotelreservation.model.Habitacion;
+import com.hotelreservation.model.IdReserva;
+import com.hotelreservation.model.Reserva;
+import com.hotelreservation.model.ReservaVIP;
+import com.hotelreservation.payment.MetodoPago;
+import com.hotelreservation.service.GestorReservas;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Persistencia de las reservas de un GestorReservas en un directorio.
+ * SRP: Responsabilidad única de recuperar el estado al arrancar y mantenerlo en disco.
+ * Al abrir, carga la instantánea más reciente, reproduce solo la cola del diario posterior
+ * a ella y suscribe el diario al gestor. Las instantáneas periódicas permiten descartar
+ * los segmentos del diario que ya cubren.
+ * Las habitaciones no se persisten: deben registrarse en el gestor antes de abrir.
+ */
+public class PersistenciaReservas implements AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(PersistenciaReservas.class);
+    private final GestorReservas gestor;
+    private final DiarioReservas diario;
+    private final AlmacenInstantaneas instantaneas;
+    private final ScheduledExecutorService programador;
+
+    private PersistenciaReservas(GestorReservas gestor, DiarioReservas diario,
+                                 AlmacenInstantaneas instantaneas) {
+        this.gestor = gestor;
+        this.diario = diario;
+        this.instantaneas = instantaneas;
+        this.programador = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread hilo = new Thread(r, "instantaneas-reservas");
+            hilo.setDaemon(true);
+            return hilo;
+        });
+    }
+
+    /**
+     * Recupera las reservas guardadas en el directorio dentro del gestor y empieza a registrar
+     * sus cambios.
+     * @param resolverMetodoPago Reconstruye el método de pago de una reserva a partir de su
+     *                           nombre, ya que los datos de pago no se guardan en disco.
+     * @param intervaloInstantaneas Cada cuánto tomar una instantánea.
+     */
+    public static PersistenciaReservas abrir(Path directorio, GestorReservas gestor,
+                                             Function<String, MetodoPago> resolverMetodoPago,
+                                             Duration intervaloInstantaneas) throws IOException {
+        AlmacenInstantaneas instantaneas = new AlmacenInstantaneas(directorio);
+        Map<Long, RegistroReserva> registros = new LinkedHashMap<>();
+        long desde = instantaneas.cargar(registros);
+        long ultima = DiarioReservas.reproducir(directorio, desde, registros);
+
+        // Las reservas se materializan al final: el estado intermedio de una instantánea
+        // tomada en caliente puede no ser coherente hasta aplicar la cola del diario
+        for (RegistroReserva registro : registros.values()) {
+            materializar(registro, gestor, resolverMetodoPago);
+        }
+        logger.info("Reservas recuperadas: {} (instantánea {}, diario hasta {})",
+                registros.size(), desde, ultima);
+
+        PersistenciaReservas persistencia = new PersistenciaReservas(gestor,
+                new DiarioReservas(directorio, ultima + 1), instantaneas);
+        gestor.agregarObservador(persistencia.diario);
+        long periodo = intervaloInstantaneas.toMillis();
+        persistencia.programador.scheduleWithFixedDelay(persistencia::tomarInstantaneaSegura,
+                periodo, periodo, TimeUnit.MILLISECONDS);
+        return persistencia;
+    }
+
+    /**
+     * Toma una instantánea de todas las reservas y descarta los segmentos del diario cubiertos.
+     */
+    public void tomarInstantanea() throws IOException {
+        // La secuencia se lee antes de recorrer las reservas: todo evento hasta ella ya
+        // modificó su reserva, y los posteriores se reaplican sin efecto al recuperar
+        long secuencia = diario.getUltimaSecuencia();
+        diario.solicitarRotacion();
+        instantaneas.guardar(secuencia, gestor.obtenerTodasLasReservas());
+        diario.descartarHasta(secuencia);
+    }
+
+    /**
+     * Bloquea hasta que todos los eventos registrados hasta ahora estén en disco.
+     * @throws IOException Si el diario falló antes de escribirlos.
+     */
+    public void esperarPersistencia() throws IOException, InterruptedException {
+        diario.esperarPersistencia();
+    }
+
+    private void tomarInstantaneaSegura() {
+        try {
+            tomarInstantanea();
+        } catch (IOException | RuntimeException e) {
+            logger.error("Error al tomar la instantánea de reservas: {}", e.getMessage());
+        }
+    }
+
+    private static void materializar(RegistroReserva registro, GestorReservas gestor,
+                                     Function<String, MetodoPago> resolverMetodoPago) {
+        List<Habitacion> habitaciones = new ArrayList<>();
+        for (String numero : registro.numerosHabitacion) {
+            Optional<Habitacion> habitacion = gestor.obtenerHabitacionPorNumero(numero);
+            if (!habitacion.isPresent()) {
+                logger.warn("Reserva {} omitida: habitación {} no registrada",
+                        IdReserva.formatear(registro.idReserva), numero);
+                return;
+            }
+            habitaciones.add(habitacion.get());
+        }
+        Cliente cliente = new Cliente(registro.nombreCliente, registro.emailCliente,
+                registro.telefonoCliente, registro.documentoCliente);
+        // La reserva toma del cliente el nivel con que se cotizó
+        cliente.setNivelFidelidad(registro.nivelFidelidad);
+        MetodoPago metodoPago = resolverMetodoPago.apply(registro.metodoPago);
+
+        // El monto restaurado ya incluye los descuentos; las reglas solo se usan si cambian las fechas
+        Reserva reserva = registro.vip
+                ? new ReservaVIP(registro.idReserva, cliente, habitaciones, registro.fechaCheckIn,
+                        registro.fechaCheckOut, metodoPago, gestor.getTarifas(), gestor.getReglasPrecio(),
+                        registro.codigoPromocional)
+                : new Reserva(registro.idReserva, cliente, habitaciones, registro.fechaCheckIn,
+                        registro.fechaCheckOut, metodoPago, gestor.getTarifas(), gestor.getReglasPrecio(),
+                        registro.codigoPromocional);
+        reserva.restaurar(registro.estado, registro.montoTotal, registro.subtotalCentavos);
+        gestor.restaurarReserva(reserva);
+    }
+
+    /**
+     * Detiene las instantáneas periódicas y cierra el diario tras escribir lo pendiente.
+     * @throws IOException Si el diario falló y hubo eventos que no llegaron a disco.
+     */
+    @Override
+    public void close() throws IOException {
+        programador.shutdown();
+        try {
+            programador.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        gestor.quitarObservador(diario);
+        diario.close();
+    }
+}
@@ -0,0 +1,48 @@
+package com.hotelreservation.persistence;
+
+import com.hotelreservation.model.EstadoReserva;
+import com.hotelreservation.model.NivelFidelidad;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Datos persistidos de una reserva, independientes de los objetos del modelo.
+ * SRP: Responsabilidad única de acumular el estado de una reserva durante la recuperación.
+ */
+class RegistroReserva {
+    final long idReserva;
+    final boolean vip;
+    final String nombreCliente;
+    final String emailCliente;
+    final String telefonoCliente;
+    final String documentoCliente;
+    final List<String> numerosHabitacion;
+    final String metodoPago;
+    LocalDate fechaCheckIn;
+    LocalDate fechaCheckOut;
+    EstadoReserva estado;
+    double montoTotal;
+    // Cotización con que se creó la reserva
+    NivelFidelidad nivelFidelidad;
+    String codigoPromocional;
+    long subtotalCentavos;
+
+    RegistroReserva(long idReserva, boolean vip, String nombreCliente, String emailCliente,
+                    String telefonoCliente, String documentoCliente, List<String> numerosHabitacion,
+                    String metodoPago, LocalDate fechaCheckIn, LocalDate fechaCheckOut,
+                    EstadoReserva estado, double montoTotal) {
+        this.idReserva = idReserva;
+        this.vip = vip;
+        this.nombreCliente = nombreCliente;
+        this.emailCliente = emailCliente;
+        this.telefonoCliente = telefonoCliente;
+        this.documentoCliente = documentoCliente;
+        this.numerosHabitacion = numerosHabitacion;
+        this.metodoPago = metodoPago;
+        this.fechaCheckIn = fechaCheckIn;
+        this.fechaCheckOut = fechaCheckOut;
+        this.estado = estado;
+        this.montoTotal = montoTotal;
+    }
+}
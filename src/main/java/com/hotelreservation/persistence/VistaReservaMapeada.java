@@ -0,0 +1,101 @@
+package com.hotelreservation.persistence;
+
+import com.hotelreservation.model.EstadoReserva;
+import com.hotelreservation.model.IdReserva;
+
+import java.nio.ByteBuffer;
+import java.time.LocalDate;
+
+/**
+ * Vista de peso ligero sobre un registro de AlmacenReservasMapeado.
+ * SRP: Responsabilidad única de leer los campos de una reserva directamente del mapeo.
+ * Una misma vista se reposiciona sobre distintos registros, así que recorrer millones
+ * de reservas no crea objetos. Los métodos que devuelven {@code String} o {@code LocalDate}
+ * sí crean el objeto y están pensados solo para mostrar.
+ */
+public class VistaReservaMapeada {
+    private final AlmacenReservasMapeado almacen;
+    private ByteBuffer bloque;
+    private int base;
+    private long posicion = -1;
+
+    VistaReservaMapeada(AlmacenReservasMapeado almacen) {
+        this.almacen = almacen;
+    }
+
+    void posicionar(long posicion, ByteBuffer bloque, int base) {
+        this.posicion = posicion;
+        this.bloque = bloque;
+        this.base = base;
+    }
+
+    public long getPosicion() {
+        return posicion;
+    }
+
+    public long getId() {
+        return bloque.getLong(base + AlmacenReservasMapeado.ID);
+    }
+
+    public String getIdReserva() {
+        return IdReserva.formatear(getId());
+    }
+
+    public int getDiaCheckIn() {
+        return bloque.getInt(base + AlmacenReservasMapeado.CHECK_IN);
+    }
+
+    public int getDiaCheckOut() {
+        return bloque.getInt(base + AlmacenReservasMapeado.CHECK_OUT);
+    }
+
+    public LocalDate getFechaCheckIn() {
+        return LocalDate.ofEpochDay(getDiaCheckIn());
+    }
+
+    public LocalDate getFechaCheckOut() {
+        return LocalDate.ofEpochDay(getDiaCheckOut());
+    }
+
+    public long getMontoCentavos() {
+        return bloque.getLong(base + AlmacenReservasMapeado.MONTO);
+    }
+
+    public double getMontoTotal() {
+        return getMontoCentavos() / 100.0;
+    }
+
+    public EstadoReserva getEstado() {
+        return AlmacenReservasMapeado.ESTADOS[bloque.get(base + AlmacenReservasMapeado.ESTADO)];
+    }
+
+    public boolean esVip() {
+        return bloque.get(base + AlmacenReservasMapeado.VIP) != 0;
+    }
+
+    public int getCantidadHabitaciones() {
+        return bloque.get(base + AlmacenReservasMapeado.CANTIDAD_HABITACIONES);
+    }
+
+    /**
+     * ID interno de la i-ésima habitación, según la tabla de habitaciones del almacén.
+     */
+    public int getIdHabitacion(int indice) {
+        if (indice < 0 || indice >= getCantidadHabitaciones()) {
+            throw new IndexOutOfBoundsException("Habitación fuera de rango: " + indice);
+        }
+        return bloque.getInt(base + AlmacenReservasMapeado.HABITACIONES + indice * Integer.BYTES);
+    }
+
+    public String getNumeroHabitacion(int indice) {
+        return almacen.numeroHabitacion(getIdHabitacion(indice));
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Reserva ID: %s | Habitaciones: %d | Check-in: %s | Check-out: %s | " +
+                        "Estado: %s | Total: $%.2f%s",
+                getIdReserva(), getCantidadHabitaciones(), getFechaCheckIn(), getFechaCheckOut(),
+                getEstado(), getMontoTotal(), esVip() ? " [VIP]" : "");
+    }
+}
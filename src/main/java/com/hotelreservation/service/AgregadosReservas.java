@@ -0,0 +1,191 @@
+package com.hotelreservation.service;
+
+import com.hotelreservation.model.EstadoReserva;
+import com.hotelreservation.model.Habitacion;
+import com.hotelreservation.model.Reserva;
+import com.hotelreservation.model.TablaTarifas;
+import com.hotelreservation.model.TipoHabitacion;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Totales de ingresos y ocupación mantenidos en cada cambio de una reserva.
+ * SRP: Responsabilidad única de acumular las cifras que consultan los tableros.
+ * Cada cambio resta la contribución anterior de la reserva y suma la nueva, así que
+ * leer un total es O(1) y no recorre reservas. Los acumuladores de ingresos y cantidades
+ * son LongAdder: las reservas que se escriben a la vez no compiten por la misma celda,
+ * y leer no bloquea.
+ * Cada cifra es exacta por sí sola; dos cifras leídas por separado pueden reflejar
+ * momentos distintos mientras hay cambios en curso.
+ * No se guarda nada por reserva: el gestor agrega cada reserva antes de publicarla y
+ * contabiliza cada transición en la misma sección crítica que la hace, con el monitor de
+ * la reserva tomado, así que el estado actual de la reserva es siempre el contabilizado
+ * y quien la cambia conoce el anterior.
+ * La ocupación por noche vive en un arreglo de contadores indexado por día sobre el
+ * calendario de la tabla de tarifas, sin objetos por noche. Las noches fuera de ese
+ * calendario van a una tabla que borra cada noche cuando vuelve a cero, así que no crece
+ * con las fechas que ya no tienen reservas.
+ * Los métodos que modifican deben invocarse con el monitor de la reserva tomado.
+ */
+class AgregadosReservas {
+    private static final EstadoReserva[] ESTADOS = EstadoReserva.values();
+    private static final TipoHabitacion[] TIPOS = TipoHabitacion.values();
+
+    // Ingresos en centavos por estado y tipo: [estado * TIPOS.length + tipo]
+    private final LongAdder[] ingresos;
+    private final LongAdder[] cantidadPorEstado;
+    // Habitaciones ocupadas por noche; las canceladas no ocupan
+    private final long diaInicio;
+    private final AtomicLongArray ocupacion;
+    // Noches fuera del calendario (día desde la época) con alguna habitación ocupada
+    private final Map<Long, Long> ocupacionFuera;
+
+    /**
+     * @param tarifas Su calendario fija las noches que se cuentan en el arreglo.
+     */
+    AgregadosReservas(TablaTarifas tarifas) {
+        this.ingresos = new LongAdder[ESTADOS.length * TIPOS.length];
+        for (int i = 0; i < ingresos.length; i++) {
+            ingresos[i] = new LongAdder();
+        }
+        this.cantidadPorEstado = new LongAdder[ESTADOS.length];
+        for (int i = 0; i < cantidadPorEstado.length; i++) {
+            cantidadPorEstado[i] = new LongAdder();
+        }
+        this.diaInicio = tarifas.getInicio().toEpochDay();
+        this.ocupacion = new AtomicLongArray(Math.toIntExact(tarifas.getFin().toEpochDay() - diaInicio));
+        this.ocupacionFuera = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Suma una reserva nueva o recuperada.
+     */
+    void agregar(Reserva reserva) {
+        aplicar(reserva.getEstado(), reserva.getHabitaciones(), reserva.getFechaCheckIn(),
+                reserva.getFechaCheckOut(), reserva.getMontoTotal(), 1);
+    }
+
+    /**
+     * Traslada la contribución de la reserva desde el estado anterior a la transición al actual.
+     */
+    void actualizarEstado(Reserva reserva, EstadoReserva estadoAnterior) {
+        if (reserva.getEstado() == estadoAnterior) {
+            return;
+        }
+        List<Habitacion> habitaciones = reserva.getHabitaciones();
+        aplicar(estadoAnterior, habitaciones, reserva.getFechaCheckIn(), reserva.getFechaCheckOut(),
+                reserva.getMontoTotal(), -1);
+        aplicar(reserva.getEstado(), habitaciones, reserva.getFechaCheckIn(), reserva.getFechaCheckOut(),
+                reserva.getMontoTotal(), 1);
+    }
+
+    /**
+     * Reemplaza la contribución de las fechas y el monto anteriores por los actuales.
+     * Los ingresos cambian por la diferencia de monto y la ocupación solo en las noches
+     * que se agregaron o se quitaron, así que el costo depende de las noches cambiadas.
+     */
+    void cambiarFechas(Reserva reserva, LocalDate checkInAnterior, LocalDate checkOutAnterior,
+                       double montoAnterior) {
+        EstadoReserva estado = reserva.getEstado();
+        List<Habitacion> habitaciones = reserva.getHabitaciones();
+        aplicarIngresos(estado, habitaciones, montoAnterior, -1);
+        aplicarIngresos(estado, habitaciones, reserva.getMontoTotal(), 1);
+        if (estado == EstadoReserva.CANCELADA) {
+            return;
+        }
+        long anteriorDesde = checkInAnterior.toEpochDay();
+        long anteriorHasta = checkOutAnterior.toEpochDay();
+        long desde = reserva.getFechaCheckIn().toEpochDay();
+        long hasta = reserva.getFechaCheckOut().toEpochDay();
+        int cantidad = habitaciones.size();
+        if (hasta <= anteriorDesde || desde >= anteriorHasta) {
+            aplicarOcupacion(anteriorDesde, anteriorHasta, -cantidad);
+            aplicarOcupacion(desde, hasta, cantidad);
+        } else {
+            // Cada extremo que se movió hacia afuera suma noches; hacia adentro, las quita
+            aplicarOcupacion(desde, anteriorDesde, cantidad);
+            aplicarOcupacion(anteriorDesde, desde, -cantidad);
+            aplicarOcupacion(anteriorHasta, hasta, cantidad);
+            aplicarOcupacion(hasta, anteriorHasta, -cantidad);
+        }
+    }
+
+    double ingresos(EstadoReserva estado) {
+        long centavos = 0;
+        int fila = estado.ordinal() * TIPOS.length;
+        for (int tipo = 0; tipo < TIPOS.length; tipo++) {
+            centavos += ingresos[fila + tipo].sum();
+        }
+        return centavos / 100.0;
+    }
+
+    double ingresos(EstadoReserva estado, TipoHabitacion tipo) {
+        return ingresos[estado.ordinal() * TIPOS.length + tipo.ordinal()].sum() / 100.0;
+    }
+
+    long cantidad(EstadoReserva estado) {
+        return cantidadPorEstado[estado.ordinal()].sum();
+    }
+
+    long ocupacion(LocalDate noche) {
+        long indice = noche.toEpochDay() - diaInicio;
+        if (indice >= 0 && indice < ocupacion.length()) {
+            return ocupacion.get((int) indice);
+        }
+        return ocupacionFuera.getOrDefault(noche.toEpochDay(), 0L);
+    }
+
+    /**
+     * Suma (signo 1) o resta (signo -1) la contribución de una reserva.
+     */
+    private void aplicar(EstadoReserva estado, List<Habitacion> habitaciones, LocalDate checkIn,
+                         LocalDate checkOut, double monto, int signo) {
+        cantidadPorEstado[estado.ordinal()].add(signo);
+        aplicarIngresos(estado, habitaciones, monto, signo);
+        if (estado != EstadoReserva.CANCELADA) {
+            aplicarOcupacion(checkIn.toEpochDay(), checkOut.toEpochDay(), signo * (long) habitaciones.size());
+        }
+    }
+
+    /**
+     * Reparte el monto entre las habitaciones en proporción a su precio base; la última
+     * habitación recibe el redondeo, de modo que restar deshace exactamente lo sumado.
+     */
+    private void aplicarIngresos(EstadoReserva estado, List<Habitacion> habitaciones, double monto, int signo) {
+        long centavos = Math.round(monto * 100);
+        double pesoTotal = 0;
+        for (int i = 0; i < habitaciones.size(); i++) {
+            pesoTotal += habitaciones.get(i).getTipo().getPrecioBase();
+        }
+        int fila = estado.ordinal() * TIPOS.length;
+        long repartido = 0;
+        for (int i = 0; i < habitaciones.size(); i++) {
+            TipoHabitacion tipo = habitaciones.get(i).getTipo();
+            long parte = i == habitaciones.size() - 1
+                    ? centavos - repartido
+                    : Math.round(centavos * (tipo.getPrecioBase() / pesoTotal));
+            repartido += parte;
+            ingresos[fila + tipo.ordinal()].add(signo * parte);
+        }
+    }
+
+    /**
+     * Suma las habitaciones indicadas a cada noche de [desde, hasta); no hace nada si el rango está vacío.
+     */
+    private void aplicarOcupacion(long desde, long hasta, long habitaciones) {
+        for (long dia = desde; dia < hasta; dia++) {
+            long indice = dia - diaInicio;
+            if (indice >= 0 && indice < ocupacion.length()) {
+                ocupacion.getAndAdd((int) indice, habitaciones);
+            } else {
+                ocupacionFuera.merge(dia, habitaciones,
+                        (actual, cambio) -> actual + cambio == 0 ? null : actual + cambio);
+            }
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.hotelreservation.service;
+
+import com.hotelreservation.model.Habitacion;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Bloqueos por habitación repartidos en franjas (lock striping).
+ * SRP: Responsabilidad única de serializar los cambios sobre las mismas habitaciones.
+ * Las operaciones sobre habitaciones distintas caen, en general, en franjas distintas
+ * y avanzan en paralelo. Las franjas de una reserva con varias habitaciones se toman
+ * siempre en orden ascendente, de modo que dos reservas nunca se bloquean mutuamente.
+ */
+public class BloqueoHabitaciones {
+    private static final int FRANJAS_POR_DEFECTO = 1024;
+    private final ReentrantLock[] franjas;
+    private final int mascara;
+
+    public BloqueoHabitaciones() {
+        this(FRANJAS_POR_DEFECTO);
+    }
+
+    public BloqueoHabitaciones(int franjasMinimas) {
+        if (franjasMinimas <= 0) {
+            throw new IllegalArgumentException("El número de franjas debe ser positivo");
+        }
+        int cantidad = Integer.highestOneBit(franjasMinimas);
+        if (cantidad < franjasMinimas) {
+            cantidad <<= 1;
+        }
+        this.franjas = new ReentrantLock[cantidad];
+        for (int i = 0; i < cantidad; i++) {
+            franjas[i] = new ReentrantLock();
+        }
+        this.mascara = cantidad - 1;
+    }
+
+    /**
+     * Bloquea las franjas de todas las habitaciones en orden ascendente.
+     * @return Franjas tomadas, que deben entregarse luego a {@link #desbloquear(int[])}.
+     */
+    public int[] bloquear(List<Habitacion> habitaciones) {
+        int[] indices = new int[habitaciones.size()];
+        for (int i = 0; i < indices.length; i++) {
+            indices[i] = franja(habitaciones.get(i).getNumero());
+        }
+        Arrays.sort(indices);
+
+        // Eliminar franjas repetidas para no bloquear dos veces la misma
+        int distintas = 0;
+        for (int i = 0; i < indices.length; i++) {
+            if (i == 0 || indices[i] != indices[i - 1]) {
+                indices[distintas++] = indices[i];
+            }
+        }
+        int[] tomadas = Arrays.copyOf(indices, distintas);
+
+        for (int i = 0; i < tomadas.length; i++) {
+            franjas[tomadas[i]].lock();
+        }
+        return tomadas;
+    }
+
+    /**
+     * Libera las franjas tomadas por {@link #bloquear(List)}.
+     */
+    public void desbloquear(int[] tomadas) {
+        for (int i = tomadas.length - 1; i >= 0; i--) {
+            franjas[tomadas[i]].unlock();
+        }
+    }
+
+    private int franja(String numero) {
+        int h = numero.hashCode();
+        return (h ^ (h >>> 16)) & mascara;
+    }
+}
@@ -0,0 +1,172 @@
+package com.hotelreservation.service;
+
+import com.hotelreservation.model.Habitacion;
+import com.hotelreservation.model.TablaTarifas;
+import com.hotelreservation.model.TipoHabitacion;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Motor de búsqueda de habitaciones libres para inventarios grandes.
+ * SRP: Responsabilidad única de encontrar las K habitaciones libres más baratas.
+ * Recorre las filas de cada tipo de {@link InventarioColumnar}, el registro único de
+ * habitaciones, y decide con su bit de habilitación y sus estancias, sin consultar
+ * ninguna Habitacion. Como la tarifa depende solo del tipo y la noche, cada tipo se
+ * cotiza una única vez por búsqueda: los que superan el precio máximo se descartan sin
+ * mirar sus habitaciones, y los demás se recorren del más barato al más caro hasta
+ * juntar K resultados.
+ * Dentro de un tipo, los tramos se revisan en paralelo con fork/join. Cada tramo
+ * devuelve a lo sumo las K primeras habitaciones libres que encuentra y, si el tramo
+ * izquierdo ya juntó K, el derecho se descarta antes de empezar cuando aún no fue robado.
+ * Toda la búsqueda lee una misma instantánea del inventario, así que no bloquea a quien
+ * registra habitaciones ni a quien cambia su habilitación.
+ */
+class BuscadorHabitaciones {
+    private static final TipoHabitacion[] TIPOS = TipoHabitacion.values();
+    // Habitaciones por tramo por debajo del cual un tramo se revisa en el hilo actual
+    private static final int UMBRAL_TRAMO = 4096;
+
+    private final InventarioColumnar inventario;
+    private final ForkJoinPool pool;
+
+    BuscadorHabitaciones(InventarioColumnar inventario) {
+        this(inventario, ForkJoinPool.commonPool());
+    }
+
+    BuscadorHabitaciones(InventarioColumnar inventario, ForkJoinPool pool) {
+        this.inventario = inventario;
+        this.pool = pool;
+    }
+
+    /**
+     * Busca las habitaciones libres más baratas que cumplen la consulta, ordenadas por monto.
+     * A igual monto se respeta el orden de registro.
+     */
+    List<HabitacionCotizada> buscar(ConsultaDisponibilidad consulta, TablaTarifas tarifas) {
+        long diaCheckIn = consulta.getFechaCheckIn().toEpochDay();
+        long diaCheckOut = consulta.getFechaCheckOut().toEpochDay();
+        long maximoCentavos = consulta.getPrecioMaximo() >= Long.MAX_VALUE / 100.0
+                ? Long.MAX_VALUE
+                : (long) Math.floor(consulta.getPrecioMaximo() * 100);
+
+        // Cotiza cada tipo una vez y ordena por monto, de modo que basta recorrerlos en orden
+        TipoHabitacion[] tipos = consulta.getTipo().map(tipo -> new TipoHabitacion[]{tipo}).orElse(TIPOS);
+        long[] centavosPorTipo = new long[TIPOS.length];
+        Integer[] orden = new Integer[tipos.length];
+        int candidatos = 0;
+        for (TipoHabitacion tipo : tipos) {
+            long centavos = tarifas.cotizarCentavos(tipo, diaCheckIn, diaCheckOut);
+            if (centavos <= maximoCentavos) {
+                centavosPorTipo[tipo.ordinal()] = centavos;
+                orden[candidatos++] = tipo.ordinal();
+            }
+        }
+        Arrays.sort(orden, 0, candidatos, (a, b) -> Long.compare(centavosPorTipo[a], centavosPorTipo[b]));
+
+        InventarioColumnar.Columnas instantanea = inventario.instantanea();
+        List<HabitacionCotizada> resultado = new ArrayList<>(Math.min(consulta.getLimite(), 1024));
+        for (int i = 0; i < candidatos && resultado.size() < consulta.getLimite(); i++) {
+            int cantidad = instantanea.cantidadDeTipo(orden[i]);
+            if (cantidad == 0) {
+                continue;
+            }
+            Tramo tramo = new Tramo(instantanea, instantanea.filasDeTipo(orden[i]), 0, cantidad,
+                    diaCheckIn, diaCheckOut, consulta.getLimite() - resultado.size());
+            Hallazgos hallazgos = cantidad <= UMBRAL_TRAMO ? tramo.compute() : pool.invoke(tramo);
+            long centavos = centavosPorTipo[orden[i]];
+            for (int j = 0; j < hallazgos.cantidad; j++) {
+                resultado.add(new HabitacionCotizada(hallazgos.habitaciones[j], centavos));
+            }
+        }
+        return resultado;
+    }
+
+    /**
+     * Las primeras habitaciones libres de un tramo, en orden de registro.
+     */
+    private static final class Hallazgos {
+        private static final Hallazgos VACIO = new Hallazgos(new Habitacion[0], 0);
+        private final Habitacion[] habitaciones;
+        private final int cantidad;
+
+        private Hallazgos(Habitacion[] habitaciones, int cantidad) {
+            this.habitaciones = habitaciones;
+            this.cantidad = cantidad;
+        }
+
+        /**
+         * Junta este tramo con el siguiente, quedándose con las primeras {@code limite}.
+         */
+        private Hallazgos seguidoDe(Hallazgos derecha, int limite) {
+            if (derecha.cantidad == 0 || cantidad >= limite) {
+                return this;
+            }
+            if (cantidad == 0) {
+                return derecha;
+            }
+            int total = Math.min(limite, cantidad + derecha.cantidad);
+            Habitacion[] juntas = Arrays.copyOf(habitaciones, total);
+            System.arraycopy(derecha.habitaciones, 0, juntas, cantidad, total - cantidad);
+            return new Hallazgos(juntas, total);
+        }
+    }
+
+    private static final class Tramo extends RecursiveTask<Hallazgos> {
+        private static final long serialVersionUID = 1L;
+        // Las tareas solo viven en el pool y nunca se serializan
+        private final transient InventarioColumnar.Columnas instantanea;
+        private final transient int[] filas;
+        private final int desde;
+        private final int hasta;
+        private final long diaCheckIn;
+        private final long diaCheckOut;
+        private final int limite;
+
+        private Tramo(InventarioColumnar.Columnas instantanea, int[] filas, int desde, int hasta,
+                      long diaCheckIn, long diaCheckOut, int limite) {
+            this.instantanea = instantanea;
+            this.filas = filas;
+            this.desde = desde;
+            this.hasta = hasta;
+            this.diaCheckIn = diaCheckIn;
+            this.diaCheckOut = diaCheckOut;
+            this.limite = limite;
+        }
+
+        @Override
+        protected Hallazgos compute() {
+            if (hasta - desde <= UMBRAL_TRAMO) {
+                return revisar();
+            }
+            int medio = (desde + hasta) >>> 1;
+            Tramo derecha = new Tramo(instantanea, filas, medio, hasta, diaCheckIn, diaCheckOut, limite);
+            derecha.fork();
+            Hallazgos izquierda = new Tramo(instantanea, filas, desde, medio, diaCheckIn, diaCheckOut,
+                    limite).compute();
+            if (izquierda.cantidad >= limite && derecha.tryUnfork()) {
+                return izquierda;
+            }
+            return izquierda.seguidoDe(derecha.join(), limite);
+        }
+
+        private Hallazgos revisar() {
+            Habitacion[] libres = null;
+            int cantidad = 0;
+            for (int i = desde; i < hasta && cantidad < limite; i++) {
+                int fila = filas[i];
+                if (instantanea.habilitada(fila)
+                        && CalendarioOcupacion.estaLibre(instantanea.estancias(fila), diaCheckIn, diaCheckOut)) {
+                    if (libres == null) {
+                        libres = new Habitacion[Math.min(limite, hasta - i)];
+                    }
+                    libres[cantidad++] = instantanea.habitacion(fila);
+                }
+            }
+            return cantidad == 0 ? Hallazgos.VACIO : new Hallazgos(libres, cantidad);
+        }
+    }
+}
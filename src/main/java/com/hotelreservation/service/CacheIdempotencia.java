@@ -0,0 +1,137 @@
+package com.hotelreservation.service;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Supplier;
+
+/**
+ * Resultados de operaciones recientes por clave de idempotencia.
+ * SRP: Responsabilidad única de que un reintento con la misma clave no repita la operación.
+ * La primera solicitud con una clave ejecuta la operación; las que llegan mientras
+ * tanto esperan el mismo futuro, y las posteriores reciben el resultado guardado en O(1),
+ * sea un valor o la misma excepción. Así un reintento por timeout nunca cobra dos veces.
+ * Cada clave recuerda la huella de su operación: reutilizarla para otra cosa es un error.
+ * Las entradas vencen un tiempo fijo después de que termina su operación, y la caché tiene
+ * un máximo de entradas; como todas duran lo mismo, una cola FIFO en orden de finalización
+ * es también el orden de vencimiento. Una entrada cuya operación sigue en curso no está en
+ * esa cola ni vence, así que nunca se descarta: un reintento siempre la encuentra y espera.
+ * Por eso la caché puede pasarse de su capacidad mientras haya operaciones en curso.
+ */
+public class CacheIdempotencia {
+    private final Map<String, Entrada> entradas;
+    private final Queue<Entrada> orden;
+    private final int capacidad;
+    private final long duracionNanos;
+
+    public CacheIdempotencia(int capacidad, Duration duracion) {
+        if (capacidad <= 0) {
+            throw new IllegalArgumentException("La capacidad debe ser positiva");
+        }
+        this.entradas = new ConcurrentHashMap<>();
+        this.orden = new ConcurrentLinkedQueue<>();
+        this.capacidad = capacidad;
+        this.duracionNanos = duracion.toNanos();
+    }
+
+    /**
+     * Ejecuta la operación una sola vez por clave mientras su resultado siga guardado.
+     * @param clave     Clave de idempotencia elegida por el cliente.
+     * @param huella    Descripción de la operación y sus datos, para detectar claves reutilizadas.
+     * @param operacion Operación a ejecutar si la clave es nueva.
+     * @return El resultado de la primera ejecución.
+     * @throws IllegalArgumentException si la clave ya se usó con otra huella.
+     */
+    public <T> T ejecutar(String clave, String huella, Supplier<T> operacion) {
+        while (true) {
+            long ahora = System.nanoTime();
+            Entrada nueva = new Entrada(clave, huella);
+            Entrada existente = entradas.putIfAbsent(clave, nueva);
+            if (existente == null) {
+                podar(ahora);
+                try {
+                    return nueva.completar(operacion, duracionNanos);
+                } finally {
+                    orden.add(nueva);
+                    podar(System.nanoTime());
+                }
+            }
+            if (!existente.vencida(ahora)) {
+                if (!existente.huella.equals(huella)) {
+                    throw new IllegalArgumentException("La clave de idempotencia " + clave +
+                            " ya se usó para otra operación");
+                }
+                return existente.esperar();
+            }
+            entradas.remove(clave, existente);
+        }
+    }
+
+    public int cantidad() {
+        return entradas.size();
+    }
+
+    /**
+     * Descarta las entradas vencidas y, si se superó la capacidad, las terminadas hace más
+     * tiempo. Solo recorre la cola, que no tiene entradas en curso.
+     */
+    private void podar(long ahora) {
+        Entrada primera;
+        while ((primera = orden.peek()) != null
+                && (primera.vencida(ahora) || entradas.size() > capacidad)) {
+            if (orden.remove(primera)) {
+                entradas.remove(primera.clave, primera);
+            }
+        }
+    }
+
+    private static final class Entrada {
+        private final String clave;
+        private final String huella;
+        private final CompletableFuture<Object> resultado;
+        // Se fija antes de completar el resultado, así que es visible para quien lo vea completo
+        private long venceNanos;
+
+        private Entrada(String clave, String huella) {
+            this.clave = clave;
+            this.huella = huella;
+            this.resultado = new CompletableFuture<>();
+        }
+
+        /**
+         * Una entrada en curso nunca vence; una terminada vence a partir de venceNanos.
+         */
+        private boolean vencida(long ahora) {
+            return resultado.isDone() && ahora - venceNanos >= 0;
+        }
+
+        private <T> T completar(Supplier<T> operacion, long duracionNanos) {
+            try {
+                T valor = operacion.get();
+                venceNanos = System.nanoTime() + duracionNanos;
+                resultado.complete(valor);
+                return valor;
+            } catch (RuntimeException | Error e) {
+                venceNanos = System.nanoTime() + duracionNanos;
+                resultado.completeExceptionally(e);
+                throw e;
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        private <T> T esperar() {
+            try {
+                return (T) resultado.join();
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof RuntimeException causa) {
+                    throw causa;
+                }
+                throw e;
+            }
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.hotelreservation.service;
+
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.NavigableMap;
+
+/**
+ * Índice de ocupación por noches de cada habitación.
+ * SRP: Responsabilidad única de saber qué noches están tomadas en cada habitación.
+ * Cada habitación guarda sus estancias como intervalos [checkIn, checkOut) ordenados
+ * por día de entrada. Como las estancias de una misma habitación nunca se solapan,
+ * basta con mirar la estancia que empieza justo antes de la salida pedida para saber
+ * si el rango está libre, lo que cuesta O(log reservas) por habitación.
+ * Las estancias viven en una columna de {@link InventarioColumnar}, el registro único de
+ * habitaciones; este calendario solo las interpreta, así que una habitación tiene
+ * noches en cuanto se registra en el inventario.
+ * Las consultas no bloquean; quien ocupa o libera noches de una habitación debe
+ * tener tomada su franja en {@link BloqueoHabitaciones}.
+ */
+public class CalendarioOcupacion {
+    private final InventarioColumnar inventario;
+
+    CalendarioOcupacion(InventarioColumnar inventario) {
+        this.inventario = inventario;
+    }
+
+    /**
+     * Indica si la habitación está libre todas las noches entre check-in y check-out.
+     */
+    public boolean estaLibre(String numero, LocalDate checkIn, LocalDate checkOut) {
+        NavigableMap<Long, Estancia> estancias = inventario.estancias(numero);
+        if (estancias == null) {
+            return false;
+        }
+        return estaLibre(estancias, checkIn.toEpochDay(), checkOut.toEpochDay());
+    }
+
+    /**
+     * Ocupa las noches de la estancia para la reserva indicada.
+     */
+    public void ocupar(String numero, LocalDate checkIn, LocalDate checkOut, long idReserva) {
+        NavigableMap<Long, Estancia> estancias = inventario.estancias(numero);
+        if (estancias == null) {
+            throw new IllegalArgumentException("Habitación no registrada: " + numero);
+        }
+        long entrada = checkIn.toEpochDay();
+        long salida = checkOut.toEpochDay();
+        if (entrada >= salida) {
+            return;
+        }
+        if (!estaLibre(estancias, entrada, salida)) {
+            throw new IllegalStateException("La habitación " + numero +
+                    " no está disponible para las fechas seleccionadas");
+        }
+        estancias.put(entrada, new Estancia(salida, idReserva));
+    }
+
+    /**
+     * Libera las noches que la reserva indicada ocupaba a partir de check-in.
+     */
+    public void liberar(String numero, LocalDate checkIn, long idReserva) {
+        NavigableMap<Long, Estancia> estancias = inventario.estancias(numero);
+        if (estancias == null) {
+            return;
+        }
+        Estancia estancia = estancias.get(checkIn.toEpochDay());
+        if (estancia != null && estancia.idReserva == idReserva) {
+            estancias.remove(checkIn.toEpochDay());
+        }
+    }
+
+    static boolean estaLibre(NavigableMap<Long, Estancia> estancias, long entrada, long salida) {
+        if (entrada >= salida) {
+            return true;
+        }
+        Map.Entry<Long, Estancia> anterior = estancias.lowerEntry(salida);
+        return anterior == null || anterior.getValue().salida <= entrada;
+    }
+
+    /**
+     * Intervalo de noches ocupado por una reserva.
+     */
+    static final class Estancia {
+        private final long salida;
+        private final long idReserva;
+
+        private Estancia(long salida, long idReserva) {
+            this.salida = salida;
+            this.idReserva = idReserva;
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.hotelreservation.service;
+
+import com.hotelreservation.model.TipoHabitacion;
+
+import java.time.LocalDate;
+import java.util.Optional;
+
+/**
+ * Búsqueda de habitaciones libres, por ejemplo "las 10 suites más baratas libres del
+ * 3 al 6 de marzo por menos de $700".
+ * SRP: Responsabilidad única de reunir los filtros y el límite de una búsqueda.
+ */
+public class ConsultaDisponibilidad {
+    private final LocalDate fechaCheckIn;
+    private final LocalDate fechaCheckOut;
+    private final TipoHabitacion tipo;
+    private final double precioMaximo;
+    private final int limite;
+
+    /**
+     * Las habitaciones libres más baratas de cualquier tipo.
+     */
+    public ConsultaDisponibilidad(LocalDate fechaCheckIn, LocalDate fechaCheckOut, int limite) {
+        this(fechaCheckIn, fechaCheckOut, null, Double.MAX_VALUE, limite);
+    }
+
+    /**
+     * @param tipo         Tipo buscado, o null para cualquier tipo.
+     * @param precioMaximo Monto máximo de la estadía completa por habitación.
+     * @param limite       Cantidad máxima de resultados.
+     */
+    public ConsultaDisponibilidad(LocalDate fechaCheckIn, LocalDate fechaCheckOut,
+                                  TipoHabitacion tipo, double precioMaximo, int limite) {
+        if (fechaCheckIn.isAfter(fechaCheckOut)) {
+            throw new IllegalArgumentException("La fecha de check-in debe ser anterior a check-out");
+        }
+        if (limite <= 0) {
+            throw new IllegalArgumentException("El límite debe ser positivo");
+        }
+        this.fechaCheckIn = fechaCheckIn;
+        this.fechaCheckOut = fechaCheckOut;
+        this.tipo = tipo;
+        this.precioMaximo = precioMaximo;
+        this.limite = limite;
+    }
+
+    public LocalDate getFechaCheckIn() {
+        return fechaCheckIn;
+    }
+
+    public LocalDate getFechaCheckOut() {
+        return fechaCheckOut;
+    }
+
+    public Optional<TipoHabitacion> getTipo() {
+        return Optional.ofNullable(tipo);
+    }
+
+    public double getPrecioMaximo() {
+        return precioMaximo;
+    }
+
+    public int getLimite() {
+        return limite;
+    }
+}
@@ -0,0 +1,136 @@
+package com.hotelreservation.service;
+
+import com.hotelreservation.event.EventoReserva;
+import com.hotelreservation.event.ObservadorReservas;
+import com.hotelreservation.model.EstadoReserva;
+import com.hotelreservation.model.IdReserva;
+import com.hotelreservation.model.Reserva;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cancela las reservas que siguen PENDIENTE pasado un tiempo de retención, liberando
+ * sus noches para otros clientes (carritos abandonados).
+ * SRP: Responsabilidad única de vencer las retenciones sin confirmar.
+ * Observa los eventos del gestor: programa un temporizador al crearse una reserva
+ * pendiente y lo cancela al confirmarse o cancelarse, ambas cosas en O(1) sobre una
+ * {@link RuedaTemporizadores}. Un único hilo hace avanzar la rueda en cada paso.
+ * El vencimiento cancela la reserva a través del gestor, así que publica el evento
+ * CANCELADA como cualquier otra cancelación. Si la reserva tiene un pago en curso,
+ * se vuelve a intentar un paso después.
+ */
+public class ExpiradorReservas implements ObservadorReservas, AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(ExpiradorReservas.class);
+    private static final Duration PASO_PREDETERMINADO = Duration.ofMillis(100);
+    private final GestorReservas gestor;
+    private final Duration retencion;
+    private final RuedaTemporizadores rueda;
+    private final Map<Long, RuedaTemporizadores.Temporizador> temporizadores;
+    private final ScheduledExecutorService reloj;
+
+    private ExpiradorReservas(GestorReservas gestor, Duration retencion, Duration paso) {
+        this.gestor = gestor;
+        this.retencion = retencion;
+        this.rueda = new RuedaTemporizadores(paso);
+        this.temporizadores = new ConcurrentHashMap<>();
+        this.reloj = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread hilo = new Thread(r, "expirador-reservas");
+            hilo.setDaemon(true);
+            return hilo;
+        });
+    }
+
+    /**
+     * Empieza a vencer las reservas pendientes del gestor tras el tiempo de retención.
+     */
+    public static ExpiradorReservas iniciar(GestorReservas gestor, Duration retencion) {
+        return iniciar(gestor, retencion, PASO_PREDETERMINADO);
+    }
+
+    /**
+     * @param paso Resolución de los vencimientos; una reserva vence a lo sumo un paso tarde.
+     */
+    public static ExpiradorReservas iniciar(GestorReservas gestor, Duration retencion, Duration paso) {
+        ExpiradorReservas expirador = new ExpiradorReservas(gestor, retencion, paso);
+        gestor.agregarObservador(expirador);
+        // Las reservas recuperadas de disco no publican eventos: se programan aquí
+        for (Reserva reserva : gestor.obtenerTodasLasReservas()) {
+            if (reserva.getEstado() == EstadoReserva.PENDIENTE) {
+                expirador.programar(reserva.getId(), retencion);
+            }
+        }
+        long periodo = paso.toNanos();
+        expirador.reloj.scheduleAtFixedRate(expirador::avanzar, periodo, periodo, TimeUnit.NANOSECONDS);
+        return expirador;
+    }
+
+    @Override
+    public void notificar(EventoReserva evento) {
+        switch (evento.getTipo()) {
+            case CREADA -> {
+                if (evento.getEstado() == EstadoReserva.PENDIENTE) {
+                    programar(evento.getId(), retencion);
+                }
+            }
+            case CONFIRMADA, CANCELADA -> {
+                RuedaTemporizadores.Temporizador temporizador = temporizadores.remove(evento.getId());
+                if (temporizador != null) {
+                    temporizador.cancelar();
+                }
+            }
+            default -> {
+            }
+        }
+    }
+
+    /**
+     * Cantidad de reservas pendientes con vencimiento programado.
+     */
+    public int cantidadPendientes() {
+        return temporizadores.size();
+    }
+
+    private void programar(long idReserva, Duration plazo) {
+        RuedaTemporizadores.Temporizador anterior =
+                temporizadores.put(idReserva, rueda.programar(plazo, () -> vencer(idReserva)));
+        if (anterior != null) {
+            anterior.cancelar();
+        }
+    }
+
+    private void vencer(long idReserva) {
+        temporizadores.remove(idReserva);
+        try {
+            // El gestor comprueba que siga pendiente en la misma sección crítica que la cancela
+            if (gestor.cancelarReservaPendiente(idReserva)) {
+                logger.info("Reserva {} vencida sin confirmar", IdReserva.formatear(idReserva));
+            }
+        } catch (IllegalStateException e) {
+            // Un pago en curso impide cancelar; si termina sin confirmar, vencerá en el próximo paso
+            programar(idReserva, rueda.getPaso());
+        } catch (RuntimeException e) {
+            logger.error("Error al vencer la reserva {}: {}", IdReserva.formatear(idReserva), e.getMessage());
+        }
+    }
+
+    private void avanzar() {
+        try {
+            rueda.avanzar(System.nanoTime());
+        } catch (RuntimeException e) {
+            logger.error("Error al vencer reservas pendientes: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public void close() {
+        gestor.quitarObservador(this);
+        reloj.shutdownNow();
+    }
+}
@@ -1,57 +1,298 @@
 package com.hotelreservation.service;
 
+import com.hotelreservation.event.EventoReserva;
+import com.hotelreservation.event.ObservadorReservas;
+import com.hotelreservation.event.TipoEventoReserva;
+import com.hotelreservation.metrics.Medidor;
+import com.hotelreservation.metrics.Metricas;
 import com.hotelreservation.model.Habitacion;
 import com.hotelreservation.model.Reserva;
 import com.hotelreservation.model.Cliente;
+import com.hotelreservation.model.EstadoReserva;
+import com.hotelreservation.model.GeneradorIds;
+import com.hotelreservation.model.GeneradorIdsTemporal;
+import com.hotelreservation.model.IdReserva;
+import com.hotelreservation.model.ReglasPrecio;
+import com.hotelreservation.model.TablaTarifas;
+import com.hotelreservation.model.TipoHabitacion;
 import com.hotelreservation.payment.MetodoPago;
+import com.hotelreservation.payment.ProcesadorPagosAsincrono;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.time.Duration;
+import java.time.Instant;
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
 import java.util.Optional;
-import java.util.stream.Collectors;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Supplier;
 
 /**
  * Gestor de Reservas.
  * SRP: Responsabilidad única de gestionar todas las operaciones de reservas.
  * Actúa como un controlador central para crear, modificar y cancelar reservas.
+ * Es seguro para uso concurrente: los cambios sobre las noches de una habitación
+ * se serializan por franjas de habitación y las transiciones de estado de cada
+ * reserva se serializan sobre la propia reserva.
  */
 public class GestorReservas {
     private static final Logger logger = LoggerFactory.getLogger(GestorReservas.class);
-    private List<Reserva> reservas;
-    private List<Habitacion> habitacionesDisponibles;
+    // Resultados recordados para reintentos con clave de idempotencia
+    private static final int CAPACIDAD_IDEMPOTENCIA = 100_000;
+    private static final Duration DURACION_IDEMPOTENCIA = Duration.ofMinutes(15);
+    private Map<Long, Reserva> reservas;
+    // Las reservas por ID; con IDs ordenados por tiempo, también en orden de creación
+    private NavigableMap<Long, Reserva> ordenCreacion;
+    // Todas las reservas en el orden en que se incorporaron, para instantáneas sin copia
+    private ListaAnexable<Reserva> historial;
+    // Registro único de las habitaciones: habilitación, noches ocupadas y búsqueda por número
+    private InventarioColumnar inventario;
+    private CalendarioOcupacion calendario;
+    private BuscadorHabitaciones buscador;
+    private BloqueoHabitaciones bloqueos;
+    // Cupo vendido por tipo y noche, compartido por las reservas y las ventas por tipo
+    private InventarioPorTipo cupos;
+    private Map<Long, VentaPorTipo> ventasPorTipo;
+    private TablaTarifas tarifas;
+    private ReglasPrecio reglas;
+    private GeneradorIds generadorIds;
+
+    // Índices secundarios mantenidos en cada alta y cambio de estado
+    private Map<String, Queue<Reserva>> reservasPorCliente;
+    private Map<EstadoReserva, Set<Reserva>> reservasPorEstado;
+    private List<ObservadorReservas> observadores;
+    private AgregadosReservas agregados;
+    private CacheIdempotencia idempotencia;
+    private Metricas metricas;
+    private Medidor medidorDisponibles;
+    private Medidor medidorBuscar;
+    private Medidor medidorCrear;
+    private Medidor medidorCrearVip;
+    private Medidor medidorLote;
+    private Medidor medidorConfirmar;
+    private Medidor medidorCambiarFechas;
+    private Medidor medidorCancelar;
+    private Medidor medidorVenderPorTipo;
 
     public GestorReservas() {
-        this.reservas = new ArrayList<>();
-        this.habitacionesDisponibles = new ArrayList<>();
+        this(new TablaTarifas());
+    }
+
+    /**
+     * Crea un gestor que cotiza las reservas con la tabla de tarifas indicada.
+     */
+    public GestorReservas(TablaTarifas tarifas) {
+        this(tarifas, GeneradorIdsTemporal.predeterminado());
+    }
+
+    /**
+     * Crea un gestor con la tabla de tarifas y el generador de IDs indicados.
+     */
+    public GestorReservas(TablaTarifas tarifas, GeneradorIds generadorIds) {
+        this(tarifas, generadorIds, Metricas.desactivadas());
+    }
+
+    /**
+     * Crea un gestor que además mide sus operaciones y los cobros de cada método de pago.
+     * Con {@link Metricas#desactivadas()} no se mide nada.
+     */
+    public GestorReservas(TablaTarifas tarifas, GeneradorIds generadorIds, Metricas metricas) {
+        this(tarifas, generadorIds, metricas, ReglasPrecio.predeterminadas());
+    }
+
+    /**
+     * Crea un gestor que aplica las reglas de precio indicadas. Las temporadas de las
+     * reglas se fijan en la tabla de tarifas al crear el gestor.
+     */
+    public GestorReservas(TablaTarifas tarifas, GeneradorIds generadorIds, Metricas metricas,
+                          ReglasPrecio reglas) {
+        this.tarifas = tarifas;
+        this.reglas = reglas;
+        reglas.aplicarTemporadas(tarifas);
+        this.generadorIds = generadorIds;
+        this.reservas = new ConcurrentHashMap<>();
+        this.ordenCreacion = new ConcurrentSkipListMap<>();
+        this.historial = new ListaAnexable<>();
+        this.inventario = new InventarioColumnar();
+        this.calendario = new CalendarioOcupacion(inventario);
+        this.buscador = new BuscadorHabitaciones(inventario);
+        this.bloqueos = new BloqueoHabitaciones();
+        this.cupos = new InventarioPorTipo(tarifas);
+        this.ventasPorTipo = new ConcurrentHashMap<>();
+        this.reservasPorCliente = new ConcurrentHashMap<>();
+        this.reservasPorEstado = new EnumMap<>(EstadoReserva.class);
+        for (EstadoReserva estado : EstadoReserva.values()) {
+            reservasPorEstado.put(estado, ConcurrentHashMap.newKeySet());
+        }
+        this.observadores = new CopyOnWriteArrayList<>();
+        this.agregados = new AgregadosReservas(tarifas);
+        this.idempotencia = new CacheIdempotencia(CAPACIDAD_IDEMPOTENCIA, DURACION_IDEMPOTENCIA);
+        this.metricas = metricas;
+        this.medidorDisponibles = metricas.medidor("gestor.obtenerHabitacionesDisponibles");
+        this.medidorBuscar = metricas.medidor("gestor.buscarHabitaciones");
+        this.medidorCrear = metricas.medidor("gestor.crearReserva");
+        this.medidorCrearVip = metricas.medidor("gestor.crearReservaVIP");
+        this.medidorLote = metricas.medidor("gestor.crearReservas");
+        this.medidorConfirmar = metricas.medidor("gestor.confirmarReserva");
+        this.medidorCambiarFechas = metricas.medidor("gestor.cambiarFechasReserva");
+        this.medidorCancelar = metricas.medidor("gestor.cancelarReserva");
+        this.medidorVenderPorTipo = metricas.medidor("gestor.venderPorTipo");
     }
 
     /**
-     * Registra una habitación en el sistema.
+     * Suscribe un observador a los eventos de todas las reservas.
+     */
+    public void agregarObservador(ObservadorReservas observador) {
+        observadores.add(observador);
+    }
+
+    /**
+     * Cancela la suscripción de un observador.
+     */
+    public void quitarObservador(ObservadorReservas observador) {
+        observadores.remove(observador);
+    }
+
+    /**
+     * Registra una habitación en el sistema y la suma al cupo de su tipo.
      */
     public void registrarHabitacion(Habitacion habitacion) {
-        habitacionesDisponibles.add(habitacion);
-        logger.info("Habitación registrada: " + habitacion);
+        inventario.registrar(habitacion);
+        cupos.agregarCapacidad(habitacion.getTipo(), 1);
+        logger.info("Habitación registrada: {}", habitacion);
     }
 
     /**
      * Obtiene todas las habitaciones disponibles para las fechas especificadas.
+     * Una habitación está disponible si está habilitada y ninguna reserva vigente
+     * ocupa alguna de las noches entre check-in y check-out.
      */
     public List<Habitacion> obtenerHabitacionesDisponibles(LocalDate checkIn, LocalDate checkOut) {
-        return habitacionesDisponibles.stream()
-                .filter(Habitacion::estaDisponible)
-                .collect(Collectors.toList());
+        long inicio = medidorDisponibles.iniciar();
+        boolean exito = false;
+        try {
+            List<Habitacion> disponibles = inventario.libres(checkIn.toEpochDay(), checkOut.toEpochDay());
+            exito = true;
+            return disponibles;
+        } finally {
+            medidorDisponibles.finalizar(inicio, exito);
+        }
+    }
+
+    /**
+     * Obtiene las habitaciones disponibles para las fechas especificadas, del tipo
+     * indicado y con tarifa base por noche de hasta el precio indicado. Es la tarifa de
+     * lista de la habitación; para cotizar la estadía con sus temporadas, usar
+     * {@link #buscarHabitaciones(ConsultaDisponibilidad)}.
+     * @param tipo Tipo buscado, o null para cualquiera.
+     */
+    public List<Habitacion> obtenerHabitacionesDisponibles(LocalDate checkIn, LocalDate checkOut,
+                                                           TipoHabitacion tipo, double precioNocheMaximo) {
+        long inicio = medidorDisponibles.iniciar();
+        boolean exito = false;
+        try {
+            long maximoCentavos = precioNocheMaximo >= Long.MAX_VALUE / 100.0
+                    ? Long.MAX_VALUE
+                    : (long) Math.floor(precioNocheMaximo * 100);
+            List<Habitacion> disponibles = inventario.libres(checkIn.toEpochDay(), checkOut.toEpochDay(),
+                    tipo, maximoCentavos);
+            exito = true;
+            return disponibles;
+        } finally {
+            medidorDisponibles.finalizar(inicio, exito);
+        }
+    }
+
+    /**
+     * Cantidad de habitaciones habilitadas para la venta del tipo indicado, o de todas si es null.
+     */
+    public int contarHabitacionesHabilitadas(TipoHabitacion tipo) {
+        return inventario.contarHabilitadas(tipo);
+    }
+
+    /**
+     * Retira una habitación de la venta, por ejemplo por mantenimiento. Las reservas que
+     * ya tiene no se tocan, y sigue contando en el cupo de su tipo.
+     * @return false si ya estaba retirada.
+     */
+    public boolean retirarDeVenta(String numero) {
+        if (!inventario.retirar(numero)) {
+            return false;
+        }
+        logger.info("Habitación {} retirada de la venta", numero);
+        return true;
+    }
+
+    /**
+     * Vuelve a poner a la venta una habitación retirada.
+     */
+    public void reponerEnVenta(String numero) {
+        inventario.reponer(numero);
+        logger.info("Habitación {} repuesta en la venta", numero);
+    }
+
+    /**
+     * Busca las habitaciones libres más baratas que cumplen la consulta, ordenadas por
+     * el monto de la estadía. Revisa el inventario en paralelo y no arma la lista completa
+     * de habitaciones libres: solo junta hasta el límite pedido.
+     */
+    public List<HabitacionCotizada> buscarHabitaciones(ConsultaDisponibilidad consulta) {
+        long inicio = medidorBuscar.iniciar();
+        boolean exito = false;
+        try {
+            List<HabitacionCotizada> encontradas = buscador.buscar(consulta, tarifas);
+            exito = true;
+            return encontradas;
+        } finally {
+            medidorBuscar.finalizar(inicio, exito);
+        }
+    }
+
+    /**
+     * Cotiza una estadía con las tarifas vigentes, sin reservar nada.
+     */
+    public double cotizar(List<Habitacion> habitaciones, LocalDate checkIn, LocalDate checkOut) {
+        return tarifas.cotizarCentavos(habitaciones, checkIn, checkOut) / 100.0;
+    }
+
+    /**
+     * Cotiza una estadía para un cliente, con sus descuentos y el código promocional indicado.
+     */
+    public double cotizar(Cliente cliente, List<Habitacion> habitaciones, LocalDate checkIn,
+                          LocalDate checkOut, String codigoPromocional) {
+        validarCodigoPromocional(codigoPromocional);
+        double factor = reglas.factor(cliente.getNivelFidelidad(), checkOut.toEpochDay() - checkIn.toEpochDay(),
+                ReglasPrecio.normalizarCodigo(codigoPromocional));
+        return tarifas.cotizarCentavos(habitaciones, checkIn, checkOut) / 100.0 * factor;
+    }
+
+    public TablaTarifas getTarifas() {
+        return tarifas;
+    }
+
+    public ReglasPrecio getReglasPrecio() {
+        return reglas;
     }
 
     /**
      * Obtiene una habitación específica por número.
      */
     public Optional<Habitacion> obtenerHabitacionPorNumero(String numero) {
-        return habitacionesDisponibles.stream()
-                .filter(h -> h.getNumero().equals(numero))
-                .findFirst();
+        return Optional.ofNullable(inventario.habitacion(numero));
     }
 
     /**
@@ -60,23 +301,58 @@ public class GestorReservas {
     public Reserva crearReserva(Cliente cliente, List<Habitacion> habitaciones,
                                LocalDate checkIn, LocalDate checkOut,
                                MetodoPago metodoPago) {
-        // Validar fechas
-        if (checkIn.isAfter(checkOut) || checkIn.equals(checkOut)) {
-            throw new IllegalArgumentException("Las fechas de check-in y check-out son inválidas");
-        }
+        return crearReserva(cliente, habitaciones, checkIn, checkOut, metodoPago, null);
+    }
 
-        // Validar que las habitaciones estén disponibles
-        for (Habitacion habitacion : habitaciones) {
-            if (!habitacion.estaDisponible()) {
-                throw new IllegalStateException("La habitación " + habitacion.getNumero() +
-                        " no está disponible para las fechas seleccionadas");
+    /**
+     * Crea una nueva reserva con un código promocional.
+     * @param codigoPromocional Código de las reglas de precio, o null para ninguno.
+     */
+    public Reserva crearReserva(Cliente cliente, List<Habitacion> habitaciones,
+                               LocalDate checkIn, LocalDate checkOut,
+                               MetodoPago metodoPago, String codigoPromocional) {
+        long inicio = medidorCrear.iniciar();
+        boolean exito = false;
+        try {
+            validarCodigoPromocional(codigoPromocional);
+            Reserva reserva;
+            int[] franjas = bloqueos.bloquear(habitaciones);
+            try {
+                validarDisponibilidad(habitaciones, checkIn, checkOut);
+                reserva = crearConCupo(habitaciones, checkIn, checkOut, () -> new Reserva(
+                        generadorIds.siguienteId(), cliente, habitaciones, checkIn, checkOut,
+                        metodoPago, tarifas, reglas, codigoPromocional));
+            } finally {
+                bloqueos.desbloquear(franjas);
             }
+            indexarYPublicar(reserva);
+            logger.info("Reserva creada: {}", reserva.getIdReserva());
+            exito = true;
+            return reserva;
+        } finally {
+            medidorCrear.finalizar(inicio, exito);
         }
+    }
 
-        Reserva reserva = new Reserva(cliente, habitaciones, checkIn, checkOut, metodoPago);
-        reservas.add(reserva);
-        logger.info("Reserva creada: " + reserva.getIdReserva());
-        return reserva;
+    /**
+     * Crea una reserva una sola vez por clave de idempotencia. Un reintento con la misma
+     * clave devuelve la reserva creada la primera vez, o la misma excepción si falló.
+     */
+    public Reserva crearReserva(String claveIdempotencia, Cliente cliente, List<Habitacion> habitaciones,
+                                LocalDate checkIn, LocalDate checkOut, MetodoPago metodoPago) {
+        return idempotencia.ejecutar(claveIdempotencia,
+                huellaCreacion("crear", cliente, habitaciones, checkIn, checkOut),
+                () -> crearReserva(cliente, habitaciones, checkIn, checkOut, metodoPago));
+    }
+
+    /**
+     * Crea una reserva VIP una sola vez por clave de idempotencia.
+     */
+    public Reserva crearReservaVIP(String claveIdempotencia, Cliente cliente, List<Habitacion> habitaciones,
+                                   LocalDate checkIn, LocalDate checkOut, MetodoPago metodoPago) {
+        return idempotencia.ejecutar(claveIdempotencia,
+                huellaCreacion("crearVIP", cliente, habitaciones, checkIn, checkOut),
+                () -> crearReservaVIP(cliente, habitaciones, checkIn, checkOut, metodoPago));
     }
 
     /**
@@ -85,46 +361,244 @@ public class GestorReservas {
     public Reserva crearReservaVIP(Cliente cliente, List<Habitacion> habitaciones,
                                   LocalDate checkIn, LocalDate checkOut,
                                   MetodoPago metodoPago) {
-        if (checkIn.isAfter(checkOut) || checkIn.equals(checkOut)) {
-            throw new IllegalArgumentException("Las fechas de check-in y check-out son inválidas");
+        return crearReservaVIP(cliente, habitaciones, checkIn, checkOut, metodoPago, null);
+    }
+
+    /**
+     * Crea una reserva VIP con un código promocional.
+     * @param codigoPromocional Código de las reglas de precio, o null para ninguno.
+     */
+    public Reserva crearReservaVIP(Cliente cliente, List<Habitacion> habitaciones,
+                                  LocalDate checkIn, LocalDate checkOut,
+                                  MetodoPago metodoPago, String codigoPromocional) {
+        long inicio = medidorCrearVip.iniciar();
+        boolean exito = false;
+        try {
+            validarCodigoPromocional(codigoPromocional);
+            Reserva reservaVIP;
+            int[] franjas = bloqueos.bloquear(habitaciones);
+            try {
+                validarDisponibilidad(habitaciones, checkIn, checkOut);
+                reservaVIP = crearConCupo(habitaciones, checkIn, checkOut, () ->
+                        new com.hotelreservation.model.ReservaVIP(generadorIds.siguienteId(),
+                                cliente, habitaciones, checkIn, checkOut, metodoPago, tarifas,
+                                reglas, codigoPromocional));
+            } finally {
+                bloqueos.desbloquear(franjas);
+            }
+            indexarYPublicar(reservaVIP);
+            logger.info("Reserva VIP creada: {}", reservaVIP.getIdReserva());
+            exito = true;
+            return reservaVIP;
+        } finally {
+            medidorCrearVip.finalizar(inicio, exito);
         }
+    }
 
-        for (Habitacion habitacion : habitaciones) {
-            if (!habitacion.estaDisponible()) {
-                throw new IllegalStateException("La habitación " + habitacion.getNumero() +
-                        " no está disponible para las fechas seleccionadas");
+    /**
+     * Crea un lote de reservas de una sola vez, por ejemplo la carga de un operador turístico.
+     * Las solicitudes se ordenan por habitación y fecha, se toman una sola vez las franjas
+     * de todas las habitaciones del lote y cada solicitud se valida y ocupa en una pasada.
+     * Una solicitud que choca con otra anterior del mismo lote falla como si hubiera llegado después.
+     * @return Un resultado por solicitud, en el mismo orden recibido.
+     */
+    public List<ResultadoReserva> crearReservas(List<SolicitudReserva> solicitudes) {
+        long inicio = medidorLote.iniciar();
+        boolean exito = false;
+        try {
+            Integer[] orden = new Integer[solicitudes.size()];
+            List<Habitacion> todas = new ArrayList<>();
+            for (int i = 0; i < orden.length; i++) {
+                orden[i] = i;
+                todas.addAll(solicitudes.get(i).habitaciones());
+            }
+            Arrays.sort(orden, Comparator
+                    .comparing((Integer i) -> solicitudes.get(i).primeraHabitacion())
+                    .thenComparing(i -> solicitudes.get(i).getFechaCheckIn()));
+
+            ResultadoReserva[] resultados = new ResultadoReserva[orden.length];
+            int[] franjas = bloqueos.bloquear(todas);
+            try {
+                for (Integer i : orden) {
+                    SolicitudReserva solicitud = solicitudes.get(i);
+                    try {
+                        List<Habitacion> habitaciones = solicitud.habitaciones();
+                        validarDisponibilidad(habitaciones, solicitud.getFechaCheckIn(), solicitud.getFechaCheckOut());
+                        Reserva reserva = crearConCupo(habitaciones, solicitud.getFechaCheckIn(),
+                                solicitud.getFechaCheckOut(), () -> solicitud.esVip()
+                                        ? new com.hotelreservation.model.ReservaVIP(generadorIds.siguienteId(),
+                                                solicitud.getCliente(), habitaciones, solicitud.getFechaCheckIn(),
+                                                solicitud.getFechaCheckOut(), solicitud.getMetodoPago(), tarifas,
+                                                reglas, null)
+                                        : new Reserva(generadorIds.siguienteId(), solicitud.getCliente(),
+                                                habitaciones, solicitud.getFechaCheckIn(),
+                                                solicitud.getFechaCheckOut(), solicitud.getMetodoPago(),
+                                                tarifas, reglas, null));
+                        resultados[i] = ResultadoReserva.exitoso(solicitud, reserva);
+                    } catch (RuntimeException e) {
+                        resultados[i] = ResultadoReserva.fallido(solicitud, null, e);
+                    }
+                }
+            } finally {
+                bloqueos.desbloquear(franjas);
             }
+
+            // Sus noches ya están ocupadas: se indexan todas aunque falle un observador crítico
+            int creadas = 0;
+            RuntimeException fallaPublicacion = null;
+            for (ResultadoReserva resultado : resultados) {
+                if (resultado.esExitoso()) {
+                    try {
+                        indexarYPublicar(resultado.getReserva());
+                    } catch (RuntimeException e) {
+                        if (fallaPublicacion == null) {
+                            fallaPublicacion = e;
+                        }
+                    }
+                    creadas++;
+                }
+            }
+            logger.info("Lote de reservas procesado: {} creadas de {}", creadas, resultados.length);
+            if (fallaPublicacion != null) {
+                throw fallaPublicacion;
+            }
+            exito = true;
+            return Arrays.asList(resultados);
+        } finally {
+            medidorLote.finalizar(inicio, exito);
         }
+    }
 
-        Reserva reservaVIP = new com.hotelreservation.model.ReservaVIP(cliente, habitaciones,
-                checkIn, checkOut, metodoPago);
-        reservas.add(reservaVIP);
-        logger.info("Reserva VIP creada: " + reservaVIP.getIdReserva());
-        return reservaVIP;
+    /**
+     * Crea un lote de reservas y cobra las creadas a través del procesador asíncrono,
+     * que agrupa los cobros por proveedor en lotes hacia la pasarela.
+     * Una reserva cuyo cobro falla queda creada y pendiente, y su resultado lleva la causa.
+     * @return Futuro que se completa cuando terminaron todos los cobros, con un resultado
+     *         por solicitud en el mismo orden recibido.
+     */
+    public CompletableFuture<List<ResultadoReserva>> crearYConfirmarReservas(List<SolicitudReserva> solicitudes,
+                                                                          ProcesadorPagosAsincrono procesador) {
+        List<ResultadoReserva> creadas = crearReservas(solicitudes);
+        List<CompletableFuture<ResultadoReserva>> confirmaciones = new ArrayList<>(creadas.size());
+        for (ResultadoReserva creada : creadas) {
+            if (!creada.esExitoso()) {
+                confirmaciones.add(CompletableFuture.completedFuture(creada));
+                continue;
+            }
+            Reserva reserva = creada.getReserva();
+            CompletableFuture<Void> confirmacion;
+            try {
+                confirmacion = confirmarReservaAsync(reserva.getIdReserva(), procesador);
+            } catch (RuntimeException e) {
+                confirmacion = CompletableFuture.failedFuture(e);
+            }
+            confirmaciones.add(confirmacion.handle((sinValor, error) -> error == null
+                    ? creada
+                    : ResultadoReserva.fallido(creada.getSolicitud(), reserva,
+                            error instanceof CompletionException && error.getCause() != null
+                                    ? error.getCause() : error)));
+        }
+        return CompletableFuture.allOf(confirmaciones.toArray(new CompletableFuture<?>[0]))
+                .thenApply(sinValor -> {
+                    List<ResultadoReserva> resultados = new ArrayList<>(confirmaciones.size());
+                    for (CompletableFuture<ResultadoReserva> confirmacion : confirmaciones) {
+                        resultados.add(confirmacion.join());
+                    }
+                    return resultados;
+                });
     }
 
     /**
      * Confirma una reserva existente.
      */
     public void confirmarReserva(String idReserva) {
+        long inicio = medidorConfirmar.iniciar();
+        boolean exito = false;
+        try {
+            Optional<Reserva> reservaOpt = obtenerReservaPorId(idReserva);
+            if (reservaOpt.isPresent()) {
+                Reserva reserva = reservaOpt.get();
+                reserva.confirmar(metricas.medidorPago(reserva.getMetodoPago()), () -> registrarConfirmacion(reserva));
+            } else {
+                throw new IllegalArgumentException("Reserva no encontrada con ID: " + idReserva);
+            }
+            exito = true;
+        } finally {
+            medidorConfirmar.finalizar(inicio, exito);
+        }
+    }
+
+    /**
+     * Confirma una reserva una sola vez por clave de idempotencia. Un reintento tras un
+     * timeout, incluso si se cruza con la llamada original, no vuelve a cobrar: espera o
+     * recibe el resultado de la primera. Para reintentar un cobro rechazado hay que usar
+     * una clave nueva.
+     */
+    public void confirmarReserva(String claveIdempotencia, String idReserva) {
+        idempotencia.ejecutar(claveIdempotencia, "confirmar|" + idReserva, () -> {
+            confirmarReserva(idReserva);
+            return null;
+        });
+    }
+
+    /**
+     * Confirma una reserva existente procesando el pago de forma asíncrona.
+     * El pago viaja en el siguiente lote de su proveedor; el futuro se completa
+     * cuando la reserva queda confirmada o falla el cobro.
+     */
+    public CompletableFuture<Void> confirmarReservaAsync(String idReserva,
+                                                         ProcesadorPagosAsincrono procesador) {
         Optional<Reserva> reservaOpt = obtenerReservaPorId(idReserva);
         if (reservaOpt.isPresent()) {
-            reservaOpt.get().confirmar();
+            Reserva reserva = reservaOpt.get();
+            return reserva.confirmarAsync(procesador, metricas.medidorPago(reserva.getMetodoPago()),
+                    () -> registrarConfirmacion(reserva));
         } else {
             throw new IllegalArgumentException("Reserva no encontrada con ID: " + idReserva);
         }
     }
 
+    /**
+     * Registra en los índices y publica una confirmación. La reserva la invoca con su
+     * monitor tomado, en la misma sección crítica que la pasa a CONFIRMADA, así que
+     * una cancelación concurrente no puede publicarse antes.
+     */
+    private void registrarConfirmacion(Reserva reserva) {
+        moverEstado(reserva, EstadoReserva.PENDIENTE);
+        agregados.actualizarEstado(reserva, EstadoReserva.PENDIENTE);
+        publicar(TipoEventoReserva.CONFIRMADA, reserva);
+    }
+
     /**
      * Cambia las fechas de una reserva existente.
      */
     public void cambiarFechasReserva(String idReserva, LocalDate nuevaFechaCheckIn,
                                      LocalDate nuevaFechaCheckOut) {
-        Optional<Reserva> reservaOpt = obtenerReservaPorId(idReserva);
-        if (reservaOpt.isPresent()) {
-            reservaOpt.get().cambiarFechas(nuevaFechaCheckIn, nuevaFechaCheckOut);
-        } else {
-            throw new IllegalArgumentException("Reserva no encontrada con ID: " + idReserva);
+        long inicio = medidorCambiarFechas.iniciar();
+        boolean exito = false;
+        try {
+            Optional<Reserva> reservaOpt = obtenerReservaPorId(idReserva);
+            if (reservaOpt.isPresent()) {
+                Reserva reserva = reservaOpt.get();
+                int[] franjas = bloqueos.bloquear(reserva.getHabitaciones());
+                try {
+                    synchronized (reserva) {
+                        LocalDate checkInAnterior = reserva.getFechaCheckIn();
+                        LocalDate checkOutAnterior = reserva.getFechaCheckOut();
+                        double montoAnterior = reserva.getMontoTotal();
+                        moverNoches(reserva, nuevaFechaCheckIn, nuevaFechaCheckOut);
+                        agregados.cambiarFechas(reserva, checkInAnterior, checkOutAnterior, montoAnterior);
+                        publicar(TipoEventoReserva.FECHAS_CAMBIADAS, reserva);
+                    }
+                } finally {
+                    bloqueos.desbloquear(franjas);
+                }
+            } else {
+                throw new IllegalArgumentException("Reserva no encontrada con ID: " + idReserva);
+            }
+            exito = true;
+        } finally {
+            medidorCambiarFechas.finalizar(inicio, exito);
         }
     }
 
@@ -132,11 +606,229 @@ public class GestorReservas {
      * Cancela una reserva existente.
      */
     public void cancelarReserva(String idReserva) {
-        Optional<Reserva> reservaOpt = obtenerReservaPorId(idReserva);
-        if (reservaOpt.isPresent()) {
-            reservaOpt.get().cancelar();
-        } else {
-            throw new IllegalArgumentException("Reserva no encontrada con ID: " + idReserva);
+        long inicio = medidorCancelar.iniciar();
+        boolean exito = false;
+        try {
+            Optional<Reserva> reservaOpt = obtenerReservaPorId(idReserva);
+            if (reservaOpt.isPresent()) {
+                cancelar(reservaOpt.get(), false);
+            } else {
+                throw new IllegalArgumentException("Reserva no encontrada con ID: " + idReserva);
+            }
+            exito = true;
+        } finally {
+            medidorCancelar.finalizar(inicio, exito);
+        }
+    }
+
+    /**
+     * Cancela la reserva solo si sigue PENDIENTE. El estado se comprueba con las franjas
+     * de sus habitaciones y su monitor tomados, así que una confirmación que termina en
+     * paralelo nunca queda cancelada por error.
+     * @return false si la reserva no existe o ya no está pendiente.
+     * @throws IllegalStateException Si la reserva tiene un pago en curso.
+     */
+    public boolean cancelarReservaPendiente(long idReserva) {
+        long inicio = medidorCancelar.iniciar();
+        boolean exito = false;
+        try {
+            Optional<Reserva> reservaOpt = obtenerReservaPorId(idReserva);
+            boolean cancelada = reservaOpt.isPresent() && cancelar(reservaOpt.get(), true) != null;
+            exito = true;
+            return cancelada;
+        } finally {
+            medidorCancelar.finalizar(inicio, exito);
+        }
+    }
+
+    /**
+     * Cancela una reserva y, si ya estaba confirmada, le devuelve el cobro con su método
+     * de pago. Sirve para compensar una reserva que se confirmó en parte.
+     * El reembolso se pide después de soltar los bloqueos, para no retenerlos mientras
+     * responde la pasarela.
+     * @throws IllegalStateException Si el método de pago rechaza el reembolso; la reserva
+     *                               queda cancelada igual.
+     */
+    public void cancelarReservaConReembolso(String idReserva) {
+        long inicio = medidorCancelar.iniciar();
+        boolean exito = false;
+        try {
+            Reserva reserva = obtenerReservaPorId(idReserva).orElseThrow(() ->
+                    new IllegalArgumentException("Reserva no encontrada con ID: " + idReserva));
+            cancelar(reserva, false, true);
+            exito = true;
+        } finally {
+            medidorCancelar.finalizar(inicio, exito);
+        }
+    }
+
+    /**
+     * Cancela la reserva sin devolver el cobro, como {@link #cancelar(Reserva, boolean, boolean)}.
+     */
+    private EstadoReserva cancelar(Reserva reserva, boolean soloPendiente) {
+        return cancelar(reserva, soloPendiente, false);
+    }
+
+    /**
+     * Cancela la reserva con las franjas de sus habitaciones y su monitor tomados.
+     * Si falla un observador crítico, la reserva queda cancelada y reembolsada igual, y
+     * después se relanza la falla.
+     * @param soloPendiente Si es true y la reserva ya no está PENDIENTE, no hace nada.
+     * @param reembolsar    Si es true y la reserva estaba CONFIRMADA, devuelve el cobro
+     *                      tras soltar los bloqueos.
+     * @return El estado que tenía la reserva, o null si no se canceló.
+     */
+    private EstadoReserva cancelar(Reserva reserva, boolean soloPendiente, boolean reembolsar) {
+        EstadoReserva estadoAnterior;
+        RuntimeException fallaPublicacion = null;
+        int[] franjas = bloqueos.bloquear(reserva.getHabitaciones());
+        try {
+            synchronized (reserva) {
+                estadoAnterior = reserva.getEstado();
+                if (soloPendiente && estadoAnterior != EstadoReserva.PENDIENTE) {
+                    return null;
+                }
+                reserva.cancelar();
+                liberarNoches(reserva);
+                cupos.liberar(InventarioPorTipo.contarPorTipo(reserva.getHabitaciones()),
+                        reserva.getFechaCheckIn(), reserva.getFechaCheckOut());
+                moverEstado(reserva, estadoAnterior);
+                agregados.actualizarEstado(reserva, estadoAnterior);
+                try {
+                    publicar(TipoEventoReserva.CANCELADA, reserva);
+                } catch (RuntimeException e) {
+                    fallaPublicacion = e;
+                }
+            }
+        } finally {
+            bloqueos.desbloquear(franjas);
+        }
+        if (reembolsar && estadoAnterior == EstadoReserva.CONFIRMADA
+                && !reserva.getMetodoPago().reembolsarPago(reserva.getMontoTotal())) {
+            logger.error("Reembolso rechazado para la reserva cancelada {}", reserva.getIdReserva());
+            IllegalStateException rechazo = new IllegalStateException(
+                    "No se pudo reembolsar la reserva " + reserva.getIdReserva());
+            if (fallaPublicacion != null) {
+                rechazo.addSuppressed(fallaPublicacion);
+            }
+            throw rechazo;
+        }
+        if (fallaPublicacion != null) {
+            throw fallaPublicacion;
+        }
+        return estadoAnterior;
+    }
+
+    /**
+     * Cancela una reserva una sola vez por clave de idempotencia.
+     */
+    public void cancelarReserva(String claveIdempotencia, String idReserva) {
+        idempotencia.ejecutar(claveIdempotencia, "cancelar|" + idReserva, () -> {
+            cancelarReserva(idReserva);
+            return null;
+        });
+    }
+
+    /**
+     * Fija la sobreventa permitida para el tipo como fracción de su capacidad; con 0.05 se
+     * puede vender un 5 % más de habitaciones de las que hay. La comparten las ventas por
+     * tipo y las reservas de habitaciones concretas.
+     */
+    public void fijarSobreventa(TipoHabitacion tipo, double fraccion) {
+        cupos.fijarSobreventa(tipo, fraccion);
+        logger.info("Sobreventa de {} fijada en {}", tipo, fraccion);
+    }
+
+    /**
+     * Cupo del tipo que queda para la noche: su capacidad más la sobreventa, menos lo
+     * vendido. Fuera del calendario de tarifas no se lleva cuenta y devuelve el límite.
+     */
+    public int obtenerCupoDisponible(TipoHabitacion tipo, LocalDate noche) {
+        return cupos.disponibles(tipo, noche);
+    }
+
+    /**
+     * Vende habitaciones de un tipo para una estadía sin elegir cuáles: solo toma cupo del
+     * tipo en cada noche, con un CAS por noche y sin recorrer habitaciones ni tomar sus
+     * franjas. Las habitaciones se asignan al hacer el check-in con
+     * {@link #asignarHabitaciones(String)}.
+     * @throws IllegalArgumentException Si las fechas no son válidas o salen del calendario de tarifas.
+     * @throws IllegalStateException    Si alguna noche no queda cupo del tipo.
+     */
+    public VentaPorTipo venderPorTipo(Cliente cliente, TipoHabitacion tipo, int cantidad,
+                                      LocalDate checkIn, LocalDate checkOut, MetodoPago metodoPago) {
+        long inicio = medidorVenderPorTipo.iniciar();
+        boolean exito = false;
+        try {
+            validarFechas(checkIn, checkOut);
+            if (!cupos.cubre(checkIn, checkOut)) {
+                throw new IllegalArgumentException("Las fechas salen del calendario de tarifas");
+            }
+            if (!cupos.reservar(tipo, checkIn, checkOut, cantidad)) {
+                throw new IllegalStateException("No queda cupo de habitaciones " + tipo +
+                        " para las fechas seleccionadas");
+            }
+            VentaPorTipo venta = new VentaPorTipo(generadorIds.siguienteId(), cliente, tipo, cantidad,
+                    checkIn, checkOut, metodoPago);
+            ventasPorTipo.put(venta.getId(), venta);
+            logger.info("Venta por tipo creada: {}", venta.getIdVenta());
+            exito = true;
+            return venta;
+        } finally {
+            medidorVenderPorTipo.finalizar(inicio, exito);
+        }
+    }
+
+    /**
+     * Asigna habitaciones libres del tipo vendido al hacer el check-in y convierte la venta
+     * en una reserva pendiente con el mismo ID, lista para confirmarse. La reserva hereda
+     * el cupo de la venta, así que no se vuelve a descontar; al cancelarla se devuelve.
+     * @throws IllegalStateException Si la venta ya no está vigente, o si no quedan
+     *                               habitaciones libres del tipo, como puede pasar con
+     *                               sobreventa; en ese caso la venta sigue vigente.
+     */
+    public Reserva asignarHabitaciones(String idVenta) {
+        VentaPorTipo venta = obtenerVentaPorTipo(idVenta).orElseThrow(() ->
+                new IllegalArgumentException("Venta no encontrada con ID: " + idVenta));
+        Reserva reserva;
+        synchronized (venta) {
+            if (!venta.estaVigente()) {
+                throw new IllegalStateException("La venta " + idVenta + " ya no está vigente");
+            }
+            reserva = ocuparHabitacionesDelTipo(venta);
+            venta.asignar(reserva);
+        }
+        indexarYPublicar(reserva);
+        logger.info("Habitaciones asignadas a la venta {}: {}", idVenta, reserva.getHabitaciones().size());
+        return reserva;
+    }
+
+    /**
+     * Cancela una venta por tipo que todavía no tiene habitaciones y devuelve su cupo.
+     * Una venta ya asignada se cancela cancelando su reserva.
+     * @throws IllegalStateException Si la venta ya está cancelada o asignada.
+     */
+    public void cancelarVentaPorTipo(String idVenta) {
+        VentaPorTipo venta = obtenerVentaPorTipo(idVenta).orElseThrow(() ->
+                new IllegalArgumentException("Venta no encontrada con ID: " + idVenta));
+        synchronized (venta) {
+            if (!venta.estaVigente()) {
+                throw new IllegalStateException("La venta " + idVenta + " ya no está vigente");
+            }
+            venta.cancelar();
+            cupos.liberar(venta.getTipo(), venta.getFechaCheckIn(), venta.getFechaCheckOut(), venta.getCantidad());
+        }
+        logger.info("Venta por tipo cancelada: {}", idVenta);
+    }
+
+    /**
+     * Obtiene una venta por tipo por su ID.
+     */
+    public Optional<VentaPorTipo> obtenerVentaPorTipo(String idVenta) {
+        try {
+            return Optional.ofNullable(ventasPorTipo.get(IdReserva.interpretar(idVenta)));
+        } catch (IllegalArgumentException e) {
+            return Optional.empty();
         }
     }
 
@@ -144,43 +836,357 @@ public class GestorReservas {
      * Obtiene una reserva por su ID.
      */
     public Optional<Reserva> obtenerReservaPorId(String idReserva) {
-        return reservas.stream()
-                .filter(r -> r.getIdReserva().equals(idReserva))
-                .findFirst();
+        long id;
+        try {
+            id = IdReserva.interpretar(idReserva);
+        } catch (IllegalArgumentException e) {
+            return Optional.empty();
+        }
+        return obtenerReservaPorId(id);
+    }
+
+    /**
+     * Obtiene una reserva por su ID numérico.
+     */
+    public Optional<Reserva> obtenerReservaPorId(long id) {
+        return Optional.ofNullable(reservas.get(id));
+    }
+
+    /**
+     * Obtiene las reservas creadas en el intervalo [desde, hasta), en orden de creación.
+     * Recorre solo ese tramo del índice; requiere IDs ordenados por tiempo como los de
+     * {@link GeneradorIdsTemporal}.
+     */
+    public List<Reserva> obtenerReservasCreadasEntre(Instant desde, Instant hasta) {
+        return new ArrayList<>(ordenCreacion.subMap(GeneradorIdsTemporal.primerIdDesde(desde), true,
+                GeneradorIdsTemporal.primerIdDesde(hasta), false).values());
     }
 
     /**
      * Obtiene todas las reservas de un cliente específico.
      */
     public List<Reserva> obtenerReservasCliente(Cliente cliente) {
-        return reservas.stream()
-                .filter(r -> r.getCliente().equals(cliente))
-                .collect(Collectors.toList());
+        Queue<Reserva> delCliente = reservasPorCliente.get(cliente.getNumeroDocumento());
+        return delCliente == null ? new ArrayList<>() : new ArrayList<>(delCliente);
     }
 
     /**
      * Obtiene todas las reservas confirmadas.
      */
     public List<Reserva> obtenerReservasConfirmadas() {
-        return reservas.stream()
-                .filter(r -> r.getEstado() == com.hotelreservation.model.EstadoReserva.CONFIRMADA)
-                .collect(Collectors.toList());
+        return new ArrayList<>(reservasPorEstado.get(EstadoReserva.CONFIRMADA));
     }
 
     /**
-     * Obtiene todas las reservas.
+     * Obtiene todas las reservas, en el orden en que se incorporaron al gestor.
+     * Devuelve una instantánea de solo lectura que no copia nada: no crece con las reservas
+     * creadas después, pero cada reserva es el objeto vigente y su estado puede cambiar.
      */
     public List<Reserva> obtenerTodasLasReservas() {
-        return new ArrayList<>(reservas);
+        return historial.instantanea();
+    }
+
+    /**
+     * Obtiene todas las habitaciones registradas, como instantánea de solo lectura sin copia.
+     */
+    public List<Habitacion> obtenerHabitaciones() {
+        return inventario.habitaciones();
     }
 
     /**
      * Obtiene el total de ingresos de las reservas confirmadas.
      */
     public double obtenerIngresosTotales() {
-        return reservas.stream()
-                .filter(r -> r.getEstado() == com.hotelreservation.model.EstadoReserva.CONFIRMADA)
-                .mapToDouble(Reserva::getMontoTotal)
-                .sum();
+        return agregados.ingresos(EstadoReserva.CONFIRMADA);
+    }
+
+    /**
+     * Obtiene la suma de los montos de las reservas en el estado indicado.
+     */
+    public double obtenerIngresos(EstadoReserva estado) {
+        return agregados.ingresos(estado);
+    }
+
+    /**
+     * Obtiene los ingresos confirmados atribuidos a un tipo de habitación.
+     * El monto de una reserva con varias habitaciones se reparte según su precio base.
+     */
+    public double obtenerIngresos(TipoHabitacion tipo) {
+        return agregados.ingresos(EstadoReserva.CONFIRMADA, tipo);
+    }
+
+    /**
+     * Obtiene la cantidad de reservas en el estado indicado.
+     */
+    public long contarReservas(EstadoReserva estado) {
+        return agregados.cantidad(estado);
+    }
+
+    /**
+     * Obtiene cuántas habitaciones están ocupadas la noche indicada por reservas vigentes.
+     */
+    public long obtenerOcupacion(LocalDate noche) {
+        return agregados.ocupacion(noche);
+    }
+
+    /**
+     * Incorpora una reserva recuperada de disco con su estado ya restablecido.
+     * Ocupa sus noches y el cupo de sus tipos si no está cancelada, y la agrega a los
+     * índices sin publicar eventos.
+     */
+    public void restaurarReserva(Reserva reserva) {
+        int[] franjas = bloqueos.bloquear(reserva.getHabitaciones());
+        try {
+            if (reserva.getEstado() != EstadoReserva.CANCELADA) {
+                ocuparNoches(reserva);
+                cupos.restaurar(InventarioPorTipo.contarPorTipo(reserva.getHabitaciones()),
+                        reserva.getFechaCheckIn(), reserva.getFechaCheckOut());
+            }
+        } finally {
+            bloqueos.desbloquear(franjas);
+        }
+        indexar(reserva);
+    }
+
+    /**
+     * Notifica un evento a todos los observadores.
+     * Una falla de un observador se registra pero no deshace la operación. Si el que falla
+     * es crítico, como el diario, los demás se notifican igual y después se relanza su
+     * excepción: el cambio ya quedó hecho en memoria, pero quien lo pidió debe saber que
+     * no es duradero.
+     */
+    private void publicar(TipoEventoReserva tipo, Reserva reserva) {
+        if (observadores.isEmpty()) {
+            return;
+        }
+        EventoReserva evento = EventoReserva.de(tipo, reserva);
+        RuntimeException fallaCritica = null;
+        for (ObservadorReservas observador : observadores) {
+            try {
+                observador.notificar(evento);
+            } catch (RuntimeException e) {
+                logger.error("Error al notificar el evento {}: {}", evento, e.getMessage());
+                if (observador.esCritico() && fallaCritica == null) {
+                    fallaCritica = e;
+                }
+            }
+        }
+        if (fallaCritica != null) {
+            throw fallaCritica;
+        }
+    }
+
+    /**
+     * Indexa una reserva recién creada y después publica su creación, con el monitor de la
+     * reserva tomado. Así una instantánea que ya cubre el evento CREADA siempre la incluye,
+     * y ninguna transición de la reserva se publica antes que su creación.
+     */
+    private void indexarYPublicar(Reserva reserva) {
+        synchronized (reserva) {
+            indexar(reserva);
+            publicar(TipoEventoReserva.CREADA, reserva);
+        }
+    }
+
+    /**
+     * Agrega una reserva nueva a todos los índices.
+     */
+    private void indexar(Reserva reserva) {
+        // Antes de publicarla en el mapa: nadie más puede cambiarla todavía
+        agregados.agregar(reserva);
+        reservas.put(reserva.getId(), reserva);
+        ordenCreacion.put(reserva.getId(), reserva);
+        historial.agregar(reserva);
+        reservasPorCliente.computeIfAbsent(reserva.getCliente().getNumeroDocumento(),
+                k -> new ConcurrentLinkedQueue<>()).add(reserva);
+        reservasPorEstado.get(reserva.getEstado()).add(reserva);
+    }
+
+    /**
+     * Describe una creación para reconocer una clave de idempotencia reutilizada con otros datos.
+     */
+    private static String huellaCreacion(String operacion, Cliente cliente, List<Habitacion> habitaciones,
+                                         LocalDate checkIn, LocalDate checkOut) {
+        StringBuilder huella = new StringBuilder(operacion).append('|')
+                .append(cliente.getNumeroDocumento()).append('|')
+                .append(checkIn).append('|').append(checkOut);
+        for (Habitacion habitacion : habitaciones) {
+            huella.append('|').append(habitacion.getNumero());
+        }
+        return huella.toString();
+    }
+
+    /**
+     * Mueve la reserva dentro del índice por estado tras una transición.
+     * Debe invocarse con el monitor de la reserva tomado.
+     */
+    private void moverEstado(Reserva reserva, EstadoReserva estadoAnterior) {
+        if (reserva.getEstado() != estadoAnterior) {
+            reservasPorEstado.get(estadoAnterior).remove(reserva);
+            reservasPorEstado.get(reserva.getEstado()).add(reserva);
+        }
+    }
+
+    private void validarCodigoPromocional(String codigoPromocional) {
+        if (codigoPromocional != null && !reglas.esCodigoValido(codigoPromocional)) {
+            throw new IllegalArgumentException("Código promocional no válido: " + codigoPromocional);
+        }
+    }
+
+    /**
+     * Valida las fechas y que todas las habitaciones estén habilitadas en el inventario
+     * y libres en ese rango.
+     */
+    private void validarDisponibilidad(List<Habitacion> habitaciones,
+                                       LocalDate checkIn, LocalDate checkOut) {
+        validarFechas(checkIn, checkOut);
+
+        for (Habitacion habitacion : habitaciones) {
+            if (!inventario.estaDisponible(habitacion.getNumero(), checkIn.toEpochDay(), checkOut.toEpochDay())) {
+                throw new IllegalStateException("La habitación " + habitacion.getNumero() +
+                        " no está disponible para las fechas seleccionadas");
+            }
+        }
+    }
+
+    private static void validarFechas(LocalDate checkIn, LocalDate checkOut) {
+        if (checkIn.isAfter(checkOut) || checkIn.equals(checkOut)) {
+            throw new IllegalArgumentException("Las fechas de check-in y check-out son inválidas");
+        }
+    }
+
+    /**
+     * Toma el cupo de los tipos de las habitaciones y crea la reserva; si la creación
+     * falla, devuelve el cupo.
+     * Debe invocarse con las franjas de las habitaciones tomadas y su disponibilidad validada.
+     * @throws IllegalStateException Si a algún tipo no le queda cupo en esas fechas.
+     */
+    private Reserva crearConCupo(List<Habitacion> habitaciones, LocalDate checkIn, LocalDate checkOut,
+                                 Supplier<Reserva> creacion) {
+        int[] cantidades = InventarioPorTipo.contarPorTipo(habitaciones);
+        if (!cupos.reservar(cantidades, checkIn, checkOut)) {
+            throw new IllegalStateException("No queda cupo de habitaciones de ese tipo para las fechas seleccionadas");
+        }
+        try {
+            Reserva reserva = creacion.get();
+            ocuparNoches(reserva);
+            return reserva;
+        } catch (RuntimeException e) {
+            cupos.liberar(cantidades, checkIn, checkOut);
+            throw e;
+        }
+    }
+
+    /**
+     * Elige habitaciones libres del tipo vendido, las ocupa y crea la reserva de la venta
+     * con su cupo ya tomado. Si otra reserva toma alguna entre la búsqueda y el bloqueo de
+     * sus franjas, vuelve a buscar.
+     * Debe invocarse con el monitor de la venta tomado.
+     */
+    private Reserva ocuparHabitacionesDelTipo(VentaPorTipo venta) {
+        LocalDate checkIn = venta.getFechaCheckIn();
+        LocalDate checkOut = venta.getFechaCheckOut();
+        while (true) {
+            List<Habitacion> libres = inventario.libres(checkIn.toEpochDay(), checkOut.toEpochDay(),
+                    venta.getTipo(), Long.MAX_VALUE);
+            if (libres.size() < venta.getCantidad()) {
+                throw new IllegalStateException("No quedan habitaciones " + venta.getTipo() +
+                        " libres para la venta " + venta.getIdVenta());
+            }
+            List<Habitacion> habitaciones = new ArrayList<>(libres.subList(0, venta.getCantidad()));
+            int[] franjas = bloqueos.bloquear(habitaciones);
+            try {
+                boolean siguenLibres = true;
+                for (Habitacion habitacion : habitaciones) {
+                    siguenLibres &= inventario.estaDisponible(habitacion.getNumero(),
+                            checkIn.toEpochDay(), checkOut.toEpochDay());
+                }
+                if (siguenLibres) {
+                    Reserva reserva = new Reserva(venta.getId(), venta.getCliente(), habitaciones,
+                            checkIn, checkOut, venta.getMetodoPago(), tarifas, reglas, null);
+                    ocuparNoches(reserva);
+                    return reserva;
+                }
+            } finally {
+                bloqueos.desbloquear(franjas);
+            }
+        }
+    }
+
+    /**
+     * Traslada las noches de la reserva, y el cupo de sus tipos, al nuevo rango de fechas.
+     * Si el nuevo rango no está libre, las noches originales quedan como estaban.
+     * Debe invocarse con las franjas de sus habitaciones y el monitor de la reserva tomados.
+     */
+    private void moverNoches(Reserva reserva, LocalDate nuevaFechaCheckIn, LocalDate nuevaFechaCheckOut) {
+        LocalDate checkInAnterior = reserva.getFechaCheckIn();
+        LocalDate checkOutAnterior = reserva.getFechaCheckOut();
+        int[] cantidades = InventarioPorTipo.contarPorTipo(reserva.getHabitaciones());
+        boolean vigente = reserva.getEstado() != EstadoReserva.CANCELADA;
+
+        // Liberar las noches actuales para que no bloqueen el nuevo rango
+        liberarNoches(reserva);
+        boolean cupoTomado = false;
+        try {
+            if (vigente) {
+                for (Habitacion habitacion : reserva.getHabitaciones()) {
+                    if (!calendario.estaLibre(habitacion.getNumero(), nuevaFechaCheckIn, nuevaFechaCheckOut)) {
+                        throw new IllegalStateException("La habitación " + habitacion.getNumero() +
+                                " no está disponible para las fechas seleccionadas");
+                    }
+                }
+                // Solo las noches nuevas; el cupo de las que se dejan se devuelve al final,
+                // así nadie lo toma si el cambio falla
+                if (!cupos.reservarFuera(cantidades, nuevaFechaCheckIn, nuevaFechaCheckOut,
+                        checkInAnterior, checkOutAnterior)) {
+                    throw new IllegalStateException(
+                            "No queda cupo de habitaciones de ese tipo para las fechas seleccionadas");
+                }
+                cupoTomado = true;
+            }
+            reserva.cambiarFechas(nuevaFechaCheckIn, nuevaFechaCheckOut);
+        } catch (RuntimeException e) {
+            if (cupoTomado) {
+                cupos.liberarFuera(cantidades, nuevaFechaCheckIn, nuevaFechaCheckOut,
+                        checkInAnterior, checkOutAnterior);
+            }
+            restaurarNoches(reserva, checkInAnterior, checkOutAnterior);
+            throw e;
+        }
+        if (vigente) {
+            cupos.liberarFuera(cantidades, checkInAnterior, checkOutAnterior, nuevaFechaCheckIn, nuevaFechaCheckOut);
+        }
+        ocuparNoches(reserva);
+    }
+
+    /**
+     * Ocupa en el calendario las noches de todas las habitaciones de la reserva.
+     */
+    private void ocuparNoches(Reserva reserva) {
+        for (Habitacion habitacion : reserva.getHabitaciones()) {
+            calendario.ocupar(habitacion.getNumero(), reserva.getFechaCheckIn(),
+                    reserva.getFechaCheckOut(), reserva.getId());
+        }
+    }
+
+    /**
+     * Libera en el calendario las noches de todas las habitaciones de la reserva.
+     */
+    private void liberarNoches(Reserva reserva) {
+        for (Habitacion habitacion : reserva.getHabitaciones()) {
+            calendario.liberar(habitacion.getNumero(), reserva.getFechaCheckIn(), reserva.getId());
+        }
+    }
+
+    /**
+     * Vuelve a ocupar las noches originales tras un cambio de fechas fallido.
+     */
+    private void restaurarNoches(Reserva reserva, LocalDate checkIn, LocalDate checkOut) {
+        if (reserva.getEstado() == EstadoReserva.CANCELADA) {
+            return;
+        }
+        for (Habitacion habitacion : reserva.getHabitaciones()) {
+            calendario.ocupar(habitacion.getNumero(), checkIn, checkOut, reserva.getId());
+        }
     }
 }
@@ -0,0 +1,33 @@
+package com.hotelreservation.service;
+
+import com.hotelreservation.model.Habitacion;
+
+/**
+ * Habitación encontrada por una búsqueda, junto con el monto de la estadía pedida.
+ */
+public class HabitacionCotizada {
+    private final Habitacion habitacion;
+    private final long centavos;
+
+    HabitacionCotizada(Habitacion habitacion, long centavos) {
+        this.habitacion = habitacion;
+        this.centavos = centavos;
+    }
+
+    public Habitacion getHabitacion() {
+        return habitacion;
+    }
+
+    public double getMonto() {
+        return centavos / 100.0;
+    }
+
+    long getCentavos() {
+        return centavos;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s | Estadía: $%.2f", habitacion, getMonto());
+    }
+}
@@ -0,0 +1,380 @@
+package com.hotelreservation.service;
+
+import com.hotelreservation.model.Habitacion;
+import com.hotelreservation.model.TipoHabitacion;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.RandomAccess;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Inventario de habitaciones guardado por columnas: el único registro de las habitaciones
+ * del gestor.
+ * SRP: Responsabilidad única de guardar cada habitación con su habilitación y sus noches.
+ * Cada habitación es una fila. El tipo se guarda como ordinal en un byte[], la tarifa
+ * por noche en centavos en un long[], la habilitación para la venta como un bit en un
+ * long[] y las estancias que consulta {@link CalendarioOcupacion} en otra columna. Las
+ * filas de cada tipo se listan aparte, para que {@link BuscadorHabitaciones} recorra un
+ * tipo sin mirar los demás. Los números se guardan una sola vez, en la tabla que da la
+ * fila de cada uno, y las filas se referencian por posición.
+ * El bit es la única fuente de verdad de la habilitación: la validación de las reservas,
+ * los recorridos completos y el buscador lo leen a él, nunca a la Habitacion.
+ * Filtrar recorre arreglos primitivos contiguos con lazos simples, sin llamadas
+ * virtuales a las cuatro implementaciones de Habitacion, y descarta de a 64 filas las
+ * palabras sin bits. Solo las filas que pasan el filtro consultan su calendario.
+ * Las columnas se publican como una instantánea con una cantidad de filas: registrar
+ * escribe más allá de esa cantidad y publica una instantánea nueva, y cambiar la
+ * habilitación copia solo el arreglo de bits, así que leer no bloquea nunca.
+ * La habilitación se cambia con {@link #retirar(String)} y {@link #reponer(String)}, que
+ * actualizan la habitación y su bit juntos; marcar directamente una Habitacion no cambia
+ * su disponibilidad para la venta.
+ */
+class InventarioColumnar {
+    private static final int BITS_PALABRA = 64;
+    private static final int TIPOS = TipoHabitacion.values().length;
+
+    private final Map<String, Integer> filasPorNumero;
+    private volatile Columnas columnas;
+
+    InventarioColumnar() {
+        this.filasPorNumero = new ConcurrentHashMap<>();
+        this.columnas = new Columnas(16);
+    }
+
+    /**
+     * Agrega una habitación como fila nueva, sin noches ocupadas. Registrar de nuevo un
+     * número ya registrado no hace nada.
+     * @return La fila asignada.
+     */
+    synchronized int registrar(Habitacion habitacion) {
+        Integer existente = filasPorNumero.get(habitacion.getNumero());
+        if (existente != null) {
+            return existente;
+        }
+        Columnas actual = columnas;
+        Columnas nuevas = actual.cantidad == actual.habitaciones.length
+                ? actual.crecer(actual.habitaciones.length * 2)
+                : actual.compartir();
+        int fila = actual.cantidad;
+        // Las filas a partir de la cantidad publicada no las lee nadie todavía, ni siquiera su bit
+        nuevas.habitaciones[fila] = habitacion;
+        nuevas.tipos[fila] = (byte) habitacion.getTipo().ordinal();
+        nuevas.centavosNoche[fila] = Math.round(habitacion.getPrecioNoche() * 100);
+        nuevas.estancias[fila] = new ConcurrentSkipListMap<>();
+        if (habitacion.estaDisponible()) {
+            nuevas.habilitadas[fila >>> 6] |= 1L << fila;
+        }
+        nuevas.agregarATipo(habitacion.getTipo().ordinal(), fila);
+        nuevas.cantidad = fila + 1;
+        filasPorNumero.put(habitacion.getNumero(), fila);
+        columnas = nuevas;
+        return fila;
+    }
+
+    /**
+     * Habitación registrada con el número indicado, o null si no hay ninguna.
+     */
+    Habitacion habitacion(String numero) {
+        Columnas instantanea = columnas;
+        int fila = fila(instantanea, numero);
+        return fila < 0 ? null : instantanea.habitaciones[fila];
+    }
+
+    /**
+     * Estancias de la habitación con el número indicado, o null si no está registrada.
+     */
+    NavigableMap<Long, CalendarioOcupacion.Estancia> estancias(String numero) {
+        Columnas instantanea = columnas;
+        int fila = fila(instantanea, numero);
+        return fila < 0 ? null : instantanea.estancias[fila];
+    }
+
+    /**
+     * Indica si la habitación está registrada, habilitada y libre todas las noches del rango.
+     */
+    boolean estaDisponible(String numero, long diaCheckIn, long diaCheckOut) {
+        Columnas instantanea = columnas;
+        int fila = fila(instantanea, numero);
+        return fila >= 0 && instantanea.habilitada(fila)
+                && CalendarioOcupacion.estaLibre(instantanea.estancias[fila], diaCheckIn, diaCheckOut);
+    }
+
+    /**
+     * Todas las habitaciones registradas, en orden de registro, como lista de solo lectura
+     * sin copia: no crece con las que se registren después.
+     */
+    List<Habitacion> habitaciones() {
+        return new Vista(columnas);
+    }
+
+    /**
+     * Instantánea actual de las columnas, para recorrerla sin bloquear.
+     */
+    Columnas instantanea() {
+        return columnas;
+    }
+
+    /**
+     * Retira la habitación de la venta: la marca como ocupada y apaga su bit.
+     * @return false si ya estaba retirada.
+     */
+    synchronized boolean retirar(String numero) {
+        int fila = filaRegistrada(numero);
+        if (!columnas.habilitada(fila)) {
+            return false;
+        }
+        columnas.habitaciones[fila].marcarOcupada();
+        fijarBit(fila, false);
+        return true;
+    }
+
+    /**
+     * Vuelve a poner la habitación a la venta: la marca como disponible y enciende su bit.
+     */
+    synchronized void reponer(String numero) {
+        int fila = filaRegistrada(numero);
+        columnas.habitaciones[fila].marcarDisponible();
+        fijarBit(fila, true);
+    }
+
+    private int fila(Columnas instantanea, String numero) {
+        Integer fila = filasPorNumero.get(numero);
+        // La fila se publica en la tabla antes que la instantánea que la contiene
+        return fila == null || fila >= instantanea.cantidad ? -1 : fila;
+    }
+
+    private int filaRegistrada(String numero) {
+        Integer fila = filasPorNumero.get(numero);
+        if (fila == null) {
+            throw new IllegalArgumentException("Habitación no registrada: " + numero);
+        }
+        return fila;
+    }
+
+    private void fijarBit(int fila, boolean habilitada) {
+        Columnas nuevas = columnas.copiarHabilitadas();
+        if (habilitada) {
+            nuevas.habilitadas[fila >>> 6] |= 1L << fila;
+        } else {
+            nuevas.habilitadas[fila >>> 6] &= ~(1L << fila);
+        }
+        columnas = nuevas;
+    }
+
+    /**
+     * Habitaciones habilitadas y libres todas las noches del rango, en orden de registro.
+     */
+    List<Habitacion> libres(long diaCheckIn, long diaCheckOut) {
+        Columnas instantanea = columnas;
+        return libres(instantanea, instantanea.habilitadas, diaCheckIn, diaCheckOut);
+    }
+
+    /**
+     * Como {@link #libres(long, long)}, pero solo del tipo indicado (o de todos si es null)
+     * y con tarifa por noche de hasta el máximo indicado, en centavos.
+     */
+    List<Habitacion> libres(long diaCheckIn, long diaCheckOut, TipoHabitacion tipo, long maximoCentavosNoche) {
+        Columnas instantanea = columnas;
+        return libres(instantanea, filtrar(instantanea, tipo, maximoCentavosNoche), diaCheckIn, diaCheckOut);
+    }
+
+    /**
+     * Cantidad de habitaciones habilitadas del tipo indicado, o de todas si es null.
+     */
+    int contarHabilitadas(TipoHabitacion tipo) {
+        int total = 0;
+        for (long palabra : filtrar(columnas, tipo, Long.MAX_VALUE)) {
+            total += Long.bitCount(palabra);
+        }
+        return total;
+    }
+
+    /**
+     * Bits de las filas habilitadas que además cumplen el tipo y la tarifa. Recorre las
+     * columnas de a una palabra: el lazo interno solo compara y desplaza, sin saltos.
+     */
+    private static long[] filtrar(Columnas instantanea, TipoHabitacion tipo, long maximoCentavosNoche) {
+        byte[] tipos = instantanea.tipos;
+        long[] centavosNoche = instantanea.centavosNoche;
+        long[] habilitadas = instantanea.habilitadas;
+        int cantidad = instantanea.cantidad;
+        int buscado = tipo == null ? -1 : tipo.ordinal();
+        long[] candidatas = new long[habilitadas.length];
+        for (int palabra = 0; palabra * BITS_PALABRA < cantidad; palabra++) {
+            long habilitadasPalabra = habilitadas[palabra];
+            if (habilitadasPalabra == 0) {
+                continue;
+            }
+            int base = palabra * BITS_PALABRA;
+            int fin = Math.min(base + BITS_PALABRA, cantidad);
+            long bits = 0;
+            for (int fila = base; fila < fin; fila++) {
+                boolean cumple = (buscado < 0 | tipos[fila] == buscado) & centavosNoche[fila] <= maximoCentavosNoche;
+                bits |= (cumple ? 1L : 0L) << fila;
+            }
+            candidatas[palabra] = bits & habilitadasPalabra;
+        }
+        return candidatas;
+    }
+
+    private static List<Habitacion> libres(Columnas instantanea, long[] candidatas,
+                                           long diaCheckIn, long diaCheckOut) {
+        List<Habitacion> libres = new ArrayList<>();
+        int cantidad = instantanea.cantidad;
+        for (int palabra = 0; palabra * BITS_PALABRA < cantidad; palabra++) {
+            long bits = candidatas[palabra];
+            while (bits != 0) {
+                int fila = palabra * BITS_PALABRA + Long.numberOfTrailingZeros(bits);
+                bits &= bits - 1;
+                if (fila >= cantidad) {
+                    break;
+                }
+                if (CalendarioOcupacion.estaLibre(instantanea.estancias[fila], diaCheckIn, diaCheckOut)) {
+                    libres.add(instantanea.habitaciones[fila]);
+                }
+            }
+        }
+        return libres;
+    }
+
+    /**
+     * Vista publicada de las columnas: las primeras {@code cantidad} filas no cambian,
+     * salvo la habilitación, que se cambia en una copia de su arreglo.
+     */
+    static final class Columnas {
+        private final Habitacion[] habitaciones;
+        private final byte[] tipos;
+        private final long[] centavosNoche;
+        private final long[] habilitadas;
+        private final NavigableMap<Long, CalendarioOcupacion.Estancia>[] estancias;
+        // Filas de cada tipo en orden de registro; solo las primeras cantidadPorTipo[t] son válidas
+        private final int[][] filasPorTipo;
+        private final int[] cantidadPorTipo;
+        private int cantidad;
+
+        private Columnas(int capacidad) {
+            this(new Habitacion[capacidad], new byte[capacidad], new long[capacidad],
+                    new long[palabras(capacidad)], nuevasEstancias(capacidad), new int[TIPOS][16],
+                    new int[TIPOS], 0);
+        }
+
+        private Columnas(Habitacion[] habitaciones, byte[] tipos, long[] centavosNoche,
+                         long[] habilitadas, NavigableMap<Long, CalendarioOcupacion.Estancia>[] estancias,
+                         int[][] filasPorTipo, int[] cantidadPorTipo, int cantidad) {
+            this.habitaciones = habitaciones;
+            this.tipos = tipos;
+            this.centavosNoche = centavosNoche;
+            this.habilitadas = habilitadas;
+            this.estancias = estancias;
+            this.filasPorTipo = filasPorTipo;
+            this.cantidadPorTipo = cantidadPorTipo;
+            this.cantidad = cantidad;
+        }
+
+        Habitacion habitacion(int fila) {
+            return habitaciones[fila];
+        }
+
+        boolean habilitada(int fila) {
+            return (habilitadas[fila >>> 6] & (1L << fila)) != 0;
+        }
+
+        NavigableMap<Long, CalendarioOcupacion.Estancia> estancias(int fila) {
+            return estancias[fila];
+        }
+
+        /**
+         * Filas del tipo en orden de registro; solo son válidas las primeras
+         * {@link #cantidadDeTipo(int)}.
+         */
+        int[] filasDeTipo(int tipo) {
+            return filasPorTipo[tipo];
+        }
+
+        int cantidadDeTipo(int tipo) {
+            return cantidadPorTipo[tipo];
+        }
+
+        /**
+         * Agrega la fila a su tipo. Solo sobre una instantánea que todavía no se publicó.
+         */
+        private void agregarATipo(int tipo, int fila) {
+            int[] filas = filasPorTipo[tipo];
+            int cantidadTipo = cantidadPorTipo[tipo];
+            if (cantidadTipo == filas.length) {
+                filas = Arrays.copyOf(filas, filas.length * 2);
+                filasPorTipo[tipo] = filas;
+            }
+            filas[cantidadTipo] = fila;
+            cantidadPorTipo[tipo] = cantidadTipo + 1;
+        }
+
+        /**
+         * Copia con más capacidad; la instantánea actual sigue siendo válida para quien la lee.
+         */
+        private Columnas crecer(int capacidad) {
+            return new Columnas(Arrays.copyOf(habitaciones, capacidad), Arrays.copyOf(tipos, capacidad),
+                    Arrays.copyOf(centavosNoche, capacidad),
+                    Arrays.copyOf(habilitadas, palabras(capacidad)), Arrays.copyOf(estancias, capacidad),
+                    filasPorTipo.clone(), cantidadPorTipo.clone(), cantidad);
+        }
+
+        /**
+         * Otra instantánea sobre los mismos arreglos, para publicar filas nuevas. Las
+         * cantidades por tipo y el directorio de filas por tipo, que son pequeños, se copian.
+         */
+        private Columnas compartir() {
+            return new Columnas(habitaciones, tipos, centavosNoche, habilitadas, estancias,
+                    filasPorTipo.clone(), cantidadPorTipo.clone(), cantidad);
+        }
+
+        /**
+         * Comparte las columnas que no cambian y copia solo el arreglo de bits.
+         */
+        private Columnas copiarHabilitadas() {
+            return new Columnas(habitaciones, tipos, centavosNoche, habilitadas.clone(),
+                    estancias, filasPorTipo, cantidadPorTipo, cantidad);
+        }
+
+        private static int palabras(int filas) {
+            return (filas + BITS_PALABRA - 1) / BITS_PALABRA;
+        }
+
+        @SuppressWarnings("unchecked")
+        private static NavigableMap<Long, CalendarioOcupacion.Estancia>[] nuevasEstancias(int capacidad) {
+            return (NavigableMap<Long, CalendarioOcupacion.Estancia>[]) new NavigableMap<?, ?>[capacidad];
+        }
+    }
+
+    /**
+     * Las habitaciones de una instantánea como lista de solo lectura.
+     */
+    private static final class Vista extends AbstractList<Habitacion> implements RandomAccess {
+        private final Habitacion[] habitaciones;
+        private final int cantidad;
+
+        private Vista(Columnas instantanea) {
+            this.habitaciones = instantanea.habitaciones;
+            this.cantidad = instantanea.cantidad;
+        }
+
+        @Override
+        public Habitacion get(int indice) {
+            if (indice < 0 || indice >= cantidad) {
+                throw new IndexOutOfBoundsException("Índice " + indice + " fuera de 0.." + cantidad);
+            }
+            return habitaciones[indice];
+        }
+
+        @Override
+        public int size() {
+            return cantidad;
+        }
+    }
+}
@@ -0,0 +1,256 @@
+package com.hotelreservation.service;
+
+import com.hotelreservation.model.Habitacion;
+import com.hotelreservation.model.TablaTarifas;
+import com.hotelreservation.model.TipoHabitacion;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Cupos vendidos por tipo de habitación y noche, con sobreventa configurable.
+ * SRP: Responsabilidad única de decidir si queda cupo de un tipo para una estadía.
+ * Permite vender el tipo y no una habitación concreta: una venta por tipo solo toma
+ * cupo, y la habitación se asigna al hacer el check-in. Las reservas de habitaciones
+ * concretas también toman el cupo de su tipo, así que ambas comparten el mismo límite.
+ * Cada par (tipo, noche) es un contador en un único {@link AtomicIntegerArray} indexado
+ * por día sobre el calendario de la tabla de tarifas. Los contadores están separados por
+ * una línea de caché, así que las noches vecinas de una misma estadía, o de otro tipo,
+ * no se estorban entre sí. Tomar cupo es un CAS por noche, sin bloqueos ni recorrer
+ * habitaciones. Si una noche no tiene cupo se devuelven las ya tomadas; mientras tanto
+ * otra venta puede ver ese cupo ocupado y fallar, pero nunca se vende de más.
+ * El límite de cada tipo es su capacidad más la sobreventa permitida. Las noches fuera
+ * del calendario no se cuentan: en ellas solo decide el calendario de cada habitación.
+ */
+class InventarioPorTipo {
+    private static final TipoHabitacion[] TIPOS = TipoHabitacion.values();
+    // 16 enteros = 64 bytes: cada contador en su propia línea de caché
+    private static final int SEPARACION = 16;
+
+    private final long diaInicio;
+    private final int dias;
+    private final AtomicIntegerArray vendidas;
+    private final int[] capacidades;
+    private final double[] sobreventas;
+    private volatile int[] limites;
+
+    /**
+     * Crea un inventario sin capacidad sobre el calendario de la tabla de tarifas.
+     */
+    InventarioPorTipo(TablaTarifas tarifas) {
+        this.diaInicio = tarifas.getInicio().toEpochDay();
+        this.dias = (int) (tarifas.getFin().toEpochDay() - diaInicio);
+        this.vendidas = new AtomicIntegerArray(TIPOS.length * dias * SEPARACION);
+        this.capacidades = new int[TIPOS.length];
+        this.sobreventas = new double[TIPOS.length];
+        this.limites = new int[TIPOS.length];
+    }
+
+    /**
+     * Cantidad de habitaciones de cada tipo, indexada por ordinal.
+     */
+    static int[] contarPorTipo(List<Habitacion> habitaciones) {
+        int[] cantidades = new int[TIPOS.length];
+        for (Habitacion habitacion : habitaciones) {
+            cantidades[habitacion.getTipo().ordinal()]++;
+        }
+        return cantidades;
+    }
+
+    /**
+     * Suma habitaciones a la capacidad del tipo.
+     */
+    synchronized void agregarCapacidad(TipoHabitacion tipo, int habitaciones) {
+        capacidades[tipo.ordinal()] += habitaciones;
+        publicarLimites();
+    }
+
+    /**
+     * Fija la sobreventa permitida como fracción de la capacidad; 0.05 permite vender
+     * un 5 % más de habitaciones de las que hay.
+     */
+    synchronized void fijarSobreventa(TipoHabitacion tipo, double fraccion) {
+        if (!(fraccion >= 0)) {
+            throw new IllegalArgumentException("La sobreventa no puede ser negativa");
+        }
+        sobreventas[tipo.ordinal()] = fraccion;
+        publicarLimites();
+    }
+
+    /**
+     * Indica si todas las noches entre check-in y check-out están en el calendario.
+     */
+    boolean cubre(LocalDate checkIn, LocalDate checkOut) {
+        return checkIn.toEpochDay() >= diaInicio && checkOut.toEpochDay() - diaInicio <= dias;
+    }
+
+    /**
+     * Vende la cantidad de habitaciones del tipo para cada noche entre check-in
+     * (inclusive) y check-out (exclusive), si alcanza el cupo en todas.
+     * @return true si se vendió; false si alguna noche no tenía cupo.
+     */
+    boolean reservar(TipoHabitacion tipo, LocalDate checkIn, LocalDate checkOut, int cantidad) {
+        if (cantidad <= 0) {
+            throw new IllegalArgumentException("La cantidad debe ser positiva");
+        }
+        int[] cantidades = new int[TIPOS.length];
+        cantidades[tipo.ordinal()] = cantidad;
+        return reservar(cantidades, checkIn, checkOut);
+    }
+
+    /**
+     * Toma la cantidad de habitaciones de cada tipo para las noches entre check-in
+     * (inclusive) y check-out (exclusive), si alcanza el cupo de todos los tipos en todas.
+     * @param cantidades Habitaciones por tipo, indexadas por ordinal.
+     * @return true si se tomó; false si no, y entonces no queda nada tomado.
+     */
+    boolean reservar(int[] cantidades, LocalDate checkIn, LocalDate checkOut) {
+        return reservarFuera(cantidades, checkIn, checkOut, checkOut, checkOut);
+    }
+
+    /**
+     * Como {@link #reservar(int[], LocalDate, LocalDate)}, pero sin las noches entre
+     * {@code excluirDesde} y {@code excluirHasta}: al cambiar las fechas de una reserva,
+     * las noches que comparten ambos rangos ya están tomadas y no se tocan.
+     */
+    boolean reservarFuera(int[] cantidades, LocalDate checkIn, LocalDate checkOut,
+                          LocalDate excluirDesde, LocalDate excluirHasta) {
+        int primera = dia(checkIn);
+        int ultima = dia(checkOut);
+        int finTramoPrevio = Math.min(ultima, dia(excluirDesde));
+        int inicioTramoPosterior = Math.max(primera, dia(excluirHasta));
+        if (!reservarDias(cantidades, primera, finTramoPrevio)) {
+            return false;
+        }
+        if (!reservarDias(cantidades, inicioTramoPosterior, ultima)) {
+            devolverDias(cantidades, primera, finTramoPrevio);
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Devuelve al cupo una venta del tipo cancelada.
+     */
+    void liberar(TipoHabitacion tipo, LocalDate checkIn, LocalDate checkOut, int cantidad) {
+        int[] cantidades = new int[TIPOS.length];
+        cantidades[tipo.ordinal()] = cantidad;
+        liberar(cantidades, checkIn, checkOut);
+    }
+
+    /**
+     * Devuelve al cupo las habitaciones de cada tipo de una reserva cancelada.
+     */
+    void liberar(int[] cantidades, LocalDate checkIn, LocalDate checkOut) {
+        liberarFuera(cantidades, checkIn, checkOut, checkOut, checkOut);
+    }
+
+    /**
+     * Como {@link #liberar(int[], LocalDate, LocalDate)}, pero sin las noches entre
+     * {@code excluirDesde} y {@code excluirHasta}.
+     */
+    void liberarFuera(int[] cantidades, LocalDate checkIn, LocalDate checkOut,
+                      LocalDate excluirDesde, LocalDate excluirHasta) {
+        int primera = dia(checkIn);
+        int ultima = dia(checkOut);
+        devolverDias(cantidades, primera, Math.min(ultima, dia(excluirDesde)));
+        devolverDias(cantidades, Math.max(primera, dia(excluirHasta)), ultima);
+    }
+
+    /**
+     * Vuelve a contar una reserva recuperada de disco aunque supere el límite: ya estaba
+     * vendida antes de reiniciar.
+     */
+    void restaurar(int[] cantidades, LocalDate checkIn, LocalDate checkOut) {
+        int primera = dia(checkIn);
+        int ultima = dia(checkOut);
+        for (int tipo = 0; tipo < TIPOS.length; tipo++) {
+            if (cantidades[tipo] > 0) {
+                sumarDias(tipo, cantidades[tipo], primera, ultima);
+            }
+        }
+    }
+
+    /**
+     * Habitaciones del tipo vendidas para la noche; 0 fuera del calendario.
+     */
+    int vendidas(TipoHabitacion tipo, LocalDate noche) {
+        long dia = noche.toEpochDay() - diaInicio;
+        return dia < 0 || dia >= dias ? 0 : vendidas.get((tipo.ordinal() * dias + (int) dia) * SEPARACION);
+    }
+
+    /**
+     * Cupo que queda para la noche; es negativo si se bajó la sobreventa por debajo de lo vendido.
+     */
+    int disponibles(TipoHabitacion tipo, LocalDate noche) {
+        return limite(tipo) - vendidas(tipo, noche);
+    }
+
+    int limite(TipoHabitacion tipo) {
+        return limites[tipo.ordinal()];
+    }
+
+    private boolean reservarDias(int[] cantidades, int desde, int hasta) {
+        for (int tipo = 0; tipo < TIPOS.length; tipo++) {
+            if (cantidades[tipo] > 0 && !reservarDias(tipo, cantidades[tipo], desde, hasta)) {
+                for (int anterior = 0; anterior < tipo; anterior++) {
+                    if (cantidades[anterior] > 0) {
+                        sumarDias(anterior, -cantidades[anterior], desde, hasta);
+                    }
+                }
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean reservarDias(int tipo, int cantidad, int desde, int hasta) {
+        int limite = limites[tipo];
+        int fila = tipo * dias;
+        for (int dia = desde; dia < hasta; dia++) {
+            int indice = (fila + dia) * SEPARACION;
+            while (true) {
+                int actual = vendidas.get(indice);
+                if (actual + cantidad > limite) {
+                    sumarDias(tipo, -cantidad, desde, dia);
+                    return false;
+                }
+                if (vendidas.compareAndSet(indice, actual, actual + cantidad)) {
+                    break;
+                }
+            }
+        }
+        return true;
+    }
+
+    private void devolverDias(int[] cantidades, int desde, int hasta) {
+        for (int tipo = 0; tipo < TIPOS.length; tipo++) {
+            if (cantidades[tipo] > 0) {
+                sumarDias(tipo, -cantidades[tipo], desde, hasta);
+            }
+        }
+    }
+
+    private void sumarDias(int tipo, int cantidad, int desde, int hasta) {
+        int fila = tipo * dias;
+        for (int dia = desde; dia < hasta; dia++) {
+            vendidas.addAndGet((fila + dia) * SEPARACION, cantidad);
+        }
+    }
+
+    private void publicarLimites() {
+        int[] nuevos = new int[TIPOS.length];
+        for (int i = 0; i < nuevos.length; i++) {
+            nuevos[i] = capacidades[i] + (int) Math.floor(capacidades[i] * sobreventas[i]);
+        }
+        limites = nuevos;
+    }
+
+    /**
+     * Desplazamiento de la fecha en el calendario, recortado a sus bordes.
+     */
+    private int dia(LocalDate fecha) {
+        return (int) Math.max(0, Math.min(dias, fecha.toEpochDay() - diaInicio));
+    }
+}
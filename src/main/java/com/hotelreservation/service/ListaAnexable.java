@@ -0,0 +1,87 @@
+package com.hotelreservation.service;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * Lista a la que solo se agregan elementos, con instantáneas de costo O(1).
+ * SRP: Responsabilidad única de publicar versiones de una colección que solo crece.
+ * Los elementos viven en tramos de tamaño fijo que nunca se copian; agregar un tramo
+ * solo copia el directorio de referencias, que comparten todas las versiones.
+ * Cada versión publicada es un par (directorio, cantidad) inmutable: una instantánea
+ * es ese par envuelto en una lista de solo lectura, sin copiar elementos, y sigue
+ * viendo la misma cantidad aunque después se agreguen más.
+ * Leer no bloquea; agregar está sincronizado y solo escribe una posición.
+ */
+class ListaAnexable<T> {
+    private static final int BITS_TRAMO = 10;
+    private static final int TAMANO_TRAMO = 1 << BITS_TRAMO;
+    private static final int MASCARA_TRAMO = TAMANO_TRAMO - 1;
+
+    private volatile Version version = new Version(new Object[4][], 0);
+
+    /**
+     * Agrega un elemento al final y publica la nueva versión.
+     */
+    synchronized void agregar(T elemento) {
+        Version actual = version;
+        Object[][] tramos = actual.tramos;
+        int tramo = actual.cantidad >>> BITS_TRAMO;
+        if (tramo == tramos.length) {
+            tramos = Arrays.copyOf(tramos, tramos.length * 2);
+        }
+        if (tramos[tramo] == null) {
+            tramos[tramo] = new Object[TAMANO_TRAMO];
+        }
+        // Las posiciones a partir de la cantidad publicada no las lee ninguna instantánea
+        tramos[tramo][actual.cantidad & MASCARA_TRAMO] = elemento;
+        version = new Version(tramos, actual.cantidad + 1);
+    }
+
+    int cantidad() {
+        return version.cantidad;
+    }
+
+    /**
+     * Vista de solo lectura de los elementos agregados hasta ahora.
+     */
+    List<T> instantanea() {
+        return new Instantanea<>(version);
+    }
+
+    private static final class Version {
+        private final Object[][] tramos;
+        private final int cantidad;
+
+        private Version(Object[][] tramos, int cantidad) {
+            this.tramos = tramos;
+            this.cantidad = cantidad;
+        }
+    }
+
+    private static final class Instantanea<T> extends AbstractList<T> implements RandomAccess {
+        private final Object[][] tramos;
+        private final int cantidad;
+
+        private Instantanea(Version version) {
+            this.tramos = version.tramos;
+            this.cantidad = version.cantidad;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public T get(int indice) {
+            if (indice < 0 || indice >= cantidad) {
+                throw new IndexOutOfBoundsException("Índice " + indice + " fuera de 0.." + cantidad);
+            }
+            return (T) tramos[indice >>> BITS_TRAMO][indice & MASCARA_TRAMO];
+        }
+
+        @Override
+        public int size() {
+            return cantidad;
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.hotelreservation.service;
+
+import com.hotelreservation.model.Reserva;
+
+/**
+ * Resultado de una solicitud dentro de una carga por lotes.
+ * SRP: Responsabilidad única de informar si una solicitud terminó bien y por qué no.
+ * Una solicitud puede fallar al crearse (sin reserva) o al cobrarse (con la reserva
+ * creada, que queda pendiente como tras un pago fallido individual).
+ */
+public class ResultadoReserva {
+    private final SolicitudReserva solicitud;
+    private final Reserva reserva;
+    private final Throwable error;
+
+    private ResultadoReserva(SolicitudReserva solicitud, Reserva reserva, Throwable error) {
+        this.solicitud = solicitud;
+        this.reserva = reserva;
+        this.error = error;
+    }
+
+    public static ResultadoReserva exitoso(SolicitudReserva solicitud, Reserva reserva) {
+        return new ResultadoReserva(solicitud, reserva, null);
+    }
+
+    public static ResultadoReserva fallido(SolicitudReserva solicitud, Reserva reserva, Throwable error) {
+        return new ResultadoReserva(solicitud, reserva, error);
+    }
+
+    public SolicitudReserva getSolicitud() {
+        return solicitud;
+    }
+
+    /**
+     * Reserva creada, o {@code null} si la solicitud falló antes de crearla.
+     */
+    public Reserva getReserva() {
+        return reserva;
+    }
+
+    /**
+     * Causa de la falla, o {@code null} si la solicitud terminó bien.
+     */
+    public Throwable getError() {
+        return error;
+    }
+
+    public boolean esExitoso() {
+        return error == null;
+    }
+
+    @Override
+    public String toString() {
+        return esExitoso()
+                ? "OK " + reserva.getIdReserva()
+                : "ERROR " + error.getMessage();
+    }
+}
@@ -0,0 +1,199 @@
+package com.hotelreservation.service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Rueda de temporizadores jerárquica para millones de vencimientos pendientes.
+ * SRP: Responsabilidad única de ejecutar tareas cuando vence su plazo.
+ * El tiempo avanza en pasos de duración fija. Hay {@value #NIVELES} niveles de
+ * {@value #RANURAS} ranuras: el nivel 0 cubre los próximos 64 pasos, el 1 los próximos
+ * 64 grupos de 64, y así. Cada ranura es una lista doblemente enlazada intrusiva, de modo
+ * que programar y cancelar cuestan O(1) sin importar cuántos temporizadores haya.
+ * Cuando el paso actual completa una vuelta de un nivel, la ranura correspondiente del
+ * nivel superior se redistribuye hacia abajo; cada temporizador baja a lo sumo una vez
+ * por nivel. Los plazos más allá del último nivel esperan en su última ranura y se
+ * redistribuyen al llegar.
+ * No tiene hilos propios: quien la usa llama a {@link #avanzar(long)} periódicamente.
+ * Las tareas vencidas se ejecutan en ese hilo, fuera del monitor de la rueda.
+ */
+public class RuedaTemporizadores {
+    private static final int BITS_RANURA = 6;
+    private static final int RANURAS = 1 << BITS_RANURA;
+    private static final int MASCARA_RANURA = RANURAS - 1;
+    private static final int NIVELES = 4;
+
+    private final long pasoNanos;
+    private final long inicioNanos;
+    private final Temporizador[][] ranuras;
+    private long pasoActual;
+    private int cantidad;
+
+    public RuedaTemporizadores(Duration paso) {
+        this(paso, System.nanoTime());
+    }
+
+    RuedaTemporizadores(Duration paso, long inicioNanos) {
+        if (paso.isNegative() || paso.isZero()) {
+            throw new IllegalArgumentException("El paso debe ser positivo");
+        }
+        this.pasoNanos = paso.toNanos();
+        this.inicioNanos = inicioNanos;
+        this.ranuras = new Temporizador[NIVELES][RANURAS];
+    }
+
+    /**
+     * Programa una tarea para dentro del plazo indicado, redondeado hacia arriba al paso.
+     */
+    public synchronized Temporizador programar(Duration plazo, Runnable tarea) {
+        long pasos = Math.max(1, (plazo.toNanos() + pasoNanos - 1) / pasoNanos);
+        Temporizador temporizador = new Temporizador(this, pasoActual + pasos, tarea);
+        insertar(temporizador);
+        cantidad++;
+        return temporizador;
+    }
+
+    /**
+     * Avanza la rueda hasta el instante indicado (de {@link System#nanoTime()}) y ejecuta
+     * las tareas vencidas.
+     * @return Cantidad de tareas ejecutadas.
+     */
+    public int avanzar(long ahoraNanos) {
+        List<Temporizador> vencidos = recolectar((ahoraNanos - inicioNanos) / pasoNanos);
+        for (Temporizador temporizador : vencidos) {
+            temporizador.tarea.run();
+        }
+        return vencidos.size();
+    }
+
+    public synchronized int cantidad() {
+        return cantidad;
+    }
+
+    public Duration getPaso() {
+        return Duration.ofNanos(pasoNanos);
+    }
+
+    private synchronized List<Temporizador> recolectar(long hasta) {
+        List<Temporizador> vencidos = new ArrayList<>();
+        while (pasoActual < hasta) {
+            pasoActual++;
+            // Redistribuye de arriba hacia abajo: lo que baja de un nivel puede volver a bajar
+            for (int nivel = NIVELES - 1; nivel > 0; nivel--) {
+                int desplazamiento = BITS_RANURA * nivel;
+                if ((pasoActual & ((1L << desplazamiento) - 1)) == 0) {
+                    redistribuir(nivel, (int) ((pasoActual >>> desplazamiento) & MASCARA_RANURA));
+                }
+            }
+            Temporizador temporizador = desenganchar(0, (int) (pasoActual & MASCARA_RANURA));
+            while (temporizador != null) {
+                Temporizador siguiente = temporizador.siguiente;
+                temporizador.siguiente = null;
+                vencidos.add(temporizador);
+                cantidad--;
+                temporizador = siguiente;
+            }
+        }
+        return vencidos;
+    }
+
+    private void redistribuir(int nivel, int ranura) {
+        Temporizador temporizador = desenganchar(nivel, ranura);
+        while (temporizador != null) {
+            Temporizador siguiente = temporizador.siguiente;
+            insertar(temporizador);
+            temporizador = siguiente;
+        }
+    }
+
+    /**
+     * Quita la lista completa de una ranura y marca sus temporizadores como fuera de la rueda.
+     */
+    private Temporizador desenganchar(int nivel, int ranura) {
+        Temporizador primero = ranuras[nivel][ranura];
+        ranuras[nivel][ranura] = null;
+        for (Temporizador t = primero; t != null; t = t.siguiente) {
+            t.nivel = -1;
+            t.anterior = null;
+        }
+        return primero;
+    }
+
+    /**
+     * Ubica el temporizador en el nivel más bajo cuyo horizonte alcanza su vencimiento.
+     */
+    private void insertar(Temporizador temporizador) {
+        int nivel = 0;
+        long ranura;
+        while (true) {
+            int desplazamiento = BITS_RANURA * nivel;
+            long distancia = (temporizador.vence >>> desplazamiento) - (pasoActual >>> desplazamiento);
+            if (distancia < RANURAS) {
+                ranura = (temporizador.vence >>> desplazamiento) & MASCARA_RANURA;
+                break;
+            }
+            if (nivel == NIVELES - 1) {
+                // Más allá del horizonte: espera en la última ranura y se redistribuye al llegar
+                ranura = ((pasoActual >>> desplazamiento) + MASCARA_RANURA) & MASCARA_RANURA;
+                break;
+            }
+            nivel++;
+        }
+        Temporizador primero = ranuras[nivel][(int) ranura];
+        temporizador.siguiente = primero;
+        temporizador.anterior = null;
+        if (primero != null) {
+            primero.anterior = temporizador;
+        }
+        ranuras[nivel][(int) ranura] = temporizador;
+        temporizador.nivel = nivel;
+        temporizador.ranura = (int) ranura;
+    }
+
+    private synchronized boolean cancelar(Temporizador temporizador) {
+        if (temporizador.nivel < 0) {
+            return false;
+        }
+        if (temporizador.anterior != null) {
+            temporizador.anterior.siguiente = temporizador.siguiente;
+        } else {
+            ranuras[temporizador.nivel][temporizador.ranura] = temporizador.siguiente;
+        }
+        if (temporizador.siguiente != null) {
+            temporizador.siguiente.anterior = temporizador.anterior;
+        }
+        temporizador.anterior = null;
+        temporizador.siguiente = null;
+        temporizador.nivel = -1;
+        cantidad--;
+        return true;
+    }
+
+    /**
+     * Tarea programada en la rueda. Sus enlaces solo se tocan con el monitor de la rueda.
+     */
+    public static final class Temporizador {
+        private final RuedaTemporizadores rueda;
+        private final long vence;
+        private final Runnable tarea;
+        private Temporizador anterior;
+        private Temporizador siguiente;
+        private int nivel = -1;
+        private int ranura;
+
+        private Temporizador(RuedaTemporizadores rueda, long vence, Runnable tarea) {
+            this.rueda = rueda;
+            this.vence = vence;
+            this.tarea = tarea;
+        }
+
+        /**
+         * Cancela el temporizador en O(1).
+         * @return false si ya venció o ya estaba cancelado.
+         */
+        public boolean cancelar() {
+            return rueda.cancelar(this);
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package com.hotelreservation.service;
+
+import com.hotelreservation.model.Cliente;
+import com.hotelreservation.model.Habitacion;
+import com.hotelreservation.model.Reserva;
+import com.hotelreservation.payment.MetodoPago;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Fachada de GestorReservas que atiende cada solicitud en un hilo virtual.
+ * SRP: Responsabilidad única de ejecutar las operaciones del gestor con límite de tiempo.
+ * DIP: Delega toda la lógica de reservas en GestorReservas.
+ * Los pagos bloqueantes no ocupan hilos de plataforma, así que miles de confirmaciones
+ * pueden esperar a la pasarela a la vez. Si una solicitud supera el tiempo máximo,
+ * su futuro falla con TimeoutException. El hilo virtual que la atendía se interrumpe,
+ * salvo en las confirmaciones: un cobro ya iniciado nunca se interrumpe, termina en
+ * segundo plano y la reserva queda confirmada o pendiente según su resultado.
+ */
+public class ServicioReservas implements AutoCloseable {
+    private final GestorReservas gestor;
+    private final Duration tiempoMaximo;
+    private final ExecutorService hilosVirtuales;
+
+    public ServicioReservas(GestorReservas gestor, Duration tiempoMaximo) {
+        this.gestor = gestor;
+        this.tiempoMaximo = tiempoMaximo;
+        this.hilosVirtuales = Executors.newVirtualThreadPerTaskExecutor();
+    }
+
+    public CompletableFuture<List<Habitacion>> obtenerHabitacionesDisponibles(LocalDate checkIn,
+                                                                             LocalDate checkOut) {
+        return enHiloVirtual(() -> gestor.obtenerHabitacionesDisponibles(checkIn, checkOut));
+    }
+
+    public CompletableFuture<Reserva> crearReserva(Cliente cliente, List<Habitacion> habitaciones,
+                                                   LocalDate checkIn, LocalDate checkOut,
+                                                   MetodoPago metodoPago) {
+        return enHiloVirtual(() -> gestor.crearReserva(cliente, habitaciones, checkIn, checkOut, metodoPago));
+    }
+
+    public CompletableFuture<Reserva> crearReservaVIP(Cliente cliente, List<Habitacion> habitaciones,
+                                                      LocalDate checkIn, LocalDate checkOut,
+                                                      MetodoPago metodoPago) {
+        return enHiloVirtual(() -> gestor.crearReservaVIP(cliente, habitaciones, checkIn, checkOut, metodoPago));
+    }
+
+    /**
+     * Confirma una reserva. Si vence el tiempo máximo, el cobro no se interrumpe: el futuro
+     * falla con TimeoutException y el resultado se consulta luego en la reserva.
+     */
+    public CompletableFuture<Void> confirmarReserva(String idReserva) {
+        return enHiloVirtual(() -> {
+            gestor.confirmarReserva(idReserva);
+            return null;
+        }, false);
+    }
+
+    /**
+     * Confirma varias reservas como una sola solicitud (por ejemplo, las habitaciones de un grupo).
+     * Cada confirmación corre en su propio hilo virtual dentro de un alcance que no termina
+     * hasta que terminan todas. Ante la primera falla la solicitud falla con esa causa, pero
+     * solo después de que terminen las confirmaciones en curso: sus cobros ya empezaron y no
+     * se interrumpen. Las confirmaciones completadas se mantienen.
+     */
+    public CompletableFuture<Void> confirmarReservas(List<String> idsReserva) {
+        return enHiloVirtual(() -> {
+            try (ExecutorService alcance = Executors.newVirtualThreadPerTaskExecutor()) {
+                CompletionService<Void> subtareas = new ExecutorCompletionService<>(alcance);
+                for (String idReserva : idsReserva) {
+                    subtareas.submit(() -> {
+                        gestor.confirmarReserva(idReserva);
+                        return null;
+                    });
+                }
+                try {
+                    for (int i = 0; i < idsReserva.size(); i++) {
+                        subtareas.take().get();
+                    }
+                } catch (ExecutionException e) {
+                    // Al cerrar, el alcance espera a que terminen los cobros en curso
+                    if (e.getCause() instanceof Exception) {
+                        throw (Exception) e.getCause();
+                    }
+                    throw e;
+                }
+            }
+            return null;
+        }, false);
+    }
+
+    public CompletableFuture<Void> cambiarFechasReserva(String idReserva, LocalDate nuevaFechaCheckIn,
+                                                        LocalDate nuevaFechaCheckOut) {
+        return enHiloVirtual(() -> {
+            gestor.cambiarFechasReserva(idReserva, nuevaFechaCheckIn, nuevaFechaCheckOut);
+            return null;
+        });
+    }
+
+    public CompletableFuture<Void> cancelarReserva(String idReserva) {
+        return enHiloVirtual(() -> {
+            gestor.cancelarReserva(idReserva);
+            return null;
+        });
+    }
+
+    /**
+     * Ejecuta la tarea en un hilo virtual nuevo y aplica el tiempo máximo de la solicitud,
+     * interrumpiendo el hilo si vence.
+     */
+    private <T> CompletableFuture<T> enHiloVirtual(Callable<T> tarea) {
+        return enHiloVirtual(tarea, true);
+    }
+
+    /**
+     * @param interrumpible false para las tareas que cobran: al vencer el tiempo máximo solo
+     *                      falla el futuro y la tarea sigue hasta terminar.
+     */
+    private <T> CompletableFuture<T> enHiloVirtual(Callable<T> tarea, boolean interrumpible) {
+        CompletableFuture<T> resultado = new CompletableFuture<>();
+        Future<?> hilo = hilosVirtuales.submit(() -> {
+            try {
+                resultado.complete(tarea.call());
+            } catch (Throwable e) {
+                resultado.completeExceptionally(e);
+            }
+        });
+        resultado.orTimeout(tiempoMaximo.toNanos(), TimeUnit.NANOSECONDS)
+                .whenComplete((valor, error) -> {
+                    if (interrumpible && error instanceof TimeoutException) {
+                        hilo.cancel(true);
+                    }
+                });
+        return resultado;
+    }
+
+    /**
+     * Deja de aceptar solicitudes y espera a que terminen las que están en curso.
+     */
+    @Override
+    public void close() {
+        hilosVirtuales.close();
+    }
+}
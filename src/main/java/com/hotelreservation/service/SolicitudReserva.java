@@ -0,0 +1,68 @@
+package com.hotelreservation.service;
+
+import com.hotelreservation.model.Cliente;
+import com.hotelreservation.model.Habitacion;
+import com.hotelreservation.payment.MetodoPago;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Pedido de una reserva dentro de una carga por lotes.
+ * SRP: Responsabilidad única de reunir los datos necesarios para crear una reserva.
+ */
+public class SolicitudReserva {
+    private final Cliente cliente;
+    private final List<Habitacion> habitaciones;
+    private final LocalDate fechaCheckIn;
+    private final LocalDate fechaCheckOut;
+    private final MetodoPago metodoPago;
+    private final boolean vip;
+
+    public SolicitudReserva(Cliente cliente, List<Habitacion> habitaciones,
+                            LocalDate fechaCheckIn, LocalDate fechaCheckOut,
+                            MetodoPago metodoPago, boolean vip) {
+        this.cliente = cliente;
+        this.habitaciones = new ArrayList<>(habitaciones);
+        this.fechaCheckIn = fechaCheckIn;
+        this.fechaCheckOut = fechaCheckOut;
+        this.metodoPago = metodoPago;
+        this.vip = vip;
+    }
+
+    public Cliente getCliente() {
+        return cliente;
+    }
+
+    public List<Habitacion> getHabitaciones() {
+        return new ArrayList<>(habitaciones);
+    }
+
+    public LocalDate getFechaCheckIn() {
+        return fechaCheckIn;
+    }
+
+    public LocalDate getFechaCheckOut() {
+        return fechaCheckOut;
+    }
+
+    public MetodoPago getMetodoPago() {
+        return metodoPago;
+    }
+
+    public boolean esVip() {
+        return vip;
+    }
+
+    /**
+     * Número de la primera habitación, usado para ordenar el lote.
+     */
+    String primeraHabitacion() {
+        return habitaciones.isEmpty() ? "" : habitaciones.get(0).getNumero();
+    }
+
+    List<Habitacion> habitaciones() {
+        return habitaciones;
+    }
+}
@@ -0,0 +1,108 @@
+package com.hotelreservation.service;
+
+import com.hotelreservation.model.Cliente;
+import com.hotelreservation.model.IdReserva;
+import com.hotelreservation.model.Reserva;
+import com.hotelreservation.model.TipoHabitacion;
+import com.hotelreservation.payment.MetodoPago;
+
+import java.time.LocalDate;
+import java.util.Optional;
+
+/**
+ * Venta de habitaciones de un tipo para una estadía, todavía sin habitaciones asignadas.
+ * SRP: Responsabilidad única de recordar lo vendido hasta que se asignan las habitaciones.
+ * La venta ocupa cupo del tipo en cada noche. Al hacer el check-in,
+ * {@link GestorReservas#asignarHabitaciones(String)} la convierte en una reserva con
+ * habitaciones concretas, con el mismo ID, que hereda ese cupo. Las transiciones las
+ * hace el gestor con el monitor de la venta tomado.
+ */
+public class VentaPorTipo {
+    private final long id;
+    private final Cliente cliente;
+    private final TipoHabitacion tipo;
+    private final int cantidad;
+    private final LocalDate fechaCheckIn;
+    private final LocalDate fechaCheckOut;
+    private final MetodoPago metodoPago;
+    private Reserva reserva;
+    private boolean cancelada;
+
+    VentaPorTipo(long id, Cliente cliente, TipoHabitacion tipo, int cantidad,
+                 LocalDate fechaCheckIn, LocalDate fechaCheckOut, MetodoPago metodoPago) {
+        this.id = id;
+        this.cliente = cliente;
+        this.tipo = tipo;
+        this.cantidad = cantidad;
+        this.fechaCheckIn = fechaCheckIn;
+        this.fechaCheckOut = fechaCheckOut;
+        this.metodoPago = metodoPago;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    /**
+     * ID en texto; la reserva asignada lleva el mismo.
+     */
+    public String getIdVenta() {
+        return IdReserva.formatear(id);
+    }
+
+    public Cliente getCliente() {
+        return cliente;
+    }
+
+    public TipoHabitacion getTipo() {
+        return tipo;
+    }
+
+    public int getCantidad() {
+        return cantidad;
+    }
+
+    public LocalDate getFechaCheckIn() {
+        return fechaCheckIn;
+    }
+
+    public LocalDate getFechaCheckOut() {
+        return fechaCheckOut;
+    }
+
+    public MetodoPago getMetodoPago() {
+        return metodoPago;
+    }
+
+    /**
+     * Reserva creada al asignar las habitaciones, o vacío si todavía no se asignaron.
+     */
+    public synchronized Optional<Reserva> getReserva() {
+        return Optional.ofNullable(reserva);
+    }
+
+    public synchronized boolean estaCancelada() {
+        return cancelada;
+    }
+
+    /**
+     * Indica si la venta sigue esperando sus habitaciones.
+     */
+    public synchronized boolean estaVigente() {
+        return reserva == null && !cancelada;
+    }
+
+    synchronized void asignar(Reserva reserva) {
+        this.reserva = reserva;
+    }
+
+    synchronized void cancelar() {
+        this.cancelada = true;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Venta ID: %s | Cliente: %s | Tipo: %s x%d | Check-in: %s | Check-out: %s",
+                getIdVenta(), cliente.getNombre(), tipo, cantidad, fechaCheckIn, fechaCheckOut);
+    }
+}
@@ -0,0 +1,41 @@
+package com.hotelreservation.sharding;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Hash consistente de claves (propiedad o número de habitación) a fragmentos.
+ * SRP: Responsabilidad única de decidir en qué fragmento vive una clave.
+ * Cada fragmento ocupa varios puntos del anillo, de modo que las claves se reparten
+ * de forma pareja y agregar un fragmento solo mueve alrededor de 1/n de ellas.
+ */
+class AnilloConsistente {
+    private static final int PUNTOS_POR_FRAGMENTO = 128;
+    private final TreeMap<Integer, Integer> anillo;
+
+    AnilloConsistente(int fragmentos) {
+        this.anillo = new TreeMap<>();
+        for (int fragmento = 0; fragmento < fragmentos; fragmento++) {
+            for (int punto = 0; punto < PUNTOS_POR_FRAGMENTO; punto++) {
+                anillo.put(mezclar(fragmento * 0x9E3779B9L + punto), fragmento);
+            }
+        }
+    }
+
+    int fragmento(String clave) {
+        Map.Entry<Integer, Integer> entrada = anillo.ceilingEntry(mezclar(clave.hashCode()));
+        return (entrada != null ? entrada : anillo.firstEntry()).getValue();
+    }
+
+    /**
+     * Mezcla los bits del hash (finalizador de MurmurHash3) para repartirlo en el anillo.
+     */
+    private static int mezclar(long valor) {
+        valor ^= valor >>> 33;
+        valor *= 0xff51afd7ed558ccdL;
+        valor ^= valor >>> 33;
+        valor *= 0xc4ceb9fe1a85ec53L;
+        valor ^= valor >>> 33;
+        return (int) valor;
+    }
+}
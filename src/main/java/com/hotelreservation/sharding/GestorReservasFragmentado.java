@@ -0,0 +1,397 @@
+package com.hotelreservation.sharding;
+
+import com.hotelreservation.model.Cliente;
+import com.hotelreservation.model.EstadoReserva;
+import com.hotelreservation.model.GeneradorIdsTemporal;
+import com.hotelreservation.model.Habitacion;
+import com.hotelreservation.model.IdReserva;
+import com.hotelreservation.model.Reserva;
+import com.hotelreservation.payment.MetodoPago;
+import com.hotelreservation.service.ConsultaDisponibilidad;
+import com.hotelreservation.service.GestorReservas;
+import com.hotelreservation.service.HabitacionCotizada;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Gestor de reservas repartido entre varios fragmentos independientes, cada uno con su
+ * propio GestorReservas (un hotel de una cadena, o una porción de un hotel grande).
+ * SRP: Responsabilidad única de encaminar cada operación al fragmento que corresponde.
+ * DIP: Habla con los fragmentos a través de TransporteFragmentos.
+ *
+ * Las habitaciones se asignan a un fragmento por hash consistente del ID de propiedad o,
+ * si no se indica propiedad, del número de habitación. El fragmento de una reserva se
+ * deduce de su ID: cada fragmento genera IDs con su índice como nodo.
+ * Las búsquedas de disponibilidad y las reservas de un cliente se consultan en todos los
+ * fragmentos en paralelo y se juntan los resultados.
+ *
+ * Una reserva con habitaciones de varios fragmentos sigue un protocolo de dos fases:
+ * primero se crea una reserva PENDIENTE en cada fragmento, lo que aparta sus noches; si
+ * alguna falla, se cancelan las ya creadas. La confirmación cobra cada parte y, si algún
+ * cobro falla, se cancelan todas y se reembolsan las que ya se habían cobrado, de modo que
+ * la reserva queda entera o no queda, y el cliente no paga por una reserva que no tiene.
+ * Ningún fragmento retiene bloqueos mientras espera a otro; dos reservas distribuidas que
+ * compiten por las mismas habitaciones pueden fallar ambas, pero nunca bloquearse.
+ */
+public class GestorReservasFragmentado {
+    private static final Logger logger = LoggerFactory.getLogger(GestorReservasFragmentado.class);
+    private final TransporteFragmentos transporte;
+    private final AnilloConsistente anillo;
+    private final Map<String, Integer> fragmentoPorHabitacion;
+
+    public GestorReservasFragmentado(TransporteFragmentos transporte) {
+        this.transporte = transporte;
+        this.anillo = new AnilloConsistente(transporte.cantidadFragmentos());
+        this.fragmentoPorHabitacion = new ConcurrentHashMap<>();
+    }
+
+    public int cantidadFragmentos() {
+        return transporte.cantidadFragmentos();
+    }
+
+    /**
+     * Registra una habitación en el fragmento que le toca por su número.
+     */
+    public void registrarHabitacion(Habitacion habitacion) {
+        registrarEn(anillo.fragmento(habitacion.getNumero()), habitacion);
+    }
+
+    /**
+     * Registra una habitación en el fragmento de su propiedad; todas las habitaciones
+     * de una misma propiedad quedan juntas.
+     */
+    public void registrarHabitacion(String idPropiedad, Habitacion habitacion) {
+        registrarEn(anillo.fragmento(idPropiedad), habitacion);
+    }
+
+    private void registrarEn(int fragmento, Habitacion habitacion) {
+        Integer anterior = fragmentoPorHabitacion.putIfAbsent(habitacion.getNumero(), fragmento);
+        if (anterior != null) {
+            throw new IllegalArgumentException("La habitación " + habitacion.getNumero() +
+                    " ya está registrada en el fragmento " + anterior);
+        }
+        esperar(transporte.enviar(fragmento, gestor -> {
+            gestor.registrarHabitacion(habitacion);
+            return null;
+        }));
+    }
+
+    /**
+     * Fragmento en el que vive una habitación, o vacío si no está registrada.
+     */
+    public Optional<Integer> obtenerFragmento(String numeroHabitacion) {
+        return Optional.ofNullable(fragmentoPorHabitacion.get(numeroHabitacion));
+    }
+
+    /**
+     * Obtiene las habitaciones disponibles de todos los fragmentos.
+     */
+    public List<Habitacion> obtenerHabitacionesDisponibles(LocalDate checkIn, LocalDate checkOut) {
+        return juntar(difundir(gestor -> gestor.obtenerHabitacionesDisponibles(checkIn, checkOut)));
+    }
+
+    /**
+     * Busca las habitaciones libres más baratas en todos los fragmentos. Cada fragmento
+     * devuelve sus K mejores ya ordenadas y aquí solo se mezclan hasta juntar K.
+     */
+    public List<HabitacionCotizada> buscarHabitaciones(ConsultaDisponibilidad consulta) {
+        List<List<HabitacionCotizada>> porFragmento = difundir(gestor -> gestor.buscarHabitaciones(consulta));
+        int[] posiciones = new int[porFragmento.size()];
+        List<HabitacionCotizada> mejores = new ArrayList<>(Math.min(consulta.getLimite(), 1024));
+        while (mejores.size() < consulta.getLimite()) {
+            int elegido = -1;
+            for (int fragmento = 0; fragmento < porFragmento.size(); fragmento++) {
+                List<HabitacionCotizada> lista = porFragmento.get(fragmento);
+                if (posiciones[fragmento] < lista.size() && (elegido < 0
+                        || lista.get(posiciones[fragmento]).getMonto()
+                        < porFragmento.get(elegido).get(posiciones[elegido]).getMonto())) {
+                    elegido = fragmento;
+                }
+            }
+            if (elegido < 0) {
+                break;
+            }
+            mejores.add(porFragmento.get(elegido).get(posiciones[elegido]++));
+        }
+        return mejores;
+    }
+
+    /**
+     * Obtiene las reservas de un cliente en todos los fragmentos.
+     */
+    public List<Reserva> obtenerReservasCliente(Cliente cliente) {
+        return juntar(difundir(gestor -> gestor.obtenerReservasCliente(cliente)));
+    }
+
+    public double obtenerIngresosTotales() {
+        double total = 0;
+        for (Double ingresos : difundir(GestorReservas::obtenerIngresosTotales)) {
+            total += ingresos;
+        }
+        return total;
+    }
+
+    public long contarReservas(EstadoReserva estado) {
+        long total = 0;
+        for (Long cantidad : difundir(gestor -> gestor.contarReservas(estado))) {
+            total += cantidad;
+        }
+        return total;
+    }
+
+    /**
+     * Crea una reserva, distribuida si sus habitaciones viven en varios fragmentos.
+     */
+    public ReservaDistribuida crearReserva(Cliente cliente, List<Habitacion> habitaciones,
+                                           LocalDate checkIn, LocalDate checkOut,
+                                           MetodoPago metodoPago) {
+        return preparar(habitaciones, (gestor, propias) ->
+                gestor.crearReserva(cliente, propias, checkIn, checkOut, metodoPago));
+    }
+
+    /**
+     * Crea una reserva VIP, distribuida si sus habitaciones viven en varios fragmentos.
+     */
+    public ReservaDistribuida crearReservaVIP(Cliente cliente, List<Habitacion> habitaciones,
+                                              LocalDate checkIn, LocalDate checkOut,
+                                              MetodoPago metodoPago) {
+        return preparar(habitaciones, (gestor, propias) ->
+                gestor.crearReservaVIP(cliente, propias, checkIn, checkOut, metodoPago));
+    }
+
+    /**
+     * Confirma todas las partes de una reserva. Si alguna no puede cobrarse se cancelan
+     * todas, se reembolsan las ya cobradas y se lanza el error de esa parte.
+     */
+    public void confirmarReserva(ReservaDistribuida reserva) {
+        List<CompletableFuture<Void>> confirmaciones = new ArrayList<>();
+        for (Reserva parte : reserva.getPartes()) {
+            confirmaciones.add(enviarA(parte, gestor -> {
+                gestor.confirmarReserva(parte.getIdReserva());
+                return null;
+            }));
+        }
+        // Espera a todas: ningún cobro queda en curso al compensar
+        RuntimeException error = primerError(confirmaciones);
+        if (error != null) {
+            cancelarPartes(reserva.getPartes(), true);
+            throw error;
+        }
+        logger.info("Reserva distribuida {} confirmada", reserva.getIdsReserva());
+    }
+
+    /**
+     * Cancela todas las partes de una reserva que no estén ya canceladas.
+     */
+    public void cancelarReserva(ReservaDistribuida reserva) {
+        RuntimeException error = cancelarPartes(reserva.getPartes(), false);
+        if (error != null) {
+            throw error;
+        }
+    }
+
+    /**
+     * Confirma una reserva de un solo fragmento, o una parte de una distribuida.
+     */
+    public void confirmarReserva(String idReserva) {
+        esperar(transporte.enviar(fragmentoDe(idReserva), gestor -> {
+            gestor.confirmarReserva(idReserva);
+            return null;
+        }));
+    }
+
+    public void cambiarFechasReserva(String idReserva, LocalDate nuevaFechaCheckIn,
+                                     LocalDate nuevaFechaCheckOut) {
+        esperar(transporte.enviar(fragmentoDe(idReserva), gestor -> {
+            gestor.cambiarFechasReserva(idReserva, nuevaFechaCheckIn, nuevaFechaCheckOut);
+            return null;
+        }));
+    }
+
+    public void cancelarReserva(String idReserva) {
+        esperar(transporte.enviar(fragmentoDe(idReserva), gestor -> {
+            gestor.cancelarReserva(idReserva);
+            return null;
+        }));
+    }
+
+    /**
+     * Obtiene una reserva por su ID, consultando solo el fragmento que la emitió.
+     */
+    public Optional<Reserva> obtenerReservaPorId(String idReserva) {
+        long id;
+        try {
+            id = IdReserva.interpretar(idReserva);
+        } catch (IllegalArgumentException e) {
+            return Optional.empty();
+        }
+        int fragmento = GeneradorIdsTemporal.nodo(id);
+        if (fragmento >= transporte.cantidadFragmentos()) {
+            return Optional.empty();
+        }
+        return esperar(transporte.enviar(fragmento, gestor -> gestor.obtenerReservaPorId(id)));
+    }
+
+    /**
+     * Primera fase: crea una reserva pendiente en cada fragmento involucrado, en paralelo.
+     * Si alguna falla, cancela las que sí se crearon y lanza el error.
+     */
+    private ReservaDistribuida preparar(List<Habitacion> habitaciones, CreacionParte creacion) {
+        Map<Integer, List<Habitacion>> porFragmento = agruparPorFragmento(habitaciones);
+        List<CompletableFuture<Reserva>> preparadas = new ArrayList<>(porFragmento.size());
+        for (Map.Entry<Integer, List<Habitacion>> entrada : porFragmento.entrySet()) {
+            List<Habitacion> propias = entrada.getValue();
+            preparadas.add(transporte.enviar(entrada.getKey(), gestor -> creacion.crear(gestor, propias)));
+        }
+
+        RuntimeException error = primerError(preparadas);
+        List<Reserva> partes = new ArrayList<>(preparadas.size());
+        for (CompletableFuture<Reserva> preparada : preparadas) {
+            if (!preparada.isCompletedExceptionally()) {
+                partes.add(preparada.join());
+            }
+        }
+        if (error != null) {
+            cancelarPartes(partes, false);
+            throw error;
+        }
+
+        ReservaDistribuida reserva = new ReservaDistribuida(partes);
+        if (reserva.esDistribuida()) {
+            logger.info("Reserva distribuida creada en {} fragmentos: {}",
+                    partes.size(), reserva.getIdsReserva());
+        }
+        return reserva;
+    }
+
+    /**
+     * Cancela en paralelo las partes que no estén canceladas.
+     * @param reembolsar Si es true, las partes ya cobradas se reembolsan al cancelarse.
+     * @return El primer error, o null si todas quedaron canceladas.
+     */
+    private RuntimeException cancelarPartes(List<Reserva> partes, boolean reembolsar) {
+        List<CompletableFuture<Void>> cancelaciones = new ArrayList<>(partes.size());
+        for (Reserva parte : partes) {
+            cancelaciones.add(enviarA(parte, gestor -> {
+                if (parte.getEstado() == EstadoReserva.CANCELADA) {
+                    return null;
+                }
+                if (reembolsar) {
+                    gestor.cancelarReservaConReembolso(parte.getIdReserva());
+                } else {
+                    gestor.cancelarReserva(parte.getIdReserva());
+                }
+                return null;
+            }));
+        }
+        RuntimeException error = primerError(cancelaciones);
+        if (error != null) {
+            logger.warn("No se pudieron cancelar todas las partes de {}", partes, error);
+        }
+        return error;
+    }
+
+    private Map<Integer, List<Habitacion>> agruparPorFragmento(List<Habitacion> habitaciones) {
+        Map<Integer, List<Habitacion>> porFragmento = new LinkedHashMap<>();
+        for (Habitacion habitacion : habitaciones) {
+            Integer fragmento = fragmentoPorHabitacion.get(habitacion.getNumero());
+            if (fragmento == null) {
+                throw new IllegalArgumentException("Habitación no registrada: " + habitacion.getNumero());
+            }
+            porFragmento.computeIfAbsent(fragmento, f -> new ArrayList<>()).add(habitacion);
+        }
+        return porFragmento;
+    }
+
+    private int fragmentoDe(String idReserva) {
+        int fragmento;
+        try {
+            fragmento = GeneradorIdsTemporal.nodo(IdReserva.interpretar(idReserva));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Reserva no encontrada con ID: " + idReserva);
+        }
+        if (fragmento >= transporte.cantidadFragmentos()) {
+            throw new IllegalArgumentException("Reserva no encontrada con ID: " + idReserva);
+        }
+        return fragmento;
+    }
+
+    private <T> CompletableFuture<T> enviarA(Reserva parte, OperacionFragmento<T> operacion) {
+        return transporte.enviar(GeneradorIdsTemporal.nodo(parte.getId()), operacion);
+    }
+
+    /**
+     * Ejecuta la operación en todos los fragmentos a la vez y espera todas las respuestas.
+     */
+    private <T> List<T> difundir(OperacionFragmento<T> operacion) {
+        int cantidad = transporte.cantidadFragmentos();
+        List<CompletableFuture<T>> respuestas = new ArrayList<>(cantidad);
+        for (int fragmento = 0; fragmento < cantidad; fragmento++) {
+            respuestas.add(transporte.enviar(fragmento, operacion));
+        }
+        List<T> resultados = new ArrayList<>(cantidad);
+        for (CompletableFuture<T> respuesta : respuestas) {
+            resultados.add(esperar(respuesta));
+        }
+        return resultados;
+    }
+
+    private static <T> List<T> juntar(List<List<T>> listas) {
+        int total = 0;
+        for (List<T> lista : listas) {
+            total += lista.size();
+        }
+        List<T> juntos = new ArrayList<>(total);
+        for (List<T> lista : listas) {
+            juntos.addAll(lista);
+        }
+        return juntos;
+    }
+
+    /**
+     * Espera a que terminen todos los futuros.
+     * @return El error del primero que falló, o null si ninguno falló.
+     */
+    private static RuntimeException primerError(List<? extends CompletableFuture<?>> futuros) {
+        RuntimeException error = null;
+        for (CompletableFuture<?> futuro : futuros) {
+            try {
+                esperar(futuro);
+            } catch (RuntimeException e) {
+                if (error == null) {
+                    error = e;
+                }
+            }
+        }
+        return error;
+    }
+
+    /**
+     * Espera el resultado y relanza tal cual la excepción que lanzó el fragmento.
+     */
+    private static <T> T esperar(CompletableFuture<T> futuro) {
+        try {
+            return futuro.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException causa) {
+                throw causa;
+            }
+            throw e;
+        }
+    }
+
+    @FunctionalInterface
+    private interface CreacionParte {
+        Reserva crear(GestorReservas gestor, List<Habitacion> habitaciones);
+    }
+}
@@ -0,0 +1,11 @@
+package com.hotelreservation.sharding;
+
+import com.hotelreservation.service.GestorReservas;
+
+/**
+ * Operación que se ejecuta sobre el gestor de un fragmento.
+ */
+@FunctionalInterface
+public interface OperacionFragmento<T> {
+    T ejecutar(GestorReservas gestor);
+}
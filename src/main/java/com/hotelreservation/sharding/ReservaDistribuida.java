@@ -0,0 +1,64 @@
+package com.hotelreservation.sharding;
+
+import com.hotelreservation.model.EstadoReserva;
+import com.hotelreservation.model.Reserva;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reserva cuyas habitaciones viven en varios fragmentos.
+ * SRP: Responsabilidad única de agrupar las partes que se confirman o cancelan juntas.
+ * Cada parte es una reserva común en el gestor de su fragmento, con su propio ID;
+ * cuando todas las habitaciones caen en un mismo fragmento hay una sola parte.
+ */
+public class ReservaDistribuida {
+    private final List<Reserva> partes;
+
+    ReservaDistribuida(List<Reserva> partes) {
+        this.partes = new ArrayList<>(partes);
+    }
+
+    public List<Reserva> getPartes() {
+        return new ArrayList<>(partes);
+    }
+
+    public List<String> getIdsReserva() {
+        List<String> ids = new ArrayList<>(partes.size());
+        for (Reserva parte : partes) {
+            ids.add(parte.getIdReserva());
+        }
+        return ids;
+    }
+
+    public boolean esDistribuida() {
+        return partes.size() > 1;
+    }
+
+    public double getMontoTotal() {
+        double total = 0;
+        for (Reserva parte : partes) {
+            total += parte.getMontoTotal();
+        }
+        return total;
+    }
+
+    /**
+     * Estado común de las partes. Mientras una confirmación o cancelación está en curso
+     * las partes pueden diferir; en ese caso se informa el estado de la primera pendiente.
+     */
+    public EstadoReserva getEstado() {
+        for (Reserva parte : partes) {
+            if (parte.getEstado() == EstadoReserva.PENDIENTE) {
+                return EstadoReserva.PENDIENTE;
+            }
+        }
+        return partes.get(0).getEstado();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Reserva distribuida %s | Partes: %d | Estado: %s | Total: $%.2f",
+                getIdsReserva(), partes.size(), getEstado(), getMontoTotal());
+    }
+}
@@ -0,0 +1,71 @@
+package com.hotelreservation.sharding;
+
+import com.hotelreservation.model.GeneradorIdsTemporal;
+import com.hotelreservation.model.TablaTarifas;
+import com.hotelreservation.service.GestorReservas;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Transporte hacia fragmentos que viven en el mismo proceso, pensado para pruebas y
+ * para repartir un hotel grande entre varios gestores de una misma JVM.
+ * SRP: Responsabilidad única de ejecutar cada operación en el gestor de su fragmento.
+ * Cada operación corre en un hilo virtual propio, así que las consultas a todos los
+ * fragmentos avanzan en paralelo.
+ */
+public class TransporteEnProceso implements TransporteFragmentos {
+    private final List<GestorReservas> gestores;
+    private final ExecutorService hilosVirtuales;
+
+    /**
+     * @param gestores Un gestor por fragmento. El gestor de la posición {@code i} debe
+     *                 generar IDs con el nodo {@code i}, porque el ID de una reserva indica
+     *                 en qué fragmento vive.
+     */
+    public TransporteEnProceso(List<GestorReservas> gestores) {
+        this.gestores = new ArrayList<>(gestores);
+        this.hilosVirtuales = Executors.newVirtualThreadPerTaskExecutor();
+    }
+
+    /**
+     * Crea la cantidad indicada de fragmentos, cada uno con su propio gestor.
+     */
+    public static TransporteEnProceso conFragmentos(int cantidad) {
+        if (cantidad <= 0 || cantidad > GeneradorIdsTemporal.MAXIMO_NODO + 1) {
+            throw new IllegalArgumentException("La cantidad de fragmentos debe estar entre 1 y " +
+                    (GeneradorIdsTemporal.MAXIMO_NODO + 1));
+        }
+        List<GestorReservas> gestores = new ArrayList<>(cantidad);
+        for (int i = 0; i < cantidad; i++) {
+            gestores.add(new GestorReservas(new TablaTarifas(), new GeneradorIdsTemporal(i)));
+        }
+        return new TransporteEnProceso(gestores);
+    }
+
+    @Override
+    public int cantidadFragmentos() {
+        return gestores.size();
+    }
+
+    /**
+     * Gestor local de un fragmento, por ejemplo para registrar observadores o persistencia.
+     */
+    public GestorReservas getGestor(int fragmento) {
+        return gestores.get(fragmento);
+    }
+
+    @Override
+    public <T> CompletableFuture<T> enviar(int fragmento, OperacionFragmento<T> operacion) {
+        GestorReservas gestor = gestores.get(fragmento);
+        return CompletableFuture.supplyAsync(() -> operacion.ejecutar(gestor), hilosVirtuales);
+    }
+
+    @Override
+    public void close() {
+        hilosVirtuales.close();
+    }
+}
@@ -0,0 +1,21 @@
+package com.hotelreservation.sharding;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Canal entre el gestor fragmentado y los gestores de cada fragmento.
+ * DIP: GestorReservasFragmentado depende de esta abstracción y no sabe si los
+ * fragmentos viven en el mismo proceso o en otro nodo.
+ */
+public interface TransporteFragmentos extends AutoCloseable {
+    int cantidadFragmentos();
+
+    /**
+     * Ejecuta la operación en el fragmento indicado.
+     * @return Futuro con el resultado, o con la excepción que lanzó la operación.
+     */
+    <T> CompletableFuture<T> enviar(int fragmento, OperacionFragmento<T> operacion);
+
+    @Override
+    void close();
+}
@@ -0,0 +1,197 @@
+package com.hotelreservation.event;
+
+import com.hotelreservation.model.Cliente;
+import com.hotelreservation.model.HabitacionEstandar;
+import com.hotelreservation.model.Reserva;
+import com.hotelreservation.payment.PagoTarjetaCredito;
+import com.hotelreservation.service.GestorReservas;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Pruebas del flujo de eventos con contrapresión: cada suscriptor recibe solo lo que
+ * pidió, en orden; uno que no consume se desconecta con onError sin frenar a quien
+ * publica, y cerrar el flujo termina a cada suscriptor con onComplete.
+ */
+class FlujoEventosReservaTest {
+    private static final long ESPERA_MILISEGUNDOS = 5_000;
+
+    private Reserva reserva;
+
+    @BeforeEach
+    void crearReserva() {
+        GestorReservas gestor = new GestorReservas();
+        HabitacionEstandar habitacion = new HabitacionEstandar("101");
+        gestor.registrarHabitacion(habitacion);
+        reserva = gestor.crearReserva(
+                new Cliente("Cliente Prueba", "cliente@hotel.com", "3000000000", "10000000"),
+                List.of(habitacion), LocalDate.of(2030, 1, 1), LocalDate.of(2030, 1, 3),
+                new PagoTarjetaCredito("4111111111111111", "Cliente Prueba", "12/35", "123"));
+    }
+
+    @Test
+    void soloEntregaLosEventosPedidos() throws Exception {
+        try (FlujoEventosReserva flujo = new FlujoEventosReserva(64)) {
+            SuscriptorDePrueba suscriptor = new SuscriptorDePrueba();
+            flujo.subscribe(suscriptor);
+            List<EventoReserva> publicados = publicar(flujo, 10);
+
+            suscriptor.suscripcion.request(3);
+            esperarHasta(() -> suscriptor.recibidos().size() == 3);
+            Thread.sleep(100);
+            assertEquals(3, suscriptor.recibidos().size(), "No debe recibir más de lo pedido");
+
+            suscriptor.suscripcion.request(7);
+            esperarHasta(() -> suscriptor.recibidos().size() == 10);
+            assertEquals(publicados, suscriptor.recibidos());
+        }
+    }
+
+    @Test
+    void entregaLosEventosEnElOrdenPublicado() {
+        try (FlujoEventosReserva flujo = new FlujoEventosReserva(8192)) {
+            SuscriptorDePrueba suscriptor = new SuscriptorDePrueba();
+            flujo.subscribe(suscriptor);
+            suscriptor.suscripcion.request(Long.MAX_VALUE);
+
+            List<EventoReserva> publicados = publicar(flujo, 5_000);
+
+            esperarHasta(() -> suscriptor.recibidos().size() == publicados.size());
+            List<EventoReserva> recibidos = suscriptor.recibidos();
+            for (int i = 0; i < publicados.size(); i++) {
+                assertSame(publicados.get(i), recibidos.get(i), "Evento " + i + " fuera de orden");
+            }
+        }
+    }
+
+    @Test
+    void unSuscriptorQueNoConsumeSeDesconectaConOnError() throws Exception {
+        try (FlujoEventosReserva flujo = new FlujoEventosReserva(4)) {
+            SuscriptorDePrueba lento = new SuscriptorDePrueba();
+            SuscriptorDePrueba atento = new SuscriptorDePrueba();
+            flujo.subscribe(lento);
+            flujo.subscribe(atento);
+            atento.suscripcion.request(Long.MAX_VALUE);
+
+            // Cuatro eventos llenan el búfer del lento, que no pidió nada; el atento los vacía
+            publicar(flujo, 4);
+            esperarHasta(() -> atento.recibidos().size() == 4);
+            assertEquals(1, lento.terminado.getCount(), "Un búfer lleno todavía no es un desborde");
+
+            publicar(flujo, 1);
+
+            assertTrue(lento.terminado.await(ESPERA_MILISEGUNDOS, TimeUnit.MILLISECONDS));
+            assertInstanceOf(FlujoEventosReserva.SuscriptorDesbordadoException.class, lento.error);
+            assertTrue(lento.recibidos().isEmpty());
+            esperarHasta(() -> atento.recibidos().size() == 5);
+            assertNull(atento.error);
+            assertEquals(1, flujo.cantidadSuscriptores(), "Solo queda el suscriptor que consume");
+        }
+    }
+
+    @Test
+    void pedirUnaCantidadNoPositivaTerminaConOnError() throws Exception {
+        try (FlujoEventosReserva flujo = new FlujoEventosReserva()) {
+            SuscriptorDePrueba suscriptor = new SuscriptorDePrueba();
+            flujo.subscribe(suscriptor);
+
+            suscriptor.suscripcion.request(0);
+
+            assertTrue(suscriptor.terminado.await(ESPERA_MILISEGUNDOS, TimeUnit.MILLISECONDS));
+            assertInstanceOf(IllegalArgumentException.class, suscriptor.error);
+            assertEquals(0, flujo.cantidadSuscriptores());
+        }
+    }
+
+    @Test
+    void cerrarEntregaLoPendienteYTerminaConOnComplete() throws Exception {
+        FlujoEventosReserva flujo = new FlujoEventosReserva(64);
+        SuscriptorDePrueba suscriptor = new SuscriptorDePrueba();
+        flujo.subscribe(suscriptor);
+        List<EventoReserva> publicados = publicar(flujo, 3);
+
+        flujo.close();
+        publicar(flujo, 2);
+        suscriptor.suscripcion.request(Long.MAX_VALUE);
+
+        assertTrue(suscriptor.terminado.await(ESPERA_MILISEGUNDOS, TimeUnit.MILLISECONDS));
+        assertTrue(suscriptor.completo);
+        assertEquals(publicados, suscriptor.recibidos(), "Tras cerrar no se aceptan eventos nuevos");
+
+        SuscriptorDePrueba tardio = new SuscriptorDePrueba();
+        flujo.subscribe(tardio);
+        assertTrue(tardio.terminado.await(ESPERA_MILISEGUNDOS, TimeUnit.MILLISECONDS));
+        assertTrue(tardio.completo);
+    }
+
+    private List<EventoReserva> publicar(FlujoEventosReserva flujo, int cantidad) {
+        List<EventoReserva> publicados = new ArrayList<>(cantidad);
+        for (int i = 0; i < cantidad; i++) {
+            EventoReserva evento = EventoReserva.de(TipoEventoReserva.CREADA, reserva);
+            flujo.notificar(evento);
+            publicados.add(evento);
+        }
+        return publicados;
+    }
+
+    private static void esperarHasta(BooleanSupplier condicion) {
+        long limite = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(ESPERA_MILISEGUNDOS);
+        while (!condicion.getAsBoolean()) {
+            if (System.nanoTime() - limite > 0) {
+                throw new AssertionError("La condición no se cumplió a tiempo");
+            }
+            Thread.onSpinWait();
+        }
+    }
+
+    /**
+     * Suscriptor que guarda lo que recibe y avisa cuando termina.
+     */
+    private static final class SuscriptorDePrueba implements Flow.Subscriber<EventoReserva> {
+        private final List<EventoReserva> recibidos = new ArrayList<>();
+        private final CountDownLatch terminado = new CountDownLatch(1);
+        private volatile Flow.Subscription suscripcion;
+        private volatile Throwable error;
+        private volatile boolean completo;
+
+        @Override
+        public void onSubscribe(Flow.Subscription suscripcion) {
+            this.suscripcion = suscripcion;
+        }
+
+        @Override
+        public synchronized void onNext(EventoReserva evento) {
+            recibidos.add(evento);
+        }
+
+        @Override
+        public void onError(Throwable error) {
+            this.error = error;
+            terminado.countDown();
+        }
+
+        @Override
+        public void onComplete() {
+            completo = true;
+            terminado.countDown();
+        }
+
+        private synchronized List<EventoReserva> recibidos() {
+            return new ArrayList<>(recibidos);
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package com.hotelreservation.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Pruebas de la caché de idempotencia: un reintento con la misma clave nunca repite la
+ * operación mientras su resultado siga guardado, ni siquiera si la operación sigue en curso.
+ */
+class CacheIdempotenciaTest {
+    private static final Duration LARGA = Duration.ofMinutes(10);
+
+    @Test
+    void unReintentoDevuelveElResultadoSinRepetirLaOperacion() {
+        CacheIdempotencia cache = new CacheIdempotencia(10, LARGA);
+        AtomicInteger ejecuciones = new AtomicInteger();
+
+        String primero = cache.ejecutar("k1", "crear|101", () -> "reserva-" + ejecuciones.incrementAndGet());
+        String reintento = cache.ejecutar("k1", "crear|101", () -> "reserva-" + ejecuciones.incrementAndGet());
+
+        assertEquals("reserva-1", primero);
+        assertEquals("reserva-1", reintento);
+        assertEquals(1, ejecuciones.get());
+    }
+
+    @Test
+    void reutilizarUnaClaveParaOtraOperacionEsUnError() {
+        CacheIdempotencia cache = new CacheIdempotencia(10, LARGA);
+        cache.ejecutar("k1", "crear|101", () -> "reserva");
+
+        assertThrows(IllegalArgumentException.class,
+                () -> cache.ejecutar("k1", "crear|102", () -> "otra"));
+    }
+
+    @Test
+    void unReintentoRecibeLaMismaExcepcion() {
+        CacheIdempotencia cache = new CacheIdempotencia(10, LARGA);
+        AtomicInteger ejecuciones = new AtomicInteger();
+        IllegalStateException rechazo = new IllegalStateException("Pago rechazado");
+
+        IllegalStateException primera = assertThrows(IllegalStateException.class,
+                () -> cache.ejecutar("k1", "confirmar|1", () -> {
+                    ejecuciones.incrementAndGet();
+                    throw rechazo;
+                }));
+        IllegalStateException reintento = assertThrows(IllegalStateException.class,
+                () -> cache.ejecutar("k1", "confirmar|1", () -> {
+                    ejecuciones.incrementAndGet();
+                    return null;
+                }));
+
+        assertSame(rechazo, primera);
+        assertSame(rechazo, reintento);
+        assertEquals(1, ejecuciones.get());
+    }
+
+    @Test
+    void unaEntradaVencidaVuelveAEjecutarLaOperacion() {
+        CacheIdempotencia cache = new CacheIdempotencia(10, Duration.ZERO);
+        AtomicInteger ejecuciones = new AtomicInteger();
+
+        cache.ejecutar("k1", "crear|101", ejecuciones::incrementAndGet);
+        int segunda = cache.ejecutar("k1", "crear|101", ejecuciones::incrementAndGet);
+
+        assertEquals(2, segunda);
+    }
+
+    @Test
+    void elVencimientoCuentaDesdeQueTerminaLaOperacion() {
+        CacheIdempotencia cache = new CacheIdempotencia(10, Duration.ofMillis(500));
+        AtomicInteger ejecuciones = new AtomicInteger();
+
+        // La operación tarda más que la duración de la entrada
+        cache.ejecutar("k1", "confirmar|1", () -> {
+            dormir(700);
+            return ejecuciones.incrementAndGet();
+        });
+        int reintento = cache.ejecutar("k1", "confirmar|1", ejecuciones::incrementAndGet);
+
+        assertEquals(1, reintento);
+        assertEquals(1, ejecuciones.get());
+    }
+
+    @Test
+    void unaOperacionEnCursoNoSeDescartaAunqueSeSupereLaCapacidad() throws Exception {
+        CacheIdempotencia cache = new CacheIdempotencia(1, LARGA);
+        AtomicInteger cobros = new AtomicInteger();
+        CountDownLatch enCurso = new CountDownLatch(1);
+        CountDownLatch liberar = new CountDownLatch(1);
+
+        CompletableFuture<Integer> original = CompletableFuture.supplyAsync(() ->
+                cache.ejecutar("lenta", "confirmar|1", () -> {
+                    enCurso.countDown();
+                    esperar(liberar);
+                    return cobros.incrementAndGet();
+                }));
+        assertTrue(enCurso.await(5, TimeUnit.SECONDS));
+
+        // Otras claves llenan la caché mientras el cobro sigue en curso
+        for (int i = 0; i < 5; i++) {
+            String clave = "otra-" + i;
+            cache.ejecutar(clave, "crear|" + i, () -> clave);
+        }
+        CompletableFuture<Integer> reintento = CompletableFuture.supplyAsync(() ->
+                cache.ejecutar("lenta", "confirmar|1", cobros::incrementAndGet));
+        liberar.countDown();
+
+        assertEquals(1, original.get(5, TimeUnit.SECONDS));
+        assertEquals(1, reintento.get(5, TimeUnit.SECONDS));
+        assertEquals(1, cobros.get());
+    }
+
+    private static void dormir(long milisegundos) {
+        try {
+            Thread.sleep(milisegundos);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void esperar(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,284 @@
+package com.hotelreservation.service;
+
+import com.hotelreservation.model.Cliente;
+import com.hotelreservation.model.EstadoReserva;
+import com.hotelreservation.model.Habitacion;
+import com.hotelreservation.model.HabitacionEstandar;
+import com.hotelreservation.model.Reserva;
+import com.hotelreservation.payment.MetodoPago;
+import com.hotelreservation.payment.PagoTarjetaCredito;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Pruebas de estrés de las reservas concurrentes: muchos hilos piden rangos que se
+ * solapan y, a lo sumo, una reserva puede quedarse con cada noche de cada habitación;
+ * una misma reserva confirmada desde varios hilos se cobra una sola vez.
+ */
+class GestorReservasConcurrenciaTest {
+    private static final LocalDate INICIO = LocalDate.of(2030, 1, 1);
+    private static final int NOCHES = 60;
+    private static final int HILOS = 16;
+    private static final int INTENTOS_POR_HILO = 500;
+
+    private final MetodoPago metodoPago =
+            new PagoTarjetaCredito("4111111111111111", "Cliente Prueba", "12/35", "123");
+
+    @Test
+    void unaSolaReservaGanaCadaNoche() throws Exception {
+        GestorReservas gestor = new GestorReservas();
+        Habitacion habitacion = new HabitacionEstandar("101");
+        gestor.registrarHabitacion(habitacion);
+
+        List<Reserva> creadas = reservarEnParalelo(gestor, habitacion, false);
+
+        assertTrue(creadas.size() > 0, "Al menos una reserva debe ganar");
+        verificarNoches(gestor, habitacion, creadas);
+    }
+
+    @Test
+    void lasCancelacionesLiberanNochesSinDuplicarlas() throws Exception {
+        GestorReservas gestor = new GestorReservas();
+        Habitacion habitacion = new HabitacionEstandar("101");
+        gestor.registrarHabitacion(habitacion);
+
+        List<Reserva> creadas = reservarEnParalelo(gestor, habitacion, true);
+
+        assertTrue(creadas.stream().anyMatch(r -> r.getEstado() == EstadoReserva.CANCELADA),
+                "Alguna reserva debe haberse cancelado");
+        verificarNoches(gestor, habitacion, creadas);
+    }
+
+    @Test
+    void reservasDeVariasHabitacionesEnOrdenOpuestoNoSeBloquean() {
+        GestorReservas gestor = new GestorReservas();
+        List<Habitacion> habitaciones = new ArrayList<>();
+        for (int numero = 101; numero <= 104; numero++) {
+            Habitacion habitacion = new HabitacionEstandar(String.valueOf(numero));
+            gestor.registrarHabitacion(habitacion);
+            habitaciones.add(habitacion);
+        }
+
+        // Un interbloqueo entre hilos que toman las mismas habitaciones en orden opuesto
+        // dejaría la prueba colgada: el tiempo límite lo convierte en un fallo
+        List<Reserva> creadas = assertTimeoutPreemptively(Duration.ofSeconds(60),
+                () -> reservarVariasEnParalelo(gestor, habitaciones));
+
+        assertTrue(creadas.size() > 0, "Al menos una reserva debe ganar");
+        assertTrue(creadas.stream().anyMatch(r -> r.getHabitaciones().size() > 1),
+                "Alguna reserva debe tener varias habitaciones");
+        verificarNoches(gestor, habitaciones, creadas);
+    }
+
+    @Test
+    void confirmacionesConcurrentesCobranUnaSolaVez() throws Exception {
+        GestorReservas gestor = new GestorReservas();
+        Habitacion habitacion = new HabitacionEstandar("101");
+        gestor.registrarHabitacion(habitacion);
+        Cliente cliente = new Cliente("Cliente Prueba", "cliente@hotel.com", "3000000000", "10000000");
+        CyclicBarrier largada = new CyclicBarrier(HILOS);
+        ExecutorService hilos = Executors.newFixedThreadPool(HILOS);
+        try {
+            for (int ronda = 0; ronda < 50; ronda++) {
+                MetodoPagoContador pago = new MetodoPagoContador();
+                LocalDate checkIn = INICIO.plusDays(ronda);
+                Reserva reserva = gestor.crearReserva(cliente, List.of(habitacion),
+                        checkIn, checkIn.plusDays(1), pago);
+                AtomicInteger exitosas = new AtomicInteger();
+
+                List<Future<?>> confirmaciones = new ArrayList<>();
+                for (int h = 0; h < HILOS; h++) {
+                    confirmaciones.add(hilos.submit(() -> {
+                        largada.await();
+                        try {
+                            gestor.confirmarReserva(reserva.getIdReserva());
+                            exitosas.incrementAndGet();
+                        } catch (IllegalStateException e) {
+                            // Ya confirmada o con el pago en curso en otro hilo
+                        }
+                        return null;
+                    }));
+                }
+                for (Future<?> confirmacion : confirmaciones) {
+                    confirmacion.get();
+                }
+
+                assertEquals(1, pago.cobros.get(), "Cobros de la ronda " + ronda);
+                assertEquals(1, exitosas.get(), "Confirmaciones exitosas de la ronda " + ronda);
+                assertEquals(EstadoReserva.CONFIRMADA, reserva.getEstado());
+            }
+        } finally {
+            hilos.shutdownNow();
+        }
+    }
+
+    /**
+     * Lanza todos los hilos a la vez tras una barrera; cada uno pide rangos al azar sobre
+     * la misma habitación y, si se pide, cancela parte de lo que consigue.
+     */
+    private List<Reserva> reservarEnParalelo(GestorReservas gestor, Habitacion habitacion,
+                                             boolean cancelar) throws Exception {
+        CyclicBarrier largada = new CyclicBarrier(HILOS);
+        ExecutorService hilos = Executors.newFixedThreadPool(HILOS);
+        try {
+            List<Future<List<Reserva>>> resultados = new ArrayList<>();
+            for (int h = 0; h < HILOS; h++) {
+                long semilla = h;
+                resultados.add(hilos.submit(() -> {
+                    SplittableRandom aleatorio = new SplittableRandom(semilla);
+                    Cliente cliente = new Cliente("Cliente " + semilla, "c" + semilla + "@hotel.com",
+                            "3000000000", String.valueOf(10_000_000 + semilla));
+                    List<Reserva> propias = new ArrayList<>();
+                    largada.await();
+                    for (int i = 0; i < INTENTOS_POR_HILO; i++) {
+                        LocalDate checkIn = INICIO.plusDays(aleatorio.nextInt(NOCHES - 1));
+                        LocalDate checkOut = checkIn.plusDays(1 + aleatorio.nextInt(
+                                Math.min(5, NOCHES - (int) (checkIn.toEpochDay() - INICIO.toEpochDay()))));
+                        try {
+                            Reserva reserva = gestor.crearReserva(cliente, List.of(habitacion),
+                                    checkIn, checkOut, metodoPago);
+                            propias.add(reserva);
+                            if (cancelar && aleatorio.nextBoolean()) {
+                                gestor.cancelarReserva(reserva.getIdReserva());
+                            }
+                        } catch (IllegalStateException e) {
+                            // Otra reserva ya tiene alguna de las noches
+                        }
+                    }
+                    return propias;
+                }));
+            }
+            List<Reserva> creadas = new ArrayList<>();
+            for (Future<List<Reserva>> resultado : resultados) {
+                creadas.addAll(resultado.get());
+            }
+            return creadas;
+        } finally {
+            hilos.shutdownNow();
+        }
+    }
+
+    /**
+     * Cada hilo pide dos o tres habitaciones al azar; la mitad de los hilos las entrega en
+     * orden ascendente y la otra mitad en orden descendente.
+     */
+    private List<Reserva> reservarVariasEnParalelo(GestorReservas gestor, List<Habitacion> habitaciones)
+            throws Exception {
+        CyclicBarrier largada = new CyclicBarrier(HILOS);
+        ExecutorService hilos = Executors.newFixedThreadPool(HILOS);
+        try {
+            List<Future<List<Reserva>>> resultados = new ArrayList<>();
+            for (int h = 0; h < HILOS; h++) {
+                long semilla = h;
+                boolean descendente = h % 2 == 1;
+                resultados.add(hilos.submit(() -> {
+                    SplittableRandom aleatorio = new SplittableRandom(semilla);
+                    Cliente cliente = new Cliente("Cliente " + semilla, "c" + semilla + "@hotel.com",
+                            "3000000000", String.valueOf(10_000_000 + semilla));
+                    List<Reserva> propias = new ArrayList<>();
+                    largada.await();
+                    for (int i = 0; i < INTENTOS_POR_HILO; i++) {
+                        int primera = aleatorio.nextInt(habitaciones.size() - 1);
+                        int cantidad = Math.min(2 + aleatorio.nextInt(2), habitaciones.size() - primera);
+                        List<Habitacion> pedidas = new ArrayList<>(habitaciones.subList(primera, primera + cantidad));
+                        if (descendente) {
+                            Collections.reverse(pedidas);
+                        }
+                        LocalDate checkIn = INICIO.plusDays(aleatorio.nextInt(NOCHES - 1));
+                        LocalDate checkOut = checkIn.plusDays(1 + aleatorio.nextInt(
+                                Math.min(5, NOCHES - (int) (checkIn.toEpochDay() - INICIO.toEpochDay()))));
+                        try {
+                            propias.add(gestor.crearReserva(cliente, pedidas, checkIn, checkOut, metodoPago));
+                        } catch (IllegalStateException e) {
+                            // Otra reserva ya tiene alguna de las noches
+                        }
+                    }
+                    return propias;
+                }));
+            }
+            List<Reserva> creadas = new ArrayList<>();
+            for (Future<List<Reserva>> resultado : resultados) {
+                creadas.addAll(resultado.get());
+            }
+            return creadas;
+        } finally {
+            hilos.shutdownNow();
+        }
+    }
+
+    private void verificarNoches(GestorReservas gestor, Habitacion habitacion, List<Reserva> creadas) {
+        verificarNoches(gestor, List.of(habitacion), creadas);
+    }
+
+    /**
+     * Cada noche de cada habitación la cubre a lo sumo una reserva vigente, y la habitación
+     * figura libre exactamente en las noches que no cubre ninguna.
+     */
+    private void verificarNoches(GestorReservas gestor, List<Habitacion> habitaciones, List<Reserva> creadas) {
+        for (Habitacion habitacion : habitaciones) {
+            int[] ocupantes = new int[NOCHES];
+            for (Reserva reserva : creadas) {
+                if (reserva.getEstado() == EstadoReserva.CANCELADA || !reserva.getHabitaciones().contains(habitacion)) {
+                    continue;
+                }
+                long desde = reserva.getFechaCheckIn().toEpochDay() - INICIO.toEpochDay();
+                long hasta = reserva.getFechaCheckOut().toEpochDay() - INICIO.toEpochDay();
+                for (long noche = desde; noche < hasta; noche++) {
+                    ocupantes[(int) noche]++;
+                }
+            }
+            for (int noche = 0; noche < NOCHES; noche++) {
+                LocalDate fecha = INICIO.plusDays(noche);
+                assertTrue(ocupantes[noche] <= 1, "Noche " + fecha + " de la habitación "
+                        + habitacion.getNumero() + " reservada " + ocupantes[noche] + " veces");
+                boolean libre = gestor.obtenerHabitacionesDisponibles(fecha, fecha.plusDays(1)).contains(habitacion);
+                assertEquals(ocupantes[noche] == 0, libre,
+                        "Disponibilidad de la habitación " + habitacion.getNumero() + " la noche " + fecha);
+            }
+        }
+    }
+
+    /**
+     * Método de pago que cuenta sus cobros. Cada cobro tarda un poco, para que las demás
+     * confirmaciones lleguen mientras sigue en curso.
+     */
+    private static final class MetodoPagoContador implements MetodoPago {
+        private final AtomicInteger cobros = new AtomicInteger();
+
+        @Override
+        public boolean procesarPago(double monto) {
+            cobros.incrementAndGet();
+            try {
+                Thread.sleep(2);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return true;
+        }
+
+        @Override
+        public String getNombreMetodo() {
+            return "Pago contador";
+        }
+
+        @Override
+        public String obtenerDetalles() {
+            return "Cuenta los cobros";
+        }
+    }
+}
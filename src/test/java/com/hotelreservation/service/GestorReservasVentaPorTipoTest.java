@@ -0,0 +1,187 @@
+package com.hotelreservation.service;
+
+import com.hotelreservation.model.Cliente;
+import com.hotelreservation.model.EstadoReserva;
+import com.hotelreservation.model.Habitacion;
+import com.hotelreservation.model.HabitacionDoble;
+import com.hotelreservation.model.HabitacionEstandar;
+import com.hotelreservation.model.Reserva;
+import com.hotelreservation.model.TablaTarifas;
+import com.hotelreservation.model.TipoHabitacion;
+import com.hotelreservation.payment.MetodoPago;
+import com.hotelreservation.payment.PagoTarjetaCredito;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Pruebas de la venta por tipo de habitación: el cupo de cada tipo y noche lo comparten
+ * las ventas por tipo y las reservas de habitaciones concretas, nunca se vende más que la
+ * capacidad más la sobreventa, y al asignar las habitaciones la reserva hereda el cupo.
+ */
+class GestorReservasVentaPorTipoTest {
+    private static final LocalDate INICIO = LocalDate.of(2030, 1, 1);
+    private static final LocalDate CHECK_IN = INICIO.plusDays(10);
+    private static final LocalDate CHECK_OUT = CHECK_IN.plusDays(3);
+
+    private final Cliente cliente = new Cliente("Cliente Prueba", "cliente@hotel.com", "3000000000", "10000000");
+    private final MetodoPago tarjeta = new PagoTarjetaCredito("4111111111111111", "Cliente Prueba", "12/35", "123");
+
+    private GestorReservas gestor;
+    private Habitacion estandar101;
+    private Habitacion estandar102;
+
+    @BeforeEach
+    void crearGestor() {
+        gestor = new GestorReservas(new TablaTarifas(INICIO, 365));
+        estandar101 = new HabitacionEstandar("101");
+        estandar102 = new HabitacionEstandar("102");
+        gestor.registrarHabitacion(estandar101);
+        gestor.registrarHabitacion(estandar102);
+        gestor.registrarHabitacion(new HabitacionDoble("201"));
+    }
+
+    @Test
+    void noSeVendeMasQueLaCapacidadMasLaSobreventa() {
+        gestor.fijarSobreventa(TipoHabitacion.ESTANDAR, 0.5);
+
+        for (int i = 0; i < 3; i++) {
+            gestor.venderPorTipo(cliente, TipoHabitacion.ESTANDAR, 1, CHECK_IN, CHECK_OUT, tarjeta);
+        }
+
+        assertThrows(IllegalStateException.class,
+                () -> gestor.venderPorTipo(cliente, TipoHabitacion.ESTANDAR, 1, CHECK_IN, CHECK_OUT, tarjeta));
+        assertEquals(0, gestor.obtenerCupoDisponible(TipoHabitacion.ESTANDAR, CHECK_IN));
+        assertEquals(3, gestor.obtenerCupoDisponible(TipoHabitacion.ESTANDAR, CHECK_OUT),
+                "La noche del check-out no se vende");
+        assertEquals(1, gestor.obtenerCupoDisponible(TipoHabitacion.DOBLE, CHECK_IN));
+    }
+
+    @Test
+    void lasReservasDeHabitacionesConcretasCompartenElCupo() {
+        VentaPorTipo venta = gestor.venderPorTipo(cliente, TipoHabitacion.ESTANDAR, 1, CHECK_IN, CHECK_OUT, tarjeta);
+        gestor.crearReserva(cliente, List.of(estandar101), CHECK_IN, CHECK_OUT, tarjeta);
+
+        // La 102 está libre, pero su noche ya está vendida a la venta por tipo
+        assertThrows(IllegalStateException.class,
+                () -> gestor.crearReserva(cliente, List.of(estandar102), CHECK_IN, CHECK_OUT, tarjeta));
+        assertTrue(gestor.obtenerHabitacionesDisponibles(CHECK_IN, CHECK_OUT).contains(estandar102));
+
+        gestor.cancelarVentaPorTipo(venta.getIdVenta());
+        Reserva reserva = gestor.crearReserva(cliente, List.of(estandar102), CHECK_IN, CHECK_OUT, tarjeta);
+        assertEquals(0, gestor.obtenerCupoDisponible(TipoHabitacion.ESTANDAR, CHECK_IN));
+
+        gestor.cancelarReserva(reserva.getIdReserva());
+        assertEquals(1, gestor.obtenerCupoDisponible(TipoHabitacion.ESTANDAR, CHECK_IN));
+    }
+
+    @Test
+    void cambiarFechasMueveElCupoSinPerderloSiFalla() {
+        // Con la reserva y una venta, las noches de la estadía quedan sin cupo
+        Reserva reserva = gestor.crearReserva(cliente, List.of(estandar101), CHECK_IN, CHECK_OUT, tarjeta);
+        gestor.venderPorTipo(cliente, TipoHabitacion.ESTANDAR, 1, CHECK_IN, CHECK_OUT, tarjeta);
+        gestor.venderPorTipo(cliente, TipoHabitacion.ESTANDAR, 2, CHECK_OUT, CHECK_OUT.plusDays(1), tarjeta);
+
+        // La noche nueva está llena aunque la 101 esté libre: el cambio falla y el cupo queda igual
+        assertThrows(IllegalStateException.class, () -> gestor.cambiarFechasReserva(reserva.getIdReserva(),
+                CHECK_IN.plusDays(1), CHECK_OUT.plusDays(1)));
+        assertEquals(CHECK_IN, reserva.getFechaCheckIn());
+        assertEquals(0, gestor.obtenerCupoDisponible(TipoHabitacion.ESTANDAR, CHECK_IN));
+        assertEquals(0, gestor.obtenerCupoDisponible(TipoHabitacion.ESTANDAR, CHECK_OUT.minusDays(1)));
+        assertEquals(0, gestor.obtenerCupoDisponible(TipoHabitacion.ESTANDAR, CHECK_OUT));
+
+        // Las noches que comparten ambos rangos están llenas, pero ya son de la reserva
+        gestor.cambiarFechasReserva(reserva.getIdReserva(), CHECK_IN.minusDays(1), CHECK_OUT.minusDays(1));
+        assertEquals(1, gestor.obtenerCupoDisponible(TipoHabitacion.ESTANDAR, CHECK_IN.minusDays(1)));
+        assertEquals(0, gestor.obtenerCupoDisponible(TipoHabitacion.ESTANDAR, CHECK_IN));
+        assertEquals(1, gestor.obtenerCupoDisponible(TipoHabitacion.ESTANDAR, CHECK_OUT.minusDays(1)),
+                "La noche que deja la reserva vuelve al cupo");
+    }
+
+    @Test
+    void alHacerElCheckInLaReservaHeredaElCupoDeLaVenta() {
+        VentaPorTipo venta = gestor.venderPorTipo(cliente, TipoHabitacion.ESTANDAR, 2, CHECK_IN, CHECK_OUT, tarjeta);
+        assertEquals(0, gestor.obtenerCupoDisponible(TipoHabitacion.ESTANDAR, CHECK_IN));
+
+        Reserva reserva = gestor.asignarHabitaciones(venta.getIdVenta());
+
+        assertEquals(venta.getIdVenta(), reserva.getIdReserva());
+        assertEquals(EstadoReserva.PENDIENTE, reserva.getEstado());
+        assertEquals(List.of(estandar101, estandar102), reserva.getHabitaciones());
+        assertEquals(reserva, venta.getReserva().orElseThrow());
+        assertFalse(venta.estaVigente());
+        assertEquals(0, gestor.obtenerCupoDisponible(TipoHabitacion.ESTANDAR, CHECK_IN), "El cupo no se descuenta dos veces");
+        assertThrows(IllegalStateException.class, () -> gestor.asignarHabitaciones(venta.getIdVenta()));
+        assertThrows(IllegalStateException.class, () -> gestor.cancelarVentaPorTipo(venta.getIdVenta()));
+
+        gestor.confirmarReserva(reserva.getIdReserva());
+        gestor.cancelarReserva(reserva.getIdReserva());
+        assertEquals(2, gestor.obtenerCupoDisponible(TipoHabitacion.ESTANDAR, CHECK_IN));
+    }
+
+    @Test
+    void conSobreventaElCheckInPuedeQuedarseSinHabitacion() {
+        gestor.fijarSobreventa(TipoHabitacion.DOBLE, 1.0);
+        VentaPorTipo primera = gestor.venderPorTipo(cliente, TipoHabitacion.DOBLE, 1, CHECK_IN, CHECK_OUT, tarjeta);
+        VentaPorTipo segunda = gestor.venderPorTipo(cliente, TipoHabitacion.DOBLE, 1, CHECK_IN, CHECK_OUT, tarjeta);
+
+        gestor.asignarHabitaciones(primera.getIdVenta());
+
+        assertThrows(IllegalStateException.class, () -> gestor.asignarHabitaciones(segunda.getIdVenta()));
+        assertTrue(segunda.estaVigente(), "La venta sin habitación sigue vigente para reubicarla");
+        gestor.cancelarVentaPorTipo(segunda.getIdVenta());
+        assertEquals(1, gestor.obtenerCupoDisponible(TipoHabitacion.DOBLE, CHECK_IN));
+    }
+
+    @Test
+    void lasVentasConcurrentesNoSuperanElLimite() throws Exception {
+        gestor.fijarSobreventa(TipoHabitacion.ESTANDAR, 4.0);
+        int hilos = 16;
+        int intentosPorHilo = 50;
+        ExecutorService executor = Executors.newFixedThreadPool(hilos);
+        CountDownLatch largada = new CountDownLatch(1);
+        List<Future<Integer>> vendidas = new ArrayList<>();
+        try {
+            for (int h = 0; h < hilos; h++) {
+                int desplazamiento = h % 3;
+                vendidas.add(executor.submit(() -> {
+                    largada.await();
+                    int exitosas = 0;
+                    for (int i = 0; i < intentosPorHilo; i++) {
+                        // Estadías que se solapan en la noche CHECK_IN + 2
+                        LocalDate desde = CHECK_IN.plusDays(desplazamiento);
+                        try {
+                            gestor.venderPorTipo(cliente, TipoHabitacion.ESTANDAR, 1, desde, desde.plusDays(3), tarjeta);
+                            exitosas++;
+                        } catch (IllegalStateException e) {
+                            // Sin cupo
+                        }
+                    }
+                    return exitosas;
+                }));
+            }
+            largada.countDown();
+            int total = 0;
+            for (Future<Integer> futuro : vendidas) {
+                total += futuro.get(60, TimeUnit.SECONDS);
+            }
+            assertEquals(10, total, "2 habitaciones con 400 % de sobreventa");
+            assertEquals(0, gestor.obtenerCupoDisponible(TipoHabitacion.ESTANDAR, CHECK_IN.plusDays(2)));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
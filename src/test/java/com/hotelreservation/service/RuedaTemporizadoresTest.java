@@ -0,0 +1,172 @@
+package com.hotelreservation.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Pruebas de la rueda de temporizadores con un reloj simulado: la rueda empieza en el
+ * instante 0 y cada prueba decide hasta qué paso avanzarla, así que nada depende del
+ * tiempo real.
+ */
+class RuedaTemporizadoresTest {
+    private static final Duration PASO = Duration.ofMillis(1);
+    private static final long PASO_NANOS = PASO.toNanos();
+    private static final long RANURAS = 64;
+
+    private final RuedaTemporizadores rueda = new RuedaTemporizadores(PASO, 0);
+    private long pasoActual;
+
+    @Test
+    void unaTareaVenceEnSuPasoYNoAntes() {
+        List<Long> vencimientos = new ArrayList<>();
+        programar(5, vencimientos);
+
+        assertEquals(0, avanzarHasta(4));
+        assertEquals(1, avanzarHasta(5));
+        assertEquals(List.of(5L), vencimientos);
+        assertEquals(0, rueda.cantidad());
+    }
+
+    @Test
+    void elPlazoSeRedondeaHaciaArribaAlPaso() {
+        List<Long> vencimientos = new ArrayList<>();
+        rueda.programar(PASO.multipliedBy(3).plusNanos(1), () -> vencimientos.add(pasoActual));
+        rueda.programar(Duration.ZERO, () -> vencimientos.add(pasoActual));
+
+        avanzarDeAUno(10);
+
+        assertEquals(List.of(1L, 4L), vencimientos);
+    }
+
+    @Test
+    void lasTareasBajanDeNivelYVencenEnSuPaso() {
+        List<Long> vencimientos = new ArrayList<>();
+        long[] plazos = {
+                RANURAS + 10,                          // nivel 1
+                RANURAS * RANURAS + 3,                 // nivel 2
+                RANURAS * RANURAS * RANURAS + 7,       // nivel 3
+                RANURAS * RANURAS * RANURAS - 1        // justo antes del límite del nivel 2
+        };
+        for (long plazo : plazos) {
+            programar(plazo, vencimientos);
+        }
+
+        avanzarDeAUno(RANURAS * RANURAS * RANURAS + 10);
+
+        assertEquals(List.of(RANURAS + 10, RANURAS * RANURAS + 3,
+                RANURAS * RANURAS * RANURAS - 1, RANURAS * RANURAS * RANURAS + 7), vencimientos);
+    }
+
+    @Test
+    void unaTareaMasAllaDelHorizonteVenceEnSuPaso() {
+        long horizonte = RANURAS * RANURAS * RANURAS * RANURAS;
+        List<Long> vencimientos = new ArrayList<>();
+        programar(horizonte + 5, vencimientos);
+        programar(3 * horizonte + 1, vencimientos);
+
+        assertEquals(0, avanzarHasta(horizonte + 4));
+        assertEquals(1, avanzarHasta(horizonte + 5));
+        assertEquals(0, avanzarHasta(3 * horizonte));
+        assertEquals(1, avanzarHasta(3 * horizonte + 1));
+        assertEquals(List.of(horizonte + 5, 3 * horizonte + 1), vencimientos);
+    }
+
+    @Test
+    void cancelarQuitaLaTareaDeSuRanura() {
+        List<Long> vencimientos = new ArrayList<>();
+        // Tres en la misma ranura: se cancela la del medio de la lista
+        RuedaTemporizadores.Temporizador primero = programar(RANURAS + 1, vencimientos);
+        RuedaTemporizadores.Temporizador medio = programar(RANURAS + 1, vencimientos);
+        RuedaTemporizadores.Temporizador ultimo = programar(RANURAS + 1, vencimientos);
+        RuedaTemporizadores.Temporizador lejano = programar(RANURAS * RANURAS + 1, vencimientos);
+
+        assertTrue(medio.cancelar());
+        assertFalse(medio.cancelar(), "Cancelar dos veces no debe descontar de nuevo");
+        assertTrue(lejano.cancelar());
+        assertEquals(2, rueda.cantidad());
+
+        avanzarDeAUno(RANURAS * RANURAS + 10);
+        assertEquals(List.of(RANURAS + 1, RANURAS + 1), vencimientos);
+        assertFalse(primero.cancelar(), "Una tarea vencida ya no se puede cancelar");
+        assertFalse(ultimo.cancelar());
+        assertEquals(0, rueda.cantidad());
+    }
+
+    @Test
+    void cancelarTrasBajarDeNivelFunciona() {
+        List<Long> vencimientos = new ArrayList<>();
+        RuedaTemporizadores.Temporizador temporizador = programar(RANURAS * RANURAS + 20, vencimientos);
+
+        // Al completar la vuelta del nivel 1 baja al nivel 0
+        avanzarHasta(RANURAS * RANURAS + 1);
+        assertTrue(temporizador.cancelar());
+        avanzarHasta(RANURAS * RANURAS + 100);
+
+        assertTrue(vencimientos.isEmpty());
+        assertEquals(0, rueda.cantidad());
+    }
+
+    @Test
+    void cadaTareaVenceEnElPrimerAvanceQueAlcanzaSuPaso() {
+        SplittableRandom aleatorio = new SplittableRandom(42);
+        int tareas = 20_000;
+        long ultimoPlazo = 300_000;
+        long[] plazos = new long[tareas];
+        long[] vencidaEn = new long[tareas];
+        List<RuedaTemporizadores.Temporizador> temporizadores = new ArrayList<>();
+        for (int i = 0; i < tareas; i++) {
+            int indice = i;
+            plazos[i] = 1 + aleatorio.nextLong(ultimoPlazo);
+            temporizadores.add(rueda.programar(PASO.multipliedBy(plazos[i]),
+                    () -> vencidaEn[indice] = pasoActual));
+        }
+        boolean[] canceladas = new boolean[tareas];
+        for (int i = 0; i < tareas; i += 7) {
+            canceladas[i] = temporizadores.get(i).cancelar();
+        }
+
+        // Avances de tamaño variable, algunos de muchas vueltas del nivel 0 a la vez
+        long[] pasosAlcanzados = new long[tareas];
+        while (pasoActual < ultimoPlazo) {
+            long anterior = pasoActual;
+            avanzarHasta(pasoActual + 1 + aleatorio.nextLong(aleatorio.nextBoolean() ? 5 : 500));
+            for (int i = 0; i < tareas; i++) {
+                if (plazos[i] > anterior && plazos[i] <= pasoActual) {
+                    pasosAlcanzados[i] = pasoActual;
+                }
+            }
+        }
+
+        for (int i = 0; i < tareas; i++) {
+            long esperado = canceladas[i] ? 0 : pasosAlcanzados[i];
+            assertEquals(esperado, vencidaEn[i], "Tarea " + i + " con plazo " + plazos[i]);
+        }
+        assertEquals(0, rueda.cantidad());
+    }
+
+    private RuedaTemporizadores.Temporizador programar(long pasos, List<Long> vencimientos) {
+        return rueda.programar(PASO.multipliedBy(pasos), () -> vencimientos.add(pasoActual));
+    }
+
+    /**
+     * Avanza el reloj simulado hasta el paso indicado de una sola vez.
+     */
+    private int avanzarHasta(long paso) {
+        pasoActual = paso;
+        return rueda.avanzar(paso * PASO_NANOS);
+    }
+
+    private void avanzarDeAUno(long hasta) {
+        while (pasoActual < hasta) {
+            avanzarHasta(pasoActual + 1);
+        }
+    }
+}
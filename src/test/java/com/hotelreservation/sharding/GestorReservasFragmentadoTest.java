@@ -0,0 +1,146 @@
+package com.hotelreservation.sharding;
+
+import com.hotelreservation.model.Cliente;
+import com.hotelreservation.model.EstadoReserva;
+import com.hotelreservation.model.Habitacion;
+import com.hotelreservation.model.HabitacionEstandar;
+import com.hotelreservation.model.Reserva;
+import com.hotelreservation.payment.MetodoPago;
+import com.hotelreservation.payment.PagoTarjetaCredito;
+import com.hotelreservation.service.GestorReservas;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.DoubleAdder;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Pruebas del protocolo de dos fases de las reservas distribuidas: la reserva queda
+ * entera en todos los fragmentos o no queda en ninguno, y el cliente no paga por una
+ * reserva que no tiene.
+ */
+class GestorReservasFragmentadoTest {
+    private static final LocalDate CHECK_IN = LocalDate.of(2030, 3, 1);
+    private static final LocalDate CHECK_OUT = CHECK_IN.plusDays(3);
+
+    private final Cliente cliente = new Cliente("Cliente Prueba", "cliente@hotel.com", "3000000000", "10000000");
+    private final MetodoPago tarjeta = new PagoTarjetaCredito("4111111111111111", "Cliente Prueba", "12/35", "123");
+
+    private TransporteEnProceso transporte;
+    private GestorReservasFragmentado gestor;
+    private Habitacion enFragmento0;
+    private Habitacion enFragmento1;
+
+    @BeforeEach
+    void crearFragmentos() {
+        transporte = TransporteEnProceso.conFragmentos(2);
+        gestor = new GestorReservasFragmentado(transporte);
+        // Registra una habitación por propiedad hasta tener una en cada fragmento
+        for (int i = 0; enFragmento0 == null || enFragmento1 == null; i++) {
+            Habitacion habitacion = new HabitacionEstandar(String.valueOf(200 + i));
+            gestor.registrarHabitacion("propiedad-" + i, habitacion);
+            if (gestor.obtenerFragmento(habitacion.getNumero()).orElseThrow() == 0) {
+                enFragmento0 = enFragmento0 == null ? habitacion : enFragmento0;
+            } else {
+                enFragmento1 = enFragmento1 == null ? habitacion : enFragmento1;
+            }
+        }
+    }
+
+    @AfterEach
+    void cerrar() {
+        transporte.close();
+    }
+
+    @Test
+    void unaReservaDistribuidaSeConfirmaEnTodosLosFragmentos() {
+        ReservaDistribuida reserva = gestor.crearReserva(cliente, List.of(enFragmento0, enFragmento1),
+                CHECK_IN, CHECK_OUT, tarjeta);
+
+        gestor.confirmarReserva(reserva);
+
+        assertTrue(reserva.esDistribuida());
+        assertEquals(EstadoReserva.CONFIRMADA, reserva.getEstado());
+        assertEquals(1, transporte.getGestor(0).contarReservas(EstadoReserva.CONFIRMADA));
+        assertEquals(1, transporte.getGestor(1).contarReservas(EstadoReserva.CONFIRMADA));
+    }
+
+    @Test
+    void siUnFragmentoNoPuedePrepararSeDeshaceLaParteDelOtro() {
+        // La habitación del fragmento 1 ya está tomada esas noches
+        GestorReservas fragmento1 = transporte.getGestor(1);
+        fragmento1.crearReserva(cliente, List.of(enFragmento1), CHECK_IN.plusDays(1), CHECK_OUT, tarjeta);
+
+        assertThrows(IllegalStateException.class, () -> gestor.crearReserva(cliente,
+                List.of(enFragmento0, enFragmento1), CHECK_IN, CHECK_OUT, tarjeta));
+
+        GestorReservas fragmento0 = transporte.getGestor(0);
+        assertEquals(0, fragmento0.contarReservas(EstadoReserva.PENDIENTE));
+        assertEquals(1, fragmento0.contarReservas(EstadoReserva.CANCELADA));
+        assertTrue(fragmento0.obtenerHabitacionesDisponibles(CHECK_IN, CHECK_OUT).contains(enFragmento0),
+                "Las noches apartadas en el fragmento 0 deben quedar libres");
+        assertEquals(1, fragmento1.contarReservas(EstadoReserva.PENDIENTE),
+                "La reserva que ya existía en el fragmento 1 no se toca");
+    }
+
+    @Test
+    void siUnCobroFallaSeCancelanTodasYSeReembolsaLoCobrado() {
+        PagoSoloElPrimero pago = new PagoSoloElPrimero();
+        ReservaDistribuida reserva = gestor.crearReserva(cliente, List.of(enFragmento0, enFragmento1),
+                CHECK_IN, CHECK_OUT, pago);
+
+        assertThrows(RuntimeException.class, () -> gestor.confirmarReserva(reserva));
+
+        assertEquals(2, pago.cobros.get());
+        assertEquals(1, pago.reembolsos.get(), "Solo la parte cobrada se reembolsa");
+        assertEquals(pago.montoCobrado.sum(), pago.montoReembolsado.sum(), 0.001);
+        for (Reserva parte : reserva.getPartes()) {
+            assertEquals(EstadoReserva.CANCELADA, parte.getEstado());
+        }
+        assertTrue(gestor.obtenerHabitacionesDisponibles(CHECK_IN, CHECK_OUT)
+                .containsAll(List.of(enFragmento0, enFragmento1)));
+    }
+
+    /**
+     * Aprueba solo el primer cobro y registra los reembolsos.
+     */
+    private static final class PagoSoloElPrimero implements MetodoPago {
+        private final AtomicInteger cobros = new AtomicInteger();
+        private final AtomicInteger reembolsos = new AtomicInteger();
+        private final DoubleAdder montoCobrado = new DoubleAdder();
+        private final DoubleAdder montoReembolsado = new DoubleAdder();
+
+        @Override
+        public boolean procesarPago(double monto) {
+            if (cobros.incrementAndGet() == 1) {
+                montoCobrado.add(monto);
+                return true;
+            }
+            return false;
+        }
+
+        @Override
+        public boolean reembolsarPago(double monto) {
+            reembolsos.incrementAndGet();
+            montoReembolsado.add(monto);
+            return true;
+        }
+
+        @Override
+        public String getNombreMetodo() {
+            return "Pago de prueba";
+        }
+
+        @Override
+        public String obtenerDetalles() {
+            return "Aprueba solo el primer cobro";
+        }
+    }
+}